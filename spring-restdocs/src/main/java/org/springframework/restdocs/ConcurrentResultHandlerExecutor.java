@@ -0,0 +1,129 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.restdocs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.restdocs.config.RestDocumentationContext;
+import org.springframework.restdocs.http.CapturedResult;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultHandler;
+
+/**
+ * Invokes {@link ResultHandler ResultHandlers} concurrently using a pool of daemon
+ * threads that is shared by all documented calls. Each handler is called in the
+ * {@link RestDocumentationContext} of the calling thread.
+ *
+ * @author Andy Wilkinson
+ */
+class ConcurrentResultHandlerExecutor {
+
+	private ConcurrentResultHandlerExecutor() {
+
+	}
+
+	/**
+	 * Invokes each of the given {@code handlers} with the given {@code result}, waiting
+	 * for them all to complete. If one or more of the handlers fails, the first failure
+	 * is thrown with any others added to it as suppressed exceptions.
+	 * <p>
+	 * The handlers only read from the result and its request and response, which are not
+	 * modified while the handlers are running. The result should have been
+	 * {@link CapturedResult#capture(MvcResult) captured} so that the handlers read a copy
+	 * of the response rather than the response itself.
+	 *
+	 * @param handlers the handlers to invoke
+	 * @param result the result to handle
+	 * @throws Exception if a handler fails
+	 */
+	static void handle(List<ResultHandler> handlers, MvcResult result) throws Exception {
+		RestDocumentationContext context = RestDocumentationContext.currentContext();
+		List<Future<Void>> futures = new ArrayList<Future<Void>>(handlers.size());
+		for (ResultHandler handler : handlers) {
+			Callable<Void> task = new HandlerInvocation(handler, result);
+			futures.add(ExecutorHolder.EXECUTOR.submit(context == null ? task : context
+					.wrap(task)));
+		}
+		Throwable failure = null;
+		for (Future<Void> future : futures) {
+			try {
+				future.get();
+			}
+			catch (ExecutionException ex) {
+				if (failure == null) {
+					failure = ex.getCause();
+				}
+				else {
+					failure.addSuppressed(ex.getCause());
+				}
+			}
+		}
+		if (failure instanceof Exception) {
+			throw (Exception) failure;
+		}
+		if (failure instanceof Error) {
+			throw (Error) failure;
+		}
+	}
+
+	private static final class HandlerInvocation implements Callable<Void> {
+
+		private final ResultHandler handler;
+
+		private final MvcResult result;
+
+		private HandlerInvocation(ResultHandler handler, MvcResult result) {
+			this.handler = handler;
+			this.result = result;
+		}
+
+		@Override
+		public Void call() throws Exception {
+			this.handler.handle(this.result);
+			return null;
+		}
+
+	}
+
+	private static final class ExecutorHolder {
+
+		private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(
+				Runtime.getRuntime().availableProcessors(), new ThreadFactory() {
+
+					private final AtomicInteger threadCount = new AtomicInteger();
+
+					@Override
+					public Thread newThread(Runnable runnable) {
+						Thread thread = new Thread(runnable, "restdocs-"
+								+ this.threadCount.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					}
+
+				});
+
+	}
+
+}
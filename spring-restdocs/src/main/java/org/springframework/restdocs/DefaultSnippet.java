@@ -0,0 +1,167 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.restdocs;
+
+import static org.springframework.restdocs.curl.CurlDocumentation.documentCurlRequest;
+import static org.springframework.restdocs.curl.CurlDocumentation.documentCurlRequestAndResponse;
+import static org.springframework.restdocs.curl.CurlDocumentation.documentCurlResponse;
+import static org.springframework.restdocs.http.HttpDocumentation.documentHttpClientRequest;
+import static org.springframework.restdocs.http.HttpDocumentation.documentHttpRequest;
+import static org.springframework.restdocs.http.HttpDocumentation.documentHttpieRequest;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.restdocs.snippet.DocumentationProperties;
+import org.springframework.test.web.servlet.ResultHandler;
+
+/**
+ * The snippets that are produced for every documented API call. The snippets that are
+ * produced by default can be configured globally using the
+ * {@code org.springframework.restdocs.defaultSnippets} property, a comma-separated list
+ * of snippet names, and for an individual call using
+ * {@link RestDocumentationResultHandler#withDefaultSnippets(DefaultSnippet...)}. When
+ * they have not been configured, the cURL request and response snippets are produced.
+ *
+ * @author Andy Wilkinson
+ */
+public enum DefaultSnippet {
+
+	/**
+	 * The request formatted as a cURL command
+	 */
+	REQUEST("request") {
+
+		@Override
+		ResultHandler createHandler(String outputDir) {
+			return documentCurlRequest(outputDir);
+		}
+	},
+
+	/**
+	 * The response formatted as the response to a cURL command
+	 */
+	RESPONSE("response") {
+
+		@Override
+		ResultHandler createHandler(String outputDir) {
+			return documentCurlResponse(outputDir);
+		}
+	},
+
+	/**
+	 * Both the request and the response
+	 */
+	REQUEST_RESPONSE("request-response") {
+
+		@Override
+		ResultHandler createHandler(String outputDir) {
+			return documentCurlRequestAndResponse(outputDir);
+		}
+	},
+
+	/**
+	 * The request formatted as a raw HTTP request. Only produced when it has been
+	 * selected.
+	 */
+	HTTP_REQUEST("http-request") {
+
+		@Override
+		ResultHandler createHandler(String outputDir) {
+			return documentHttpRequest(outputDir);
+		}
+	},
+
+	/**
+	 * The request formatted as an HTTPie command. Only produced when it has been
+	 * selected.
+	 */
+	HTTPIE_REQUEST("httpie-request") {
+
+		@Override
+		ResultHandler createHandler(String outputDir) {
+			return documentHttpieRequest(outputDir);
+		}
+	},
+
+	/**
+	 * The request as it would be built using Java's {@code HttpClient}. Only produced
+	 * when it has been selected.
+	 */
+	HTTP_CLIENT_REQUEST("http-client-request") {
+
+		@Override
+		ResultHandler createHandler(String outputDir) {
+			return documentHttpClientRequest(outputDir);
+		}
+	};
+
+	private final String name;
+
+	private DefaultSnippet(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Returns the name of the snippet. The name is used as the name of the file to which
+	 * the snippet is written.
+	 *
+	 * @return the name of the snippet
+	 */
+	public String getName() {
+		return this.name;
+	}
+
+	abstract ResultHandler createHandler(String outputDir);
+
+	/**
+	 * Returns the {@code DefaultSnippet} with the given {@code name}.
+	 *
+	 * @param name the name of the snippet
+	 * @return the snippet
+	 * @throws IllegalArgumentException if there is no snippet with the given name
+	 */
+	public static DefaultSnippet forName(String name) {
+		for (DefaultSnippet snippet : values()) {
+			if (snippet.name.equals(name)) {
+				return snippet;
+			}
+		}
+		throw new IllegalArgumentException("No default snippet is named '" + name + "'");
+	}
+
+	static Set<DefaultSnippet> configuredDefaults(DocumentationProperties properties) {
+		List<String> names = properties.getDefaultSnippets();
+		if (names == null) {
+			return EnumSet.of(REQUEST, RESPONSE, REQUEST_RESPONSE);
+		}
+		Set<DefaultSnippet> snippets = EnumSet.noneOf(DefaultSnippet.class);
+		for (String name : names) {
+			try {
+				snippets.add(forName(name));
+			}
+			catch (IllegalArgumentException ex) {
+				throw new IllegalArgumentException(
+						"Invalid org.springframework.restdocs.defaultSnippets property: "
+								+ ex.getMessage(), ex);
+			}
+		}
+		return snippets;
+	}
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.restdocs;
+
+import java.util.Collections;
+
+import org.springframework.restdocs.hypermedia.LinkDescriptor;
+import org.springframework.restdocs.hypermedia.LinkDescriptors;
+import org.springframework.restdocs.hypermedia.LinkExtractor;
+import org.springframework.restdocs.hypermedia.SchemaDescriptor;
+import org.springframework.restdocs.hypermedia.SchemaExtractor;
+import org.springframework.test.web.servlet.MvcResult;
+
+/**
+ * A {@link RestDocumentationResultHandler} that does nothing. Used when documentation
+ * has been disabled. A single instance is shared so any configuration is ignored rather
+ * than stored.
+ * 
+ * @author Andy Wilkinson
+ * @see RestDocumentation#document(String)
+ */
+class DisabledRestDocumentationResultHandler extends RestDocumentationResultHandler {
+
+	DisabledRestDocumentationResultHandler() {
+		super(null, Collections.<DefaultSnippet> emptySet());
+	}
+
+	@Override
+	public void handle(MvcResult result) throws Exception {
+	}
+
+	@Override
+	public RestDocumentationResultHandler concurrent(boolean concurrent) {
+		return this;
+	}
+
+	@Override
+	public RestDocumentationResultHandler withDefaultSnippets(DefaultSnippet... snippets) {
+		return this;
+	}
+
+	@Override
+	public RestDocumentationResultHandler withLinks(LinkExtractor linkExtractor,
+			LinkDescriptor... descriptors) {
+		return this;
+	}
+
+	@Override
+	public RestDocumentationResultHandler withLinks(LinkExtractor linkExtractor,
+			LinkDescriptors descriptors) {
+		return this;
+	}
+
+	@Override
+	public RestDocumentationResultHandler withSchema(SchemaExtractor schemaExtractor,
+			SchemaDescriptor descriptor) {
+		return this;
+	}
+
+	@Override
+	public RestDocumentationResultHandler withSchemaValidation(String schema) {
+		return this;
+	}
+
+}
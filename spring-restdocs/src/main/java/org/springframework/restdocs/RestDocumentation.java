@@ -16,6 +16,7 @@
 
 package org.springframework.restdocs;
 
+import org.springframework.restdocs.snippet.DocumentationProperties;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 
@@ -26,12 +27,18 @@ import org.springframework.test.web.servlet.ResultActions;
  */
 public abstract class RestDocumentation {
 
+	private static final RestDocumentationResultHandler DISABLED_HANDLER = new DisabledRestDocumentationResultHandler();
+
 	private RestDocumentation() {
 
 	}
 
 	/**
 	 * Documents the API call to the given {@code outputDir}.
+	 * <p>
+	 * If documentation has been disabled by setting the
+	 * {@code org.springframework.restdocs.enabled} property to {@code false}, a shared
+	 * handler that does nothing is returned instead.
 	 * 
 	 * @param outputDir The directory to which the documentation will be written
 	 * @return a Mock MVC {@code ResultHandler} that will produce the documentation
@@ -39,7 +46,14 @@ public abstract class RestDocumentation {
 	 * @see ResultActions#andDo(org.springframework.test.web.servlet.ResultHandler)
 	 */
 	public static RestDocumentationResultHandler document(String outputDir) {
+		if (!isEnabled()) {
+			return DISABLED_HANDLER;
+		}
 		return new RestDocumentationResultHandler(outputDir);
 	}
 
+	private static boolean isEnabled() {
+		return DocumentationProperties.get().isEnabled();
+	}
+
 }
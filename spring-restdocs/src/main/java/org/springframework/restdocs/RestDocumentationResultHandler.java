@@ -16,16 +16,23 @@
 
 package org.springframework.restdocs;
 
+import org.springframework.restdocs.http.CapturedResult;
+import org.springframework.restdocs.http.HarArchive;
 import org.springframework.restdocs.hypermedia.*;
+import org.springframework.restdocs.snippet.DocumentationFailures;
+import org.springframework.restdocs.snippet.DocumentationProperties;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultHandler;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
-import static org.springframework.restdocs.curl.CurlDocumentation.*;
 import static org.springframework.restdocs.hypermedia.HypermediaDocumentation.documentLinks;
 import static org.springframework.restdocs.hypermedia.HypermediaDocumentation.documentSchema;
+import static org.springframework.restdocs.hypermedia.HypermediaDocumentation.validateSchema;
 
 /**
  * A Spring MVC Test {@code ResultHandler} for documenting RESTful APIs.
@@ -37,27 +44,101 @@ public class RestDocumentationResultHandler implements ResultHandler {
 
 	private final String outputDir;
 
+	private List<ResultHandler> defaultSnippetHandlers;
+
 	private List<ResultHandler> delegates;
 
+	private Boolean concurrent;
+
 	RestDocumentationResultHandler(String outputDir) {
-		this.outputDir = outputDir;
+		this(outputDir, DefaultSnippet.configuredDefaults(DocumentationProperties.get()));
+	}
 
+	RestDocumentationResultHandler(String outputDir, Set<DefaultSnippet> defaultSnippets) {
+		this.outputDir = outputDir;
+		this.defaultSnippetHandlers = createDefaultSnippetHandlers(defaultSnippets);
 		this.delegates = new ArrayList<ResultHandler>();
-		this.delegates.add(documentCurlRequest(this.outputDir));
-		this.delegates.add(documentCurlResponse(this.outputDir));
-		this.delegates.add(documentCurlRequestAndResponse(this.outputDir));
 	}
 
 	@Override
 	public void handle(MvcResult result) throws Exception {
-		for (ResultHandler delegate : this.delegates) {
-			delegate.handle(result);
+		// Every handler reads the same copy of the result, leaving the original untouched
+		MvcResult captured = CapturedResult.capture(result);
+		String harFailure = recordInHarArchive(captured);
+		List<ResultHandler> handlers = new ArrayList<ResultHandler>(
+				this.defaultSnippetHandlers);
+		handlers.addAll(this.delegates);
+		boolean concurrent = this.concurrent != null ? this.concurrent
+				: DocumentationProperties.get().isConcurrent();
+		if (concurrent && handlers.size() > 1) {
+			ConcurrentResultHandlerExecutor.handle(handlers, captured);
+		}
+		else {
+			for (ResultHandler handler : handlers) {
+				handler.handle(captured);
+			}
+		}
+		if (harFailure != null) {
+			DocumentationFailures.report(this.outputDir, captured, harFailure);
+		}
+	}
+
+	private String recordInHarArchive(MvcResult result) {
+		// A call that cannot be exported is reported once its snippets have been produced
+		// rather than preventing them from being produced
+		try {
+			HarArchive.record(result);
+			return null;
+		}
+		catch (Exception ex) {
+			return "The call could not be added to the HAR archive: " + ex.getMessage();
 		}
 	}
 
+	/**
+	 * Specify whether or not the snippets for the call should be produced concurrently,
+	 * overriding the {@code org.springframework.restdocs.concurrent} property. When
+	 * {@code true}, each snippet is produced on a pool of threads that is shared by all
+	 * documented calls and any failures are reported together once every snippet has
+	 * been produced.
+	 * 
+	 * @param concurrent {@code true} to produce the snippets concurrently, otherwise
+	 * {@code false}
+	 * @return {@code this}
+	 */
+	public RestDocumentationResultHandler concurrent(boolean concurrent) {
+		this.concurrent = concurrent;
+		return this;
+	}
+
+	/**
+	 * Limits the default snippets that are produced to the given {@code snippets},
+	 * overriding those configured using the
+	 * {@code org.springframework.restdocs.defaultSnippets} property. Snippets that are not
+	 * selected are neither rendered nor written.
+	 * 
+	 * @param snippets the default snippets to produce
+	 * @return {@code this}
+	 */
+	public RestDocumentationResultHandler withDefaultSnippets(DefaultSnippet... snippets) {
+		Set<DefaultSnippet> selected = EnumSet.noneOf(DefaultSnippet.class);
+		selected.addAll(Arrays.asList(snippets));
+		this.defaultSnippetHandlers = createDefaultSnippetHandlers(selected);
+		return this;
+	}
+
+	private List<ResultHandler> createDefaultSnippetHandlers(Set<DefaultSnippet> snippets) {
+		List<ResultHandler> handlers = new ArrayList<ResultHandler>();
+		for (DefaultSnippet snippet : snippets) {
+			handlers.add(snippet.createHandler(this.outputDir));
+		}
+		return handlers;
+	}
+
 	/**
 	 * Document the links in the response using the given {@code descriptors}. The links
-	 * are extracted from the response based on its content type.
+	 * are extracted from the response based on its content type and from any {@code Link}
+	 * headers in the response.
 	 * <p>
 	 * If a link is present in the response but is not described by one of the descriptors
 	 * a failure will occur when this handler is invoked. Similarly, if a link is
@@ -73,6 +154,25 @@ public class RestDocumentationResultHandler implements ResultHandler {
 		return withLinks(null, descriptors);
 	}
 
+	/**
+	 * Document the links in the response using the given, pre-built, {@code descriptors}.
+	 * The links are extracted from the response based on its content type and from any
+	 * {@code Link} headers in the response.
+	 * <p>
+	 * If a link is present in the response but is not described by one of the descriptors
+	 * a failure will occur when this handler is invoked. Similarly, if a link is
+	 * described, and is not optional, but is not present in the response a failure will
+	 * also occur when this handler is invoked.
+	 * 
+	 * @param descriptors the link descriptors
+	 * @return {@code this}
+	 * @see HypermediaDocumentation#linkDescriptors(LinkDescriptor...)
+	 * @see LinkExtractors#extractorForContentType(String)
+	 */
+	public RestDocumentationResultHandler withLinks(LinkDescriptors descriptors) {
+		return withLinks(null, descriptors);
+	}
+
     /**
      * Document the schema of a resource in the response using the given {@code descriptors}.
      * The properties are extracted from the response based on its content type. Which must be
@@ -112,6 +212,26 @@ public class RestDocumentationResultHandler implements ResultHandler {
 		return this;
 	}
 
+	/**
+	 * Document the links in the response using the given, pre-built, {@code descriptors}.
+	 * The links are extracted from the response using the given {@code linkExtractor}.
+	 * <p>
+	 * If a link is present in the response but is not described by one of the descriptors
+	 * a failure will occur when this handler is invoked. Similarly, if a link is
+	 * described, and is not optional, but is not present in the response a failure will
+	 * also occur when this handler is invoked.
+	 * 
+	 * @param linkExtractor used to extract the links from the response
+	 * @param descriptors the link descriptors
+	 * @return {@code this}
+	 * @see HypermediaDocumentation#linkDescriptors(LinkDescriptor...)
+	 */
+	public RestDocumentationResultHandler withLinks(LinkExtractor linkExtractor,
+			LinkDescriptors descriptors) {
+		this.delegates.add(documentLinks(this.outputDir, linkExtractor, descriptors));
+		return this;
+	}
+
     /**
      * Document the schema of a resource in the response using the given {@code descriptors}.
      * The properties are extracted from the response based on its content type. Which must be
@@ -133,4 +253,18 @@ public class RestDocumentationResultHandler implements ResultHandler {
         return this;
     }
 
+	/**
+	 * Validate the body of the response against the given JSON {@code schema}. The
+	 * schema is compiled once and cached for the rest of the run. If the body does not
+	 * match the schema a failure will occur when this handler is invoked.
+	 * 
+	 * @param schema the JSON schema
+	 * @return {@code this}
+	 * @see HypermediaDocumentation#validateSchema(String, String)
+	 */
+	public RestDocumentationResultHandler withSchemaValidation(String schema) {
+		this.delegates.add(validateSchema(this.outputDir, schema));
+		return this;
+	}
+
 }
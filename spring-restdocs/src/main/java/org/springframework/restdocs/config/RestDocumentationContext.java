@@ -17,6 +17,7 @@
 package org.springframework.restdocs.config;
 
 import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -68,6 +69,32 @@ public class RestDocumentationContext {
 		return this.stepCount.get();
 	}
 
+	/**
+	 * Returns a {@code Callable} that will call the given {@code callable} with this
+	 * context as the current context. Allows work that is performed on another thread to
+	 * be carried out in this context.
+	 * 
+	 * @param <V> the type of the callable's result
+	 * @param callable the callable to wrap
+	 * @return The wrapping callable
+	 */
+	public <V> Callable<V> wrap(final Callable<V> callable) {
+		return new Callable<V>() {
+
+			@Override
+			public V call() throws Exception {
+				RestDocumentationContext previous = CONTEXTS.get();
+				CONTEXTS.set(RestDocumentationContext.this);
+				try {
+					return callable.call();
+				}
+				finally {
+					CONTEXTS.set(previous);
+				}
+			}
+		};
+	}
+
 	static void establishContext(Method testMethod) {
 		CONTEXTS.set(new RestDocumentationContext(testMethod));
 	}
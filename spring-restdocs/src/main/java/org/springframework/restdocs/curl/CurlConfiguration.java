@@ -25,6 +25,8 @@ class CurlConfiguration {
 
 	private boolean includeResponseHeaders = true;
 
+	private boolean formatBodies = true;
+
 	boolean isIncludeResponseHeaders() {
 		return this.includeResponseHeaders;
 	}
@@ -32,4 +34,12 @@ class CurlConfiguration {
 	void setIncludeResponseHeaders(boolean includeResponseHeaders) {
 		this.includeResponseHeaders = includeResponseHeaders;
 	}
+
+	boolean isFormatBodies() {
+		return this.formatBodies;
+	}
+
+	void setFormatBodies(boolean formatBodies) {
+		this.formatBodies = formatBodies;
+	}
 }
\ No newline at end of file
@@ -16,19 +16,18 @@
 
 package org.springframework.restdocs.curl;
 
-import static org.springframework.restdocs.util.IterableEnumeration.iterable;
-
 import java.io.IOException;
-import java.io.StringWriter;
-
-import javax.servlet.http.HttpServletRequest;
+import java.util.List;
+import java.util.Map.Entry;
 
 import org.springframework.http.HttpStatus;
-import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.restdocs.format.BodyFormatters;
+import org.springframework.restdocs.format.ContentDecoder;
+import org.springframework.restdocs.http.CapturedRequest;
 import org.springframework.restdocs.snippet.DocumentationWriter;
 import org.springframework.restdocs.snippet.DocumentationWriter.DocumentationAction;
 import org.springframework.test.web.servlet.MvcResult;
-import org.springframework.util.FileCopyUtils;
 import org.springframework.web.bind.annotation.RequestMethod;
 
 /**
@@ -104,14 +103,6 @@ public abstract class CurlDocumentation {
 	private static final class CurlRequestDocumentationAction implements
 			DocumentationAction {
 
-		private static final String SCHEME_HTTP = "http";
-
-		private static final String SCHEME_HTTPS = "https";
-
-		private static final int STANDARD_PORT_HTTP = 80;
-
-		private static final int STANDARD_PORT_HTTPS = 443;
-
 		private final DocumentationWriter writer;
 
 		private final MvcResult result;
@@ -127,55 +118,38 @@ public abstract class CurlDocumentation {
 
 		@Override
 		public void perform() throws IOException {
-			MockHttpServletRequest request = this.result.getRequest();
-			this.writer.print(String.format("curl %s://%s", request.getScheme(),
-					request.getRemoteHost()));
-
-			if (isNonStandardPort(request)) {
-				this.writer.print(String.format(":%d", request.getRemotePort()));
-			}
-
-			this.writer.print(getRequestUriWithQueryString(request));
+			CapturedRequest request = CapturedRequest.capture(this.result);
+			this.writer.print(String.format("curl %s", request.getUrl()));
 
 			if (this.curlConfiguration.isIncludeResponseHeaders()) {
 				this.writer.print(" -i");
 			}
 
+			if (this.result.getResponse() != null
+					&& ContentDecoder.isCompressed(this.result.getResponse())) {
+				this.writer.print(" --compressed");
+			}
+
 			RequestMethod requestMethod = RequestMethod.valueOf(request.getMethod());
 			if (requestMethod != RequestMethod.GET) {
 				this.writer.print(String.format(" -X %s", requestMethod.toString()));
 			}
 
-			for (String headerName : iterable(request.getHeaderNames())) {
-				for (String header : iterable(request.getHeaders(headerName))) {
-					this.writer
-							.print(String.format(" -H \"%s: %s\"", headerName, header));
+			for (Entry<String, List<String>> header : request.getHeaders().entrySet()) {
+				for (String value : header.getValue()) {
+					this.writer.print(String.format(" -H \"%s: %s\"", header.getKey(),
+							value));
 				}
 			}
 
-			if (request.getContentLengthLong() > 0) {
-				this.writer.print(String.format(" -d '%s'", getContent(request)));
+			if (request.hasContent()) {
+				this.writer.print(String.format(" -d '%s'", this.curlConfiguration
+						.isFormatBodies() ? request.getFormattedContent() : request
+						.getContent()));
 			}
 
 			this.writer.println();
 		}
-
-		private boolean isNonStandardPort(HttpServletRequest request) {
-			return (SCHEME_HTTP.equals(request.getScheme()) && request.getRemotePort() != STANDARD_PORT_HTTP)
-					|| (SCHEME_HTTPS.equals(request.getScheme()) && request
-							.getRemotePort() != STANDARD_PORT_HTTPS);
-		}
-
-		private String getRequestUriWithQueryString(HttpServletRequest request) {
-			return request.getQueryString() != null ? request.getRequestURI() + "?"
-					+ request.getQueryString() : request.getRequestURI();
-		}
-
-		private String getContent(MockHttpServletRequest request) throws IOException {
-			StringWriter bodyWriter = new StringWriter();
-			FileCopyUtils.copy(request.getReader(), bodyWriter);
-			return bodyWriter.toString();
-		}
 	}
 
 	private static final class CurlResponseDocumentationAction implements
@@ -208,7 +182,14 @@ public abstract class CurlDocumentation {
 				}
 				this.writer.println();
 			}
-			this.writer.println(this.result.getResponse().getContentAsString());
+			this.writer.println(getContent(this.result.getResponse()));
+		}
+
+		private String getContent(MockHttpServletResponse response) {
+			if (this.curlConfiguration.isFormatBodies()) {
+				return BodyFormatters.format(response);
+			}
+			return ContentDecoder.getContentAsString(response);
 		}
 	}
 
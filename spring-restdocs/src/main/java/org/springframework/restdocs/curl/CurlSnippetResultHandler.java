@@ -16,6 +16,8 @@
 
 package org.springframework.restdocs.curl;
 
+import org.springframework.restdocs.format.BodyFormatter;
+import org.springframework.restdocs.format.BodyFormatters;
 import org.springframework.restdocs.snippet.SnippetWritingResultHandler;
 import org.springframework.test.web.servlet.ResultHandler;
 
@@ -48,4 +50,18 @@ public abstract class CurlSnippetResultHandler extends SnippetWritingResultHandl
 		this.curlConfiguration.setIncludeResponseHeaders(include);
 		return this;
 	}
+
+	/**
+	 * Specify whether or not the bodies of requests and responses should be formatted
+	 * using the {@link BodyFormatter} for their content type, for example to pretty-print
+	 * JSON. Bodies are formatted by default.
+	 * 
+	 * @param format {@code true} to format bodies, otherwise false
+	 * @return {@code this}
+	 * @see BodyFormatters#formatterForContentType(String)
+	 */
+	public CurlSnippetResultHandler formatBodies(boolean format) {
+		this.curlConfiguration.setFormatBodies(format);
+		return this;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.restdocs.format;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.Charset;
+
+/**
+ * A {@code BodyFormatter} is used to format the body of a request or response so that
+ * it is easier to read in the documentation. The format that is produced is determined
+ * by the implementation.
+ *
+ * @author Andy Wilkinson
+ * @see BodyFormatters
+ */
+public interface BodyFormatter {
+
+	/**
+	 * Formats the given {@code content}, writing the result to the given {@code writer}.
+	 *
+	 * @param content The content to format
+	 * @param charset The charset of the content
+	 * @param writer The writer to which the formatted content should be written
+	 * @throws IOException if the content cannot be formatted
+	 */
+	void format(InputStream content, Charset charset, Writer writer) throws IOException;
+
+}
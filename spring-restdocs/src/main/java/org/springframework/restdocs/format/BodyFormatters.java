@@ -0,0 +1,522 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.restdocs.format;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.ClassUtils;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Static factory methods providing a selection of {@link BodyFormatter body formatters}
+ * for use when documenting the bodies of requests and responses.
+ *
+ * @author Andy Wilkinson
+ */
+public abstract class BodyFormatters {
+
+	private static final BodyFormatter PRETTY_PRINTED_JSON = new PrettyPrintingJsonBodyFormatter(
+			new JsonFactory(), true);
+
+	private static final BodyFormatter PRETTY_PRINTED_XML = new PrettyPrintingXmlBodyFormatter();
+
+	private static final boolean SMILE_PRESENT = ClassUtils.isPresent(
+			"com.fasterxml.jackson.dataformat.smile.SmileFactory",
+			BodyFormatters.class.getClassLoader());
+
+	private static final BodyFormatter PRETTY_PRINTED_SMILE = SMILE_PRESENT ? SmileFormatterFactory
+			.createFormatter() : null;
+
+	private static final BodyFormatter PRETTY_PRINTED_CBOR = new CborBodyFormatter();
+
+	private static final int MAX_HEX_DUMP_LENGTH = 4096;
+
+	private static final BodyFormatter HEX_DUMP = new HexDumpBodyFormatter(
+			MAX_HEX_DUMP_LENGTH);
+
+	private BodyFormatters() {
+
+	}
+
+	/**
+	 * Returns a {@code BodyFormatter} that pretty-prints JSON. The JSON is streamed from
+	 * a parser into a generator without building a tree.
+	 *
+	 * @return The formatter for JSON
+	 */
+	public static BodyFormatter prettyPrintedJson() {
+		return PRETTY_PRINTED_JSON;
+	}
+
+	/**
+	 * Returns a {@code BodyFormatter} that pretty-prints XML. The XML is streamed from a
+	 * StAX reader into a StAX writer in a single pass without building a DOM. The reader
+	 * detects the content's encoding from its byte order mark and XML declaration, so the
+	 * given charset is not used. Once an element is found to have mixed content, the rest
+	 * of it is copied without being indented.
+	 *
+	 * @return The formatter for XML
+	 */
+	public static BodyFormatter prettyPrintedXml() {
+		return PRETTY_PRINTED_XML;
+	}
+
+	/**
+	 * Returns a {@code BodyFormatter} that renders Smile, Jackson's binary JSON format, as
+	 * pretty-printed JSON. The Smile content is streamed from a parser into a JSON
+	 * generator without building a tree. Requires {@code jackson-dataformat-smile} to be
+	 * on the classpath.
+	 *
+	 * @return The formatter for Smile
+	 * @throws IllegalStateException if {@code jackson-dataformat-smile} is not on the
+	 * classpath
+	 */
+	public static BodyFormatter prettyPrintedSmile() {
+		if (PRETTY_PRINTED_SMILE == null) {
+			throw new IllegalStateException(
+					"Formatting Smile requires jackson-dataformat-smile to be on the classpath");
+		}
+		return PRETTY_PRINTED_SMILE;
+	}
+
+	/**
+	 * Returns a {@code BodyFormatter} that renders CBOR as pretty-printed JSON. Each data
+	 * item is decoded and written to a JSON generator as it is read.
+	 *
+	 * @return The formatter for CBOR
+	 */
+	public static BodyFormatter prettyPrintedCbor() {
+		return PRETTY_PRINTED_CBOR;
+	}
+
+	/**
+	 * Returns a {@code BodyFormatter} that renders binary content, such as Protocol
+	 * Buffers messages, as a hex dump of at most 4096 bytes.
+	 *
+	 * @return The formatter for binary content
+	 */
+	public static BodyFormatter hexDump() {
+		return HEX_DUMP;
+	}
+
+	/**
+	 * Returns the {@code BodyFormatter} for the given {@code contentType} or {@code null}
+	 * if there is no formatter for the content type.
+	 *
+	 * @param contentType The content type
+	 * @return The formatter for the content type, or {@code null}
+	 */
+	public static BodyFormatter formatterForContentType(String contentType) {
+		MediaType mediaType = parseMediaType(contentType);
+		if (mediaType == null) {
+			return null;
+		}
+		String subtype = mediaType.getSubtype();
+		if ("json".equals(subtype) || subtype.endsWith("+json")) {
+			return prettyPrintedJson();
+		}
+		if ("xml".equals(subtype) || subtype.endsWith("+xml")) {
+			return prettyPrintedXml();
+		}
+		if ("x-jackson-smile".equals(subtype) && SMILE_PRESENT) {
+			return prettyPrintedSmile();
+		}
+		if ("cbor".equals(subtype) || subtype.endsWith("+cbor")) {
+			return prettyPrintedCbor();
+		}
+		if (subtype.contains("protobuf") || "octet-stream".equals(subtype)) {
+			return hexDump();
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the {@code BodyFormatter} for the given {@code contentType} if its content
+	 * is text, such as JSON or XML, that is only re-indented when it is formatted.
+	 * Returns {@code null} if there is no such formatter for the content type.
+	 *
+	 * @param contentType The content type
+	 * @return The formatter for the textual content type, or {@code null}
+	 */
+	public static BodyFormatter textFormatterForContentType(String contentType) {
+		BodyFormatter formatter = formatterForContentType(contentType);
+		if (formatter == PRETTY_PRINTED_JSON || formatter == PRETTY_PRINTED_XML) {
+			return formatter;
+		}
+		return null;
+	}
+
+	/**
+	 * Formats the given {@code content} using the formatter for the given
+	 * {@code contentType}. If there is no formatter for the content type, or the content
+	 * cannot be formatted, the content is returned as-is.
+	 *
+	 * @param content The content to format
+	 * @param charset The charset of the content
+	 * @param contentType The content type
+	 * @return The formatted content
+	 */
+	public static String format(byte[] content, Charset charset, String contentType) {
+		String formatted = maybeFormat(content, charset, contentType);
+		return formatted != null ? formatted : ContentDecoder.decode(content, charset);
+	}
+
+	/**
+	 * Formats the body of the given {@code response} using the formatter for its content
+	 * type. The body of a {@link CapturedResponse} is only formatted once with the result
+	 * being shared by every snippet that documents the response. If there is no formatter
+	 * for the content type, or the body cannot be formatted, the decoded body is returned
+	 * as-is.
+	 *
+	 * @param response The response
+	 * @return The formatted body
+	 * @see ContentDecoder#getContentAsString(MockHttpServletResponse)
+	 */
+	public static String format(MockHttpServletResponse response) {
+		String contentType = response.getContentType();
+		if (formatterForContentType(contentType) == null) {
+			return ContentDecoder.getContentAsString(response);
+		}
+		if (!(response instanceof CapturedResponse)) {
+			return formatContent(response);
+		}
+		CapturedResponse captured = (CapturedResponse) response;
+		String formatted = captured.getFormattedContent();
+		if (formatted == null) {
+			formatted = formatContent(response);
+			captured.setFormattedContent(formatted);
+		}
+		return formatted;
+	}
+
+	private static String formatContent(MockHttpServletResponse response) {
+		String contentType = response.getContentType();
+		String formatted = maybeFormat(ContentDecoder.getContentAsByteArray(response),
+				ContentDecoder.getCharset(contentType), contentType);
+		return formatted != null ? formatted : ContentDecoder.getContentAsString(response);
+	}
+
+	private static String maybeFormat(byte[] content, Charset charset, String contentType) {
+		BodyFormatter formatter = formatterForContentType(contentType);
+		if (formatter != null && content.length > 0) {
+			StringWriter writer = new StringWriter(content.length);
+			try {
+				formatter.format(new ByteArrayInputStream(content), charset, writer);
+				return writer.toString();
+			}
+			catch (IOException ex) {
+				// Fall back to the unformatted content
+			}
+		}
+		return null;
+	}
+
+	private static MediaType parseMediaType(String contentType) {
+		if (contentType == null) {
+			return null;
+		}
+		try {
+			return MediaType.parseMediaType(contentType);
+		}
+		catch (InvalidMediaTypeException ex) {
+			return null;
+		}
+	}
+
+	private static final class PrettyPrintingJsonBodyFormatter implements BodyFormatter {
+
+		private final JsonFactory jsonFactory = new JsonFactory();
+
+		private final JsonFactory parserFactory;
+
+		private final boolean textual;
+
+		private PrettyPrintingJsonBodyFormatter(JsonFactory parserFactory, boolean textual) {
+			this.parserFactory = parserFactory;
+			this.textual = textual;
+		}
+
+		@Override
+		public void format(InputStream content, Charset charset, Writer writer)
+				throws IOException {
+			JsonParser parser = createParser(content, charset);
+			try {
+				JsonGenerator generator = this.jsonFactory.createGenerator(writer);
+				generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+				generator.useDefaultPrettyPrinter();
+				while (parser.nextToken() != null) {
+					generator.copyCurrentEvent(parser);
+				}
+				generator.close();
+			}
+			finally {
+				parser.close();
+			}
+		}
+
+		private JsonParser createParser(InputStream content, Charset charset)
+				throws IOException {
+			if (this.textual) {
+				return this.parserFactory.createParser(new InputStreamReader(content,
+						charset));
+			}
+			return this.parserFactory.createParser(content);
+		}
+
+	}
+
+	/**
+	 * Isolates the reference to {@link SmileFactory} so that it is only loaded when
+	 * {@code jackson-dataformat-smile} is on the classpath.
+	 */
+	private static final class SmileFormatterFactory {
+
+		private static BodyFormatter createFormatter() {
+			return new PrettyPrintingJsonBodyFormatter(new SmileFactory(), false);
+		}
+
+	}
+
+	private static final class PrettyPrintingXmlBodyFormatter implements BodyFormatter {
+
+		private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+
+		private static final String INDENT = "  ";
+
+		private final XMLInputFactory inputFactory = createInputFactory();
+
+		private final XMLOutputFactory outputFactory = XMLOutputFactory.newInstance();
+
+		@Override
+		public void format(InputStream content, Charset charset, Writer writer)
+				throws IOException {
+			try {
+				// The reader detects the encoding from the content and its declaration
+				XMLStreamReader reader = this.inputFactory.createXMLStreamReader(content);
+				try {
+					boolean declared = writeDeclaration(reader, writer);
+					XMLStreamWriter xmlWriter = this.outputFactory
+							.createXMLStreamWriter(writer);
+					copy(reader, xmlWriter, declared);
+					xmlWriter.close();
+				}
+				finally {
+					reader.close();
+				}
+			}
+			catch (XMLStreamException ex) {
+				throw new IOException("Failed to format XML", ex);
+			}
+		}
+
+		private boolean writeDeclaration(XMLStreamReader reader, Writer writer)
+				throws IOException {
+			if (reader.getVersion() == null) {
+				return false;
+			}
+			writer.write("<?xml version=\"" + reader.getVersion() + "\"");
+			if (reader.getCharacterEncodingScheme() != null) {
+				writer.write(" encoding=\"" + reader.getCharacterEncodingScheme() + "\"");
+			}
+			if (reader.standaloneSet()) {
+				writer.write(" standalone=\"" + (reader.isStandalone() ? "yes" : "no")
+						+ "\"");
+			}
+			writer.write("?>");
+			return true;
+		}
+
+		/**
+		 * Copies the events from the reader to the writer in a single pass, indenting
+		 * each element on its own line. Whether an element's content is indented is
+		 * decided as the element is read: once text other than whitespace is found in an
+		 * element, the rest of the element is copied as it is, including its whitespace,
+		 * so that indentation is not added to its text. Text that precedes an element's
+		 * first child therefore leaves the whole element unindented.
+		 */
+		private void copy(XMLStreamReader reader, XMLStreamWriter writer,
+				boolean lineStarted) throws XMLStreamException {
+			int depth = 0;
+			int verbatimDepth = -1;
+			boolean lastWasEndElement = false;
+			StringBuilder whitespace = new StringBuilder();
+			while (reader.hasNext()) {
+				int event = reader.next();
+				boolean verbatim = verbatimDepth >= 0;
+				if (!verbatim && depth > 0 && isText(reader, event)) {
+					// The element has mixed content, so keep the rest of it as it is
+					verbatimDepth = depth - 1;
+					verbatim = true;
+					writer.writeCharacters(whitespace.toString());
+					whitespace.setLength(0);
+				}
+				if (event != XMLStreamConstants.CHARACTERS
+						&& event != XMLStreamConstants.SPACE) {
+					whitespace.setLength(0);
+				}
+				switch (event) {
+				case XMLStreamConstants.START_ELEMENT:
+					if (!verbatim) {
+						newLine(writer, depth, lineStarted);
+					}
+					writeStartElement(reader, writer);
+					depth++;
+					lineStarted = true;
+					lastWasEndElement = false;
+					break;
+				case XMLStreamConstants.END_ELEMENT:
+					depth--;
+					if (!verbatim && lastWasEndElement) {
+						newLine(writer, depth, true);
+					}
+					writer.writeEndElement();
+					if (verbatimDepth == depth) {
+						verbatimDepth = -1;
+					}
+					lastWasEndElement = true;
+					break;
+				case XMLStreamConstants.CHARACTERS:
+				case XMLStreamConstants.SPACE:
+					if (verbatim) {
+						writer.writeCharacters(reader.getText());
+						lastWasEndElement = false;
+					}
+					else {
+						// Whitespace is only kept if it turns out to be part of mixed content
+						whitespace.append(reader.getText());
+					}
+					break;
+				case XMLStreamConstants.CDATA:
+					writer.writeCData(reader.getText());
+					lastWasEndElement = false;
+					break;
+				case XMLStreamConstants.ENTITY_REFERENCE:
+					writer.writeEntityRef(reader.getLocalName());
+					lastWasEndElement = false;
+					break;
+				case XMLStreamConstants.COMMENT:
+					if (!verbatim) {
+						newLine(writer, depth, lineStarted);
+					}
+					writer.writeComment(reader.getText());
+					lineStarted = true;
+					lastWasEndElement = !verbatim;
+					break;
+				case XMLStreamConstants.PROCESSING_INSTRUCTION:
+					if (!verbatim) {
+						newLine(writer, depth, lineStarted);
+					}
+					writer.writeProcessingInstruction(reader.getPITarget(),
+							reader.getPIData());
+					lineStarted = true;
+					lastWasEndElement = !verbatim;
+					break;
+				case XMLStreamConstants.DTD:
+					newLine(writer, depth, lineStarted);
+					writer.writeDTD(reader.getText());
+					lineStarted = true;
+					break;
+				default:
+					break;
+				}
+			}
+			writer.writeEndDocument();
+		}
+
+		private static boolean isText(XMLStreamReader reader, int event) {
+			switch (event) {
+			case XMLStreamConstants.CHARACTERS:
+				return !reader.isWhiteSpace();
+			case XMLStreamConstants.CDATA:
+			case XMLStreamConstants.ENTITY_REFERENCE:
+				return true;
+			default:
+				return false;
+			}
+		}
+
+		private void writeStartElement(XMLStreamReader reader, XMLStreamWriter writer)
+				throws XMLStreamException {
+			writer.writeStartElement(nullToEmpty(reader.getPrefix()),
+					reader.getLocalName(), nullToEmpty(reader.getNamespaceURI()));
+			for (int i = 0; i < reader.getNamespaceCount(); i++) {
+				String prefix = reader.getNamespacePrefix(i);
+				if (prefix == null || prefix.isEmpty()) {
+					writer.writeDefaultNamespace(reader.getNamespaceURI(i));
+				}
+				else {
+					writer.writeNamespace(prefix, reader.getNamespaceURI(i));
+				}
+			}
+			for (int i = 0; i < reader.getAttributeCount(); i++) {
+				String prefix = reader.getAttributePrefix(i);
+				if (prefix == null || prefix.isEmpty()) {
+					writer.writeAttribute(reader.getAttributeLocalName(i),
+							reader.getAttributeValue(i));
+				}
+				else {
+					writer.writeAttribute(prefix, reader.getAttributeNamespace(i),
+							reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+				}
+			}
+		}
+
+		private void newLine(XMLStreamWriter writer, int depth, boolean lineStarted)
+				throws XMLStreamException {
+			if (lineStarted) {
+				writer.writeCharacters(LINE_SEPARATOR);
+			}
+			for (int i = 0; i < depth; i++) {
+				writer.writeCharacters(INDENT);
+			}
+		}
+
+		private static String nullToEmpty(String string) {
+			return string == null ? "" : string;
+		}
+
+		private static XMLInputFactory createInputFactory() {
+			XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+			inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+			inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES,
+					false);
+			return inputFactory;
+		}
+
+	}
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.restdocs.format;
+
+import java.io.IOException;
+
+import javax.servlet.http.Cookie;
+
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * A copy of a documented response that is taken once, when the call is documented, and
+ * then shared by every snippet that documents the response. Taking the copy does not
+ * modify the original response, and reading the copy does not modify the original
+ * either, so snippets can be produced concurrently while the response remains as the
+ * test left it. The captured body is decompressed, decoded and formatted on first use
+ * with the results being shared by every snippet.
+ *
+ * @author Andy Wilkinson
+ */
+public final class CapturedResponse extends MockHttpServletResponse {
+
+	private static final String DEFAULT_CHARACTER_ENCODING = new MockHttpServletResponse()
+			.getCharacterEncoding();
+
+	private volatile byte[] content;
+
+	private volatile String decodedContent;
+
+	private volatile String formattedContent;
+
+	private CapturedResponse() {
+
+	}
+
+	/**
+	 * Returns a capture of the given {@code response}. If the response has already been
+	 * captured it is returned as-is.
+	 *
+	 * @param response the response
+	 * @return the captured response
+	 * @throws IOException if the response cannot be copied
+	 */
+	@SuppressWarnings("deprecation")
+	public static CapturedResponse capture(MockHttpServletResponse response)
+			throws IOException {
+		if (response instanceof CapturedResponse) {
+			return (CapturedResponse) response;
+		}
+		// Reading the content flushes and commits the response, so restore its state
+		boolean committed = response.isCommitted();
+		byte[] content = response.getContentAsByteArray();
+		response.setCommitted(committed);
+
+		CapturedResponse captured = new CapturedResponse();
+		if (response.getContentType() == null
+				&& !DEFAULT_CHARACTER_ENCODING.equals(response.getCharacterEncoding())) {
+			captured.setCharacterEncoding(response.getCharacterEncoding());
+		}
+		if (response.getErrorMessage() != null) {
+			captured.setStatus(response.getStatus(), response.getErrorMessage());
+		}
+		else {
+			captured.setStatus(response.getStatus());
+		}
+		for (String headerName : response.getHeaderNames()) {
+			for (Object value : response.getHeaderValues(headerName)) {
+				captured.addHeader(headerName, String.valueOf(value));
+			}
+		}
+		for (Cookie cookie : response.getCookies()) {
+			captured.addCookie(cookie);
+		}
+		if (response.getRedirectedUrl() != null) {
+			captured.sendRedirect(response.getRedirectedUrl());
+		}
+		captured.setForwardedUrl(response.getForwardedUrl());
+		for (String includedUrl : response.getIncludedUrls()) {
+			captured.addIncludedUrl(includedUrl);
+		}
+		captured.getOutputStream().write(content);
+		captured.setCommitted(true);
+		return captured;
+	}
+
+	byte[] getContent() {
+		return this.content;
+	}
+
+	void setContent(byte[] content) {
+		this.content = content;
+	}
+
+	String getDecodedContent() {
+		return this.decodedContent;
+	}
+
+	void setDecodedContent(String decodedContent) {
+		this.decodedContent = decodedContent;
+	}
+
+	String getFormattedContent() {
+		return this.formattedContent;
+	}
+
+	void setFormattedContent(String formattedContent) {
+		this.formattedContent = formattedContent;
+	}
+
+}
@@ -0,0 +1,353 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.restdocs.format;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+
+import com.fasterxml.jackson.core.Base64Variants;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * A {@link BodyFormatter} that renders Concise Binary Object Representation (CBOR, RFC
+ * 7049) content as pretty-printed JSON. Data items are read from the content one at a
+ * time and written straight to a {@link JsonGenerator}. Tags are ignored, byte strings
+ * are rendered as Base64, simple values other than {@code false}, {@code true},
+ * {@code null} and {@code undefined} are rendered as {@code "simple(n)"}. As JSON field
+ * names are strings, map keys that are not text strings are rendered as text: byte
+ * string keys as Base64, simple value keys as {@code simple(n)} and any other key, such
+ * as a number or an array, as its compact JSON text.
+ *
+ * @author Andy Wilkinson
+ */
+class CborBodyFormatter implements BodyFormatter {
+
+	private static final int MAX_DEPTH = 512;
+
+	private static final int BREAK = 0xff;
+
+	private static final int CHUNK_SIZE = 8192;
+
+	private static final int INDEFINITE_LENGTH = 31;
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private static final BigInteger UNSIGNED_LONG_OFFSET = BigInteger.ONE.shiftLeft(64);
+
+	private final JsonFactory jsonFactory = new JsonFactory();
+
+	@Override
+	public void format(InputStream content, Charset charset, Writer writer)
+			throws IOException {
+		DataInputStream input = new DataInputStream(content);
+		JsonGenerator generator = this.jsonFactory.createGenerator(writer);
+		try {
+			generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+			generator.useDefaultPrettyPrinter();
+			int initialByte;
+			while ((initialByte = input.read()) != -1) {
+				writeItem(initialByte, input, generator, 0);
+			}
+		}
+		finally {
+			generator.close();
+		}
+	}
+
+	private void writeItem(int initialByte, DataInputStream input,
+			JsonGenerator generator, int depth) throws IOException {
+		if (depth > MAX_DEPTH) {
+			throw new IOException("CBOR content is nested too deeply");
+		}
+		int majorType = initialByte >>> 5;
+		int additionalInfo = initialByte & 0x1f;
+		switch (majorType) {
+		case 0:
+			writeUnsigned(readArgument(additionalInfo, input), generator);
+			break;
+		case 1:
+			writeNegative(readArgument(additionalInfo, input), generator);
+			break;
+		case 2:
+			generator.writeBinary(readString(2, additionalInfo, input));
+			break;
+		case 3:
+			generator.writeString(new String(readString(3, additionalInfo, input), UTF_8));
+			break;
+		case 4:
+			writeArray(additionalInfo, input, generator, depth);
+			break;
+		case 5:
+			writeMap(additionalInfo, input, generator, depth);
+			break;
+		case 6:
+			readArgument(additionalInfo, input);
+			writeItem(readInitialByte(input), input, generator, depth + 1);
+			break;
+		default:
+			writeSimpleOrFloat(additionalInfo, input, generator);
+			break;
+		}
+	}
+
+	private void writeArray(int additionalInfo, DataInputStream input,
+			JsonGenerator generator, int depth) throws IOException {
+		generator.writeStartArray();
+		if (additionalInfo == INDEFINITE_LENGTH) {
+			int initialByte;
+			while ((initialByte = readInitialByte(input)) != BREAK) {
+				writeItem(initialByte, input, generator, depth + 1);
+			}
+		}
+		else {
+			long length = readLength(additionalInfo, input);
+			for (long i = 0; i < length; i++) {
+				writeItem(readInitialByte(input), input, generator, depth + 1);
+			}
+		}
+		generator.writeEndArray();
+	}
+
+	private void writeMap(int additionalInfo, DataInputStream input,
+			JsonGenerator generator, int depth) throws IOException {
+		generator.writeStartObject();
+		if (additionalInfo == INDEFINITE_LENGTH) {
+			int initialByte;
+			while ((initialByte = readInitialByte(input)) != BREAK) {
+				generator.writeFieldName(readKey(initialByte, input, depth + 1));
+				writeItem(readInitialByte(input), input, generator, depth + 1);
+			}
+		}
+		else {
+			long length = readLength(additionalInfo, input);
+			for (long i = 0; i < length; i++) {
+				generator.writeFieldName(readKey(readInitialByte(input), input,
+						depth + 1));
+				writeItem(readInitialByte(input), input, generator, depth + 1);
+			}
+		}
+		generator.writeEndObject();
+	}
+
+	private String readKey(int initialByte, DataInputStream input, int depth)
+			throws IOException {
+		if (depth > MAX_DEPTH) {
+			throw new IOException("CBOR content is nested too deeply");
+		}
+		int majorType = initialByte >>> 5;
+		int additionalInfo = initialByte & 0x1f;
+		switch (majorType) {
+		case 2:
+			return Base64Variants.getDefaultVariant().encode(
+					readString(2, additionalInfo, input));
+		case 3:
+			return new String(readString(3, additionalInfo, input), UTF_8);
+		case 6:
+			readArgument(additionalInfo, input);
+			return readKey(readInitialByte(input), input, depth + 1);
+		case 7:
+			if (additionalInfo < 20) {
+				return "simple(" + additionalInfo + ")";
+			}
+			if (additionalInfo == 24) {
+				return "simple(" + input.readUnsignedByte() + ")";
+			}
+			return readKeyAsJson(initialByte, input, depth);
+		default:
+			return readKeyAsJson(initialByte, input, depth);
+		}
+	}
+
+	private String readKeyAsJson(int initialByte, DataInputStream input, int depth)
+			throws IOException {
+		StringWriter key = new StringWriter();
+		JsonGenerator generator = this.jsonFactory.createGenerator(key);
+		writeItem(initialByte, input, generator, depth);
+		generator.close();
+		return key.toString();
+	}
+
+	private void writeSimpleOrFloat(int additionalInfo, DataInputStream input,
+			JsonGenerator generator) throws IOException {
+		switch (additionalInfo) {
+		case 20:
+			generator.writeBoolean(false);
+			break;
+		case 21:
+			generator.writeBoolean(true);
+			break;
+		case 22:
+		case 23:
+			generator.writeNull();
+			break;
+		case 24:
+			writeSimpleValue(input.readUnsignedByte(), generator);
+			break;
+		case 25:
+			generator.writeNumber(halfToFloat(input.readUnsignedShort()));
+			break;
+		case 26:
+			generator.writeNumber(input.readFloat());
+			break;
+		case 27:
+			generator.writeNumber(input.readDouble());
+			break;
+		default:
+			if (additionalInfo < 20) {
+				writeSimpleValue(additionalInfo, generator);
+				break;
+			}
+			throw new IOException("Unexpected CBOR simple value " + additionalInfo);
+		}
+	}
+
+	private void writeSimpleValue(int value, JsonGenerator generator) throws IOException {
+		// JSON has no equivalent of an unassigned simple value so use its diagnostic form
+		generator.writeString("simple(" + value + ")");
+	}
+
+	private void writeUnsigned(long argument, JsonGenerator generator)
+			throws IOException {
+		if (argument >= 0) {
+			generator.writeNumber(argument);
+		}
+		else {
+			generator.writeNumber(toUnsigned(argument));
+		}
+	}
+
+	private void writeNegative(long argument, JsonGenerator generator)
+			throws IOException {
+		if (argument >= 0) {
+			generator.writeNumber(-1 - argument);
+		}
+		else {
+			generator.writeNumber(toNegative(argument));
+		}
+	}
+
+	private byte[] readString(int majorType, int additionalInfo, DataInputStream input)
+			throws IOException {
+		if (additionalInfo != INDEFINITE_LENGTH) {
+			return readBytes(readLength(additionalInfo, input), input);
+		}
+		ByteArrayOutputStream chunks = new ByteArrayOutputStream();
+		int initialByte;
+		while ((initialByte = readInitialByte(input)) != BREAK) {
+			if (initialByte >>> 5 != majorType) {
+				throw new IOException("Invalid chunk in indefinite-length CBOR string");
+			}
+			if ((initialByte & 0x1f) == INDEFINITE_LENGTH) {
+				throw new IOException("Nested indefinite-length CBOR string");
+			}
+			chunks.write(readBytes(readLength(initialByte & 0x1f, input), input));
+		}
+		return chunks.toByteArray();
+	}
+
+	private byte[] readBytes(long length, DataInputStream input) throws IOException {
+		if (length < 0 || length > Integer.MAX_VALUE) {
+			throw new IOException("Unsupported CBOR string length " + length);
+		}
+		// Read in chunks rather than trusting the declared length up front
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream((int) Math.min(length,
+				CHUNK_SIZE));
+		byte[] chunk = new byte[(int) Math.min(length, CHUNK_SIZE)];
+		long remaining = length;
+		while (remaining > 0) {
+			int read = input.read(chunk, 0, (int) Math.min(remaining, chunk.length));
+			if (read == -1) {
+				throw new EOFException("Unexpected end of CBOR content");
+			}
+			bytes.write(chunk, 0, read);
+			remaining -= read;
+		}
+		return bytes.toByteArray();
+	}
+
+	private long readArgument(int additionalInfo, DataInputStream input)
+			throws IOException {
+		if (additionalInfo < 24) {
+			return additionalInfo;
+		}
+		switch (additionalInfo) {
+		case 24:
+			return input.readUnsignedByte();
+		case 25:
+			return input.readUnsignedShort();
+		case 26:
+			return input.readInt() & 0xffffffffL;
+		case 27:
+			// Values above Long.MAX_VALUE are negative and are treated as unsigned
+			return input.readLong();
+		default:
+			throw new IOException("Invalid CBOR additional information "
+					+ additionalInfo);
+		}
+	}
+
+	private long readLength(int additionalInfo, DataInputStream input)
+			throws IOException {
+		long length = readArgument(additionalInfo, input);
+		if (length < 0) {
+			throw new IOException("Unsupported CBOR length " + toUnsigned(length));
+		}
+		return length;
+	}
+
+	private int readInitialByte(DataInputStream input) throws IOException {
+		int initialByte = input.read();
+		if (initialByte == -1) {
+			throw new EOFException("Unexpected end of CBOR content");
+		}
+		return initialByte;
+	}
+
+	private static BigInteger toUnsigned(long argument) {
+		BigInteger value = BigInteger.valueOf(argument);
+		return argument < 0 ? value.add(UNSIGNED_LONG_OFFSET) : value;
+	}
+
+	private static BigInteger toNegative(long argument) {
+		return BigInteger.valueOf(-1).subtract(toUnsigned(argument));
+	}
+
+	private static float halfToFloat(int half) {
+		int exponent = (half >> 10) & 0x1f;
+		int mantissa = half & 0x3ff;
+		float value;
+		if (exponent == 0) {
+			value = (float) (mantissa * Math.pow(2, -24));
+		}
+		else if (exponent == 31) {
+			value = mantissa == 0 ? Float.POSITIVE_INFINITY : Float.NaN;
+		}
+		else {
+			value = (float) ((mantissa + 1024) * Math.pow(2, exponent - 25));
+		}
+		return (half & 0x8000) != 0 ? -value : value;
+	}
+
+}
@@ -0,0 +1,285 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.restdocs.format;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.restdocs.snippet.DocumentationProperties;
+
+/**
+ * Decodes the bodies of requests and responses using the charset specified by their
+ * {@code Content-Type}. When the content type does not specify a charset the default,
+ * configured using the {@code org.springframework.restdocs.defaultCharset} property, is
+ * used. If no default has been configured, UTF-8 is used.
+ * <p>
+ * The body of a {@link CapturedResponse} is only decoded once with the result being
+ * shared by every snippet that documents it. Decoders and buffers are reused by each
+ * thread.
+ * Response bodies with a {@code gzip} or {@code deflate} {@code Content-Encoding} are
+ * decompressed before they are decoded.
+ *
+ * @author Andy Wilkinson
+ */
+public abstract class ContentDecoder {
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private static final int MAX_POOLED_BUFFER_SIZE = 64 * 1024;
+
+	private static final int MAX_DECOMPRESSED_LENGTH = 16 * 1024 * 1024;
+
+	private static final String TRUNCATION_MARKER = "%n[Truncated: the decompressed body "
+			+ "is longer than %d bytes]";
+
+	private static final ThreadLocal<Map<Charset, CharsetDecoder>> DECODERS = new ThreadLocal<Map<Charset, CharsetDecoder>>() {
+
+		@Override
+		protected Map<Charset, CharsetDecoder> initialValue() {
+			return new HashMap<Charset, CharsetDecoder>();
+		}
+
+	};
+
+	private static final ThreadLocal<CharBuffer> BUFFERS = new ThreadLocal<CharBuffer>();
+
+	private ContentDecoder() {
+
+	}
+
+	/**
+	 * Returns the charset that should be used to decode content with the given
+	 * {@code contentType}.
+	 *
+	 * @param contentType The content type, may be {@code null}
+	 * @return The charset
+	 */
+	public static Charset getCharset(String contentType) {
+		if (contentType != null) {
+			try {
+				Charset charset = MediaType.parseMediaType(contentType).getCharSet();
+				if (charset != null) {
+					return charset;
+				}
+			}
+			catch (InvalidMediaTypeException ex) {
+				// Fall back to the default
+			}
+		}
+		return getDefaultCharset();
+	}
+
+	/**
+	 * Returns whether or not the body of the given {@code response} has been compressed
+	 * using an encoding that can be decompressed.
+	 *
+	 * @param response The response
+	 * @return {@code true} if the body is compressed, otherwise {@code false}
+	 */
+	public static boolean isCompressed(MockHttpServletResponse response) {
+		String contentEncoding = response.getHeader("Content-Encoding");
+		return contentEncoding != null
+				&& (isGzip(contentEncoding.trim()) || isDeflate(contentEncoding.trim()));
+	}
+
+	/**
+	 * Returns the body of the given {@code response}. If the body has been compressed it
+	 * is decompressed according to the response's {@code Content-Encoding}. At most 16MB
+	 * of decompressed content is returned, followed by a marker noting that the rest of
+	 * the body has been omitted. If the body cannot be decompressed it is returned as-is.
+	 * The body of a {@link CapturedResponse} is only decompressed once with the result
+	 * being shared by every snippet that documents it.
+	 *
+	 * @param response The response
+	 * @return The body
+	 */
+	public static byte[] getContentAsByteArray(MockHttpServletResponse response) {
+		if (!(response instanceof CapturedResponse)) {
+			return decompress(response);
+		}
+		CapturedResponse captured = (CapturedResponse) response;
+		byte[] content = captured.getContent();
+		if (content == null) {
+			content = decompress(response);
+			captured.setContent(content);
+		}
+		return content;
+	}
+
+	private static byte[] decompress(MockHttpServletResponse response) {
+		byte[] content = response.getContentAsByteArray();
+		if (content.length == 0 || !isCompressed(response)) {
+			return content;
+		}
+		String contentEncoding = response.getHeader("Content-Encoding").trim();
+		Charset charset = getCharset(response.getContentType());
+		try {
+			if (isGzip(contentEncoding)) {
+				return decompress(new GZIPInputStream(new ByteArrayInputStream(content)),
+						charset);
+			}
+			try {
+				return decompress(new InflaterInputStream(new ByteArrayInputStream(
+						content)), charset);
+			}
+			catch (IOException ex) {
+				// Not zlib-wrapped, try raw deflate
+				Inflater inflater = new Inflater(true);
+				try {
+					return decompress(new InflaterInputStream(new ByteArrayInputStream(
+							content), inflater), charset);
+				}
+				finally {
+					inflater.end();
+				}
+			}
+		}
+		catch (IOException ex) {
+			return content;
+		}
+	}
+
+	/**
+	 * Returns the body of the given {@code response}, decompressed if necessary and
+	 * decoded using the charset from its content type.
+	 *
+	 * @param response The response
+	 * @return The decoded body
+	 * @see #getCharset(String)
+	 * @see #getContentAsByteArray(MockHttpServletResponse)
+	 */
+	public static String getContentAsString(MockHttpServletResponse response) {
+		if (!(response instanceof CapturedResponse)) {
+			return decode(getContentAsByteArray(response),
+					getCharset(response.getContentType()));
+		}
+		CapturedResponse captured = (CapturedResponse) response;
+		String decoded = captured.getDecodedContent();
+		if (decoded == null) {
+			decoded = decode(getContentAsByteArray(response),
+					getCharset(response.getContentType()));
+			captured.setDecodedContent(decoded);
+		}
+		return decoded;
+	}
+
+	/**
+	 * Decodes the given {@code content} using the given {@code charset}. Malformed input
+	 * is replaced rather than causing a failure.
+	 *
+	 * @param content The content to decode
+	 * @param charset The charset of the content
+	 * @return The decoded content
+	 */
+	public static String decode(byte[] content, Charset charset) {
+		if (content.length == 0) {
+			return "";
+		}
+		CharsetDecoder decoder = getDecoder(charset);
+		CharBuffer buffer = getBuffer((int) Math.ceil(content.length
+				* (double) decoder.maxCharsPerByte()));
+		CoderResult result = decoder.decode(ByteBuffer.wrap(content), buffer, true);
+		if (!result.isUnderflow() || !decoder.flush(buffer).isUnderflow()) {
+			return new String(content, charset);
+		}
+		buffer.flip();
+		return buffer.toString();
+	}
+
+	private static boolean isGzip(String contentEncoding) {
+		return "gzip".equalsIgnoreCase(contentEncoding)
+				|| "x-gzip".equalsIgnoreCase(contentEncoding);
+	}
+
+	private static boolean isDeflate(String contentEncoding) {
+		return "deflate".equalsIgnoreCase(contentEncoding);
+	}
+
+	private static byte[] decompress(InputStream input, Charset charset)
+			throws IOException {
+		try {
+			ByteArrayOutputStream output = new ByteArrayOutputStream();
+			byte[] buffer = new byte[4096];
+			int remaining = MAX_DECOMPRESSED_LENGTH;
+			while (remaining > 0) {
+				int read = input.read(buffer, 0, Math.min(buffer.length, remaining));
+				if (read == -1) {
+					return output.toByteArray();
+				}
+				output.write(buffer, 0, read);
+				remaining -= read;
+			}
+			if (input.read() != -1) {
+				output.write(String.format(TRUNCATION_MARKER, MAX_DECOMPRESSED_LENGTH)
+						.getBytes(charset));
+			}
+			return output.toByteArray();
+		}
+		finally {
+			input.close();
+		}
+	}
+
+	private static CharsetDecoder getDecoder(Charset charset) {
+		Map<Charset, CharsetDecoder> decoders = DECODERS.get();
+		CharsetDecoder decoder = decoders.get(charset);
+		if (decoder == null) {
+			decoder = charset.newDecoder()
+					.onMalformedInput(CodingErrorAction.REPLACE)
+					.onUnmappableCharacter(CodingErrorAction.REPLACE);
+			decoders.put(charset, decoder);
+		}
+		return decoder.reset();
+	}
+
+	private static CharBuffer getBuffer(int capacity) {
+		CharBuffer buffer = BUFFERS.get();
+		if (buffer != null && buffer.capacity() >= capacity) {
+			buffer.clear();
+			return buffer;
+		}
+		buffer = CharBuffer.allocate(capacity);
+		if (capacity <= MAX_POOLED_BUFFER_SIZE) {
+			BUFFERS.set(buffer);
+		}
+		return buffer;
+	}
+
+	private static Charset getDefaultCharset() {
+		// Resolved on use rather than during class initialization so that an unsupported
+		// charset is reported to the caller
+		Charset defaultCharset = DocumentationProperties.get().getDefaultCharset();
+		return defaultCharset != null ? defaultCharset : UTF_8;
+	}
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.restdocs.format;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.Charset;
+
+/**
+ * A {@link BodyFormatter} that renders binary content as a hex dump. Each line shows the
+ * offset, sixteen bytes in hex, and those bytes as ASCII. At most {@code maxLength}
+ * bytes are dumped; the number of bytes that were omitted is noted after the dump.
+ *
+ * @author Andy Wilkinson
+ */
+class HexDumpBodyFormatter implements BodyFormatter {
+
+	private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+
+	private static final int BYTES_PER_LINE = 16;
+
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+	private final int maxLength;
+
+	HexDumpBodyFormatter(int maxLength) {
+		this.maxLength = maxLength;
+	}
+
+	@Override
+	public void format(InputStream content, Charset charset, Writer writer)
+			throws IOException {
+		byte[] line = new byte[BYTES_PER_LINE];
+		int offset = 0;
+		while (offset < this.maxLength) {
+			int length = readLine(content, line,
+					Math.min(BYTES_PER_LINE, this.maxLength - offset));
+			if (length == 0) {
+				break;
+			}
+			if (offset > 0) {
+				writer.write(LINE_SEPARATOR);
+			}
+			writeLine(offset, line, length, writer);
+			offset += length;
+		}
+		long omitted = 0;
+		while (content.read() != -1) {
+			omitted++;
+		}
+		if (omitted > 0) {
+			writer.write(LINE_SEPARATOR);
+			writer.write("... " + omitted + " more bytes");
+		}
+	}
+
+	private int readLine(InputStream content, byte[] line, int maxLength)
+			throws IOException {
+		int length = 0;
+		while (length < maxLength) {
+			int read = content.read(line, length, maxLength - length);
+			if (read == -1) {
+				break;
+			}
+			length += read;
+		}
+		return length;
+	}
+
+	private void writeLine(int offset, byte[] line, int length, Writer writer)
+			throws IOException {
+		writer.write(String.format("%08x ", offset));
+		for (int i = 0; i < BYTES_PER_LINE; i++) {
+			if (i < length) {
+				writer.write(' ');
+				writer.write(HEX_DIGITS[(line[i] >> 4) & 0xf]);
+				writer.write(HEX_DIGITS[line[i] & 0xf]);
+			}
+			else {
+				writer.write("   ");
+			}
+		}
+		writer.write("  |");
+		for (int i = 0; i < length; i++) {
+			int b = line[i] & 0xff;
+			writer.write(b >= 0x20 && b < 0x7f ? (char) b : '.');
+		}
+		writer.write('|');
+	}
+
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.restdocs.http;
+
+import static org.springframework.restdocs.util.IterableEnumeration.iterable;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.restdocs.format.BodyFormatters;
+import org.springframework.restdocs.format.ContentDecoder;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.util.StreamUtils;
+
+/**
+ * A snapshot of a documented request from which snippets, such as a cURL command or the
+ * raw HTTP request, are rendered. The request's body is read when it is captured and
+ * is decoded and formatted on first use.
+ *
+ * @author Andy Wilkinson
+ */
+public final class CapturedRequest {
+
+	private static final String SCHEME_HTTP = "http";
+
+	private static final String SCHEME_HTTPS = "https";
+
+	private static final int STANDARD_PORT_HTTP = 80;
+
+	private static final int STANDARD_PORT_HTTPS = 443;
+
+	private final String method;
+
+	private final String scheme;
+
+	private final String host;
+
+	private final int port;
+
+	private final String uri;
+
+	private final Map<String, List<String>> headers;
+
+	private final String contentType;
+
+	private final byte[] content;
+
+	private volatile String decodedContent;
+
+	private volatile String formattedContent;
+
+	private CapturedRequest(MockHttpServletRequest request) throws IOException {
+		this.method = request.getMethod();
+		this.scheme = request.getScheme();
+		this.host = request.getRemoteHost();
+		this.port = request.getRemotePort();
+		this.uri = request.getQueryString() != null ? request.getRequestURI() + "?"
+				+ request.getQueryString() : request.getRequestURI();
+		Map<String, List<String>> headers = new LinkedHashMap<String, List<String>>();
+		for (String headerName : iterable(request.getHeaderNames())) {
+			List<String> values = new ArrayList<String>();
+			for (String header : iterable(request.getHeaders(headerName))) {
+				values.add(header);
+			}
+			headers.put(headerName, Collections.unmodifiableList(values));
+		}
+		this.headers = Collections.unmodifiableMap(headers);
+		this.contentType = request.getContentType();
+		this.content = request.getContentLengthLong() > 0 ? StreamUtils
+				.copyToByteArray(request.getInputStream()) : new byte[0];
+	}
+
+	/**
+	 * Returns the capture of the request of the given {@code result}. If the result has
+	 * been {@link CapturedResult#capture(MvcResult) captured}, its request is only
+	 * captured once with the capture being shared by every snippet that documents the
+	 * result.
+	 *
+	 * @param result the result
+	 * @return the captured request
+	 * @throws IOException if the request's body cannot be read
+	 */
+	public static CapturedRequest capture(MvcResult result) throws IOException {
+		CapturedResult captured = CapturedResult.of(result);
+		if (captured != null) {
+			return captured.getCapturedRequest();
+		}
+		return capture(result.getRequest());
+	}
+
+	/**
+	 * Returns a capture of the given {@code request}
+	 *
+	 * @param request the request
+	 * @return the captured request
+	 * @throws IOException if the request's body cannot be read
+	 */
+	public static CapturedRequest capture(MockHttpServletRequest request)
+			throws IOException {
+		return new CapturedRequest(request);
+	}
+
+	/**
+	 * Returns the request's HTTP method
+	 *
+	 * @return the method
+	 */
+	public String getMethod() {
+		return this.method;
+	}
+
+	/**
+	 * Returns the request's scheme, for example {@code http}
+	 *
+	 * @return the scheme
+	 */
+	public String getScheme() {
+		return this.scheme;
+	}
+
+	/**
+	 * Returns the host to which the request was sent
+	 *
+	 * @return the host
+	 */
+	public String getHost() {
+		return this.host;
+	}
+
+	/**
+	 * Returns the port to which the request was sent
+	 *
+	 * @return the port
+	 */
+	public int getPort() {
+		return this.port;
+	}
+
+	/**
+	 * Returns whether or not the request was sent to a port other than the standard
+	 * port for its scheme
+	 *
+	 * @return {@code true} if the port is non-standard, otherwise {@code false}
+	 */
+	public boolean isNonStandardPort() {
+		return (SCHEME_HTTP.equals(this.scheme) && this.port != STANDARD_PORT_HTTP)
+				|| (SCHEME_HTTPS.equals(this.scheme) && this.port != STANDARD_PORT_HTTPS);
+	}
+
+	/**
+	 * Returns the request's absolute URL: its scheme, host, port if it is non-standard,
+	 * and URI
+	 *
+	 * @return the URL
+	 */
+	public String getUrl() {
+		return String.format("%s://%s%s%s", this.scheme, this.host,
+				isNonStandardPort() ? ":" + this.port : "", this.uri);
+	}
+
+	/**
+	 * Returns the request's URI, including its query string if it has one
+	 *
+	 * @return the URI
+	 */
+	public String getUri() {
+		return this.uri;
+	}
+
+	/**
+	 * Returns the request's headers, keyed by name in the order in which they were set
+	 *
+	 * @return the headers
+	 */
+	public Map<String, List<String>> getHeaders() {
+		return this.headers;
+	}
+
+	/**
+	 * Returns the request's content type or {@code null} if it does not have one
+	 *
+	 * @return the content type, or {@code null}
+	 */
+	public String getContentType() {
+		return this.contentType;
+	}
+
+	/**
+	 * Returns whether or not the request has a body
+	 *
+	 * @return {@code true} if the request has a body, otherwise {@code false}
+	 */
+	public boolean hasContent() {
+		return this.content.length > 0;
+	}
+
+	byte[] getContentAsByteArray() {
+		return this.content;
+	}
+
+	/**
+	 * Returns the length of the request's body in bytes
+	 *
+	 * @return the length of the body
+	 */
+	public int getContentLength() {
+		return this.content.length;
+	}
+
+	/**
+	 * Returns the request's body, decoded using the charset from its content type
+	 *
+	 * @return the decoded body
+	 * @see ContentDecoder#getCharset(String)
+	 */
+	public String getContent() {
+		String decoded = this.decodedContent;
+		if (decoded == null) {
+			decoded = ContentDecoder.decode(this.content, getCharset());
+			this.decodedContent = decoded;
+		}
+		return decoded;
+	}
+
+	/**
+	 * Returns the request's body, formatted using the formatter for its content type. Only
+	 * textual bodies, such as JSON and XML, are formatted so that the body can still be
+	 * sent as-is. If there is no such formatter for the content type, or the body cannot
+	 * be formatted, the decoded body is returned.
+	 *
+	 * @return the formatted body
+	 * @see BodyFormatters#textFormatterForContentType(String)
+	 */
+	public String getFormattedContent() {
+		if (BodyFormatters.textFormatterForContentType(this.contentType) == null) {
+			return getContent();
+		}
+		String formatted = this.formattedContent;
+		if (formatted == null) {
+			formatted = BodyFormatters.format(this.content, getCharset(),
+					this.contentType);
+			this.formattedContent = formatted;
+		}
+		return formatted;
+	}
+
+	private Charset getCharset() {
+		return ContentDecoder.getCharset(this.contentType);
+	}
+
+}
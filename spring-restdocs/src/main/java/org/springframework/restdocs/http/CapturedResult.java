@@ -0,0 +1,135 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.restdocs.http;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.restdocs.format.CapturedResponse;
+import org.springframework.test.web.servlet.MvcResult;
+
+/**
+ * The capture of the result of a documented call that is handed to the call's snippets
+ * in place of the result itself. Its response is a {@link CapturedResponse} that is
+ * taken once for the call, so producing the snippets leaves the original response
+ * untouched. Its request is captured on first use and shared in the same way.
+ *
+ * @author Andy Wilkinson
+ */
+public final class CapturedResult {
+
+	private static final Method GET_RESPONSE = getResponseMethod();
+
+	private final MvcResult delegate;
+
+	private final MockHttpServletResponse response;
+
+	private CapturedRequest request;
+
+	private CapturedResult(MvcResult delegate) throws IOException {
+		this.delegate = delegate;
+		this.response = delegate.getResponse() == null ? null : CapturedResponse
+				.capture(delegate.getResponse());
+	}
+
+	/**
+	 * Returns an {@link MvcResult} that is a capture of the given {@code result}. If the
+	 * result has already been captured it is returned as-is.
+	 *
+	 * @param result the result
+	 * @return the captured result
+	 * @throws IOException if the result's response cannot be captured
+	 */
+	public static MvcResult capture(MvcResult result) throws IOException {
+		if (of(result) != null) {
+			return result;
+		}
+		return (MvcResult) Proxy.newProxyInstance(MvcResult.class.getClassLoader(),
+				new Class<?>[] { MvcResult.class }, new CapturingInvocationHandler(
+						new CapturedResult(result)));
+	}
+
+	/**
+	 * Returns the {@code CapturedResult} behind the given {@code result} or {@code null}
+	 * if the result has not been captured
+	 *
+	 * @param result the result
+	 * @return the captured result, or {@code null}
+	 */
+	static CapturedResult of(MvcResult result) {
+		if (result != null && Proxy.isProxyClass(result.getClass())) {
+			InvocationHandler handler = Proxy.getInvocationHandler(result);
+			if (handler instanceof CapturingInvocationHandler) {
+				return ((CapturingInvocationHandler) handler).captured;
+			}
+		}
+		return null;
+	}
+
+	synchronized CapturedRequest getCapturedRequest() throws IOException {
+		if (this.request == null) {
+			this.request = CapturedRequest.capture(this.delegate.getRequest());
+		}
+		return this.request;
+	}
+
+	private static Method getResponseMethod() {
+		try {
+			return MvcResult.class.getMethod("getResponse");
+		}
+		catch (NoSuchMethodException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	private static final class CapturingInvocationHandler implements InvocationHandler {
+
+		private final CapturedResult captured;
+
+		private CapturingInvocationHandler(CapturedResult captured) {
+			this.captured = captured;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args)
+				throws Throwable {
+			if (GET_RESPONSE.equals(method)) {
+				return this.captured.response;
+			}
+			if (method.getDeclaringClass() == Object.class) {
+				if ("equals".equals(method.getName())) {
+					return proxy == args[0];
+				}
+				if ("hashCode".equals(method.getName())) {
+					return System.identityHashCode(proxy);
+				}
+			}
+			try {
+				return method.invoke(this.captured.delegate, args);
+			}
+			catch (InvocationTargetException ex) {
+				throw ex.getCause();
+			}
+		}
+
+	}
+
+}
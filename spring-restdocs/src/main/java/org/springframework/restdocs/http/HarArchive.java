@@ -0,0 +1,361 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.restdocs.http;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.charset.Charset;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Map.Entry;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.restdocs.format.BodyFormatters;
+import org.springframework.restdocs.format.ContentDecoder;
+import org.springframework.restdocs.snippet.DocumentationProperties;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.util.StringUtils;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Exports every documented request and response as an entry in an HTTP Archive (HAR)
+ * file so that the documented calls can be replayed by other tools. Exporting is
+ * enabled by setting the {@code org.springframework.restdocs.harFile} property to the
+ * path of the file. The property is read when the first call is documented.
+ * <p>
+ * The archive is written as a stream: it is opened when the first call is documented,
+ * each entry is written as soon as its call has been documented and the archive is
+ * completed and closed when the JVM exits. Only the entry that is being written is held
+ * in memory. Each entry is built in full before it is added, so a call that cannot be
+ * exported does not leave a partial entry in the archive. Requests are read from their {@link CapturedRequest}, so exporting a call
+ * does not read its request body again. Bodies whose content type is not textual, such
+ * as CBOR or Protocol Buffers, are written as Base64 with an {@code encoding} of
+ * {@code base64}.
+ * <p>
+ * The archive is written by the JVM that documents the calls and the file is replaced
+ * when the first call is documented. When the tests are run in several JVMs, for
+ * example using forked or parallel test execution, each JVM must be configured with a
+ * different file, otherwise the JVMs overwrite each other's archive.
+ *
+ * @author Andy Wilkinson
+ * @see DocumentationProperties#getHarFile()
+ */
+public final class HarArchive {
+
+	private static final String HTTP_VERSION = "HTTP/1.1";
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private static HarArchive instance;
+
+	private final JsonFactory jsonFactory = new JsonFactory();
+
+	private final JsonGenerator generator;
+
+	private final SimpleDateFormat dateFormat = new SimpleDateFormat(
+			"yyyy-MM-dd'T'HH:mm:ss.SSSXXX");
+
+	private boolean closed;
+
+	private boolean failed;
+
+	HarArchive(OutputStream output) throws IOException {
+		this.generator = this.jsonFactory.createGenerator(output, JsonEncoding.UTF8);
+		this.generator.writeStartObject();
+		this.generator.writeObjectFieldStart("log");
+		this.generator.writeStringField("version", "1.2");
+		this.generator.writeObjectFieldStart("creator");
+		this.generator.writeStringField("name", "Spring REST Docs");
+		String version = HarArchive.class.getPackage().getImplementationVersion();
+		this.generator.writeStringField("version", version == null ? "" : version);
+		this.generator.writeEndObject();
+		this.generator.writeArrayFieldStart("entries");
+	}
+
+	/**
+	 * Adds the request and response of the given {@code result} to the archive if
+	 * exporting is enabled.
+	 *
+	 * @param result the result of the documented call
+	 * @throws IOException if the entry cannot be written
+	 * @see DocumentationProperties#getHarFile()
+	 */
+	public static void record(MvcResult result) throws IOException {
+		File harFile = DocumentationProperties.get().getHarFile();
+		if (harFile != null) {
+			getInstance(harFile).write(result);
+		}
+	}
+
+	private static synchronized HarArchive getInstance(File harFile) throws IOException {
+		if (instance == null) {
+			File parent = harFile.getParentFile();
+			if (!parent.isDirectory() && !parent.mkdirs()) {
+				throw new IllegalStateException("Failed to create directory '" + parent
+						+ "'");
+			}
+			instance = new HarArchive(new FileOutputStream(harFile));
+			Runtime.getRuntime().addShutdownHook(
+					new Thread(new ArchiveCloser(instance), "restdocs-har-archive"));
+		}
+		return instance;
+	}
+
+	synchronized void write(MvcResult result) throws IOException {
+		if (this.closed || this.failed) {
+			return;
+		}
+		// The entry is built in memory first so that a failure part way through it does
+		// not leave a partial entry in the archive
+		StringWriter entry = new StringWriter();
+		JsonGenerator generator = this.jsonFactory.createGenerator(entry);
+		CapturedRequest request = CapturedRequest.capture(result);
+		generator.writeStartObject();
+		generator.writeStringField("startedDateTime", this.dateFormat.format(new Date()));
+		generator.writeNumberField("time", 0);
+		writeRequest(generator, request);
+		writeResponse(generator, result.getResponse());
+		generator.writeObjectFieldStart("cache");
+		generator.writeEndObject();
+		generator.writeObjectFieldStart("timings");
+		generator.writeNumberField("send", 0);
+		generator.writeNumberField("wait", 0);
+		generator.writeNumberField("receive", 0);
+		generator.writeEndObject();
+		generator.writeEndObject();
+		generator.close();
+		try {
+			this.generator.writeRawValue(entry.toString());
+			// Flush each entry so that memory use does not grow with the number of calls
+			this.generator.flush();
+		}
+		catch (IOException ex) {
+			// The archive may now hold part of the entry so nothing more can be added
+			this.failed = true;
+			throw ex;
+		}
+	}
+
+	private void writeRequest(JsonGenerator generator, CapturedRequest request)
+			throws IOException {
+		generator.writeObjectFieldStart("request");
+		generator.writeStringField("method", request.getMethod());
+		generator.writeStringField("url", request.getUrl());
+		generator.writeStringField("httpVersion", HTTP_VERSION);
+		generator.writeArrayFieldStart("cookies");
+		generator.writeEndArray();
+		generator.writeArrayFieldStart("headers");
+		for (Entry<String, List<String>> header : request.getHeaders().entrySet()) {
+			for (String value : header.getValue()) {
+				writeNameValue(generator, header.getKey(), value);
+			}
+		}
+		generator.writeEndArray();
+		writeQueryString(generator, request.getUri());
+		if (request.hasContent()) {
+			generator.writeObjectFieldStart("postData");
+			generator.writeStringField("mimeType", nullToEmpty(request
+					.getContentType()));
+			if (isText(request.getContentType())) {
+				generator.writeStringField("text", request.getContent());
+			}
+			else {
+				writeBase64Text(generator, request.getContentAsByteArray());
+			}
+			generator.writeEndObject();
+		}
+		generator.writeNumberField("headersSize", -1);
+		generator.writeNumberField("bodySize", request.getContentLength());
+		generator.writeEndObject();
+	}
+
+	private void writeQueryString(JsonGenerator generator, String uri)
+			throws IOException {
+		generator.writeArrayFieldStart("queryString");
+		int queryStart = uri.indexOf('?');
+		if (queryStart >= 0) {
+			for (String parameter : StringUtils.delimitedListToStringArray(
+					uri.substring(queryStart + 1), "&")) {
+				if (parameter.length() > 0) {
+					int separator = parameter.indexOf('=');
+					writeNameValue(generator, 
+							decode(separator < 0 ? parameter : parameter.substring(0,
+									separator)),
+							separator < 0 ? "" : decode(parameter
+									.substring(separator + 1)));
+				}
+			}
+		}
+		generator.writeEndArray();
+	}
+
+	private void writeResponse(JsonGenerator generator,
+			MockHttpServletResponse response) throws IOException {
+		generator.writeObjectFieldStart("response");
+		int status = response == null ? 0 : response.getStatus();
+		generator.writeNumberField("status", status);
+		generator.writeStringField("statusText", getReasonPhrase(status));
+		generator.writeStringField("httpVersion", HTTP_VERSION);
+		generator.writeArrayFieldStart("cookies");
+		generator.writeEndArray();
+		generator.writeArrayFieldStart("headers");
+		if (response != null) {
+			for (String headerName : response.getHeaderNames()) {
+				for (String value : response.getHeaders(headerName)) {
+					writeNameValue(generator, headerName, value);
+				}
+			}
+		}
+		generator.writeEndArray();
+		generator.writeObjectFieldStart("content");
+		if (response == null) {
+			generator.writeNumberField("size", 0);
+			generator.writeStringField("mimeType", "");
+			generator.writeStringField("text", "");
+		}
+		else if (isText(response.getContentType())) {
+			String content = ContentDecoder.getContentAsString(response);
+			generator.writeNumberField("size", content.getBytes(UTF_8).length);
+			generator.writeStringField("mimeType",
+					nullToEmpty(response.getContentType()));
+			generator.writeStringField("text", content);
+		}
+		else {
+			byte[] content = ContentDecoder.getContentAsByteArray(response);
+			generator.writeNumberField("size", content.length);
+			generator.writeStringField("mimeType", response.getContentType());
+			writeBase64Text(generator, content);
+		}
+		generator.writeEndObject();
+		generator.writeStringField("redirectURL", response == null ? ""
+				: nullToEmpty(response.getRedirectedUrl()));
+		generator.writeNumberField("headersSize", -1);
+		generator.writeNumberField("bodySize", response == null ? 0 : response
+				.getContentAsByteArray().length);
+		generator.writeEndObject();
+	}
+
+	private void writeBase64Text(JsonGenerator generator, byte[] content)
+			throws IOException {
+		generator.writeBinaryField("text", content);
+		generator.writeStringField("encoding", "base64");
+	}
+
+	private void writeNameValue(JsonGenerator generator, String name, String value)
+			throws IOException {
+		generator.writeStartObject();
+		generator.writeStringField("name", name);
+		generator.writeStringField("value", value);
+		generator.writeEndObject();
+	}
+
+	/**
+	 * Completes and closes the archive. Calls that are documented once the archive has
+	 * been closed are not added to it. An archive that could not be written to is closed
+	 * without being completed.
+	 *
+	 * @throws IOException if the archive cannot be completed
+	 */
+	synchronized void close() throws IOException {
+		if (!this.closed) {
+			this.closed = true;
+			if (!this.failed) {
+				this.generator.writeEndArray();
+				this.generator.writeEndObject();
+				this.generator.writeEndObject();
+			}
+			this.generator.close();
+		}
+	}
+
+	private static boolean isText(String contentType) {
+		if (!StringUtils.hasText(contentType)) {
+			return true;
+		}
+		MediaType mediaType;
+		try {
+			mediaType = MediaType.parseMediaType(contentType);
+		}
+		catch (InvalidMediaTypeException ex) {
+			return true;
+		}
+		String subtype = mediaType.getSubtype();
+		return "text".equals(mediaType.getType()) || mediaType.getCharSet() != null
+				|| BodyFormatters.textFormatterForContentType(contentType) != null
+				|| "x-www-form-urlencoded".equals(subtype)
+				|| "javascript".equals(subtype);
+	}
+
+	private static String getReasonPhrase(int status) {
+		try {
+			return HttpStatus.valueOf(status).getReasonPhrase();
+		}
+		catch (IllegalArgumentException ex) {
+			return "";
+		}
+	}
+
+	private static String decode(String value) {
+		try {
+			return URLDecoder.decode(value, "UTF-8");
+		}
+		catch (UnsupportedEncodingException ex) {
+			throw new IllegalStateException(ex);
+		}
+		catch (IllegalArgumentException ex) {
+			return value;
+		}
+	}
+
+	private static String nullToEmpty(String value) {
+		return value == null ? "" : value;
+	}
+
+	private static final class ArchiveCloser implements Runnable {
+
+		private final HarArchive archive;
+
+		private ArchiveCloser(HarArchive archive) {
+			this.archive = archive;
+		}
+
+		@Override
+		public void run() {
+			try {
+				this.archive.close();
+			}
+			catch (IOException ex) {
+				System.err.println("Failed to complete the HAR archive: "
+						+ ex.getMessage());
+			}
+		}
+
+	}
+
+}
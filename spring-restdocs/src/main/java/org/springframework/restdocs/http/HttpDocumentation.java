@@ -0,0 +1,261 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.restdocs.http;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.restdocs.snippet.DocumentationWriter;
+import org.springframework.restdocs.snippet.DocumentationWriter.DocumentationAction;
+import org.springframework.test.web.servlet.MvcResult;
+
+/**
+ * Static factory methods for documenting a RESTful API's requests as raw HTTP and as
+ * they would be made using other HTTP clients. Every snippet is rendered from the same
+ * {@link CapturedRequest}, so producing several of them for a call reads the request's
+ * body once.
+ *
+ * @author Andy Wilkinson
+ */
+public abstract class HttpDocumentation {
+
+	private HttpDocumentation() {
+
+	}
+
+	/**
+	 * Produces a documentation snippet containing the request as a raw HTTP/1.1 request:
+	 * its request line, headers and body.
+	 *
+	 * @param outputDir The directory to which snippet should be written
+	 * @return the handler that will produce the snippet
+	 */
+	public static HttpSnippetResultHandler documentHttpRequest(String outputDir) {
+		return new HttpSnippetResultHandler(outputDir, "http-request") {
+
+			@Override
+			public void handle(MvcResult result, DocumentationWriter writer)
+					throws IOException {
+				writer.codeBlock("http", new HttpRequestDocumentationAction(writer,
+						CapturedRequest.capture(result), isFormatBodies()));
+			}
+		};
+	}
+
+	/**
+	 * Produces a documentation snippet containing the request formatted as an HTTPie
+	 * command. The request's body is piped to the command using {@code printf} so that
+	 * it is sent exactly as it was, without being formatted, without a trailing newline
+	 * and without its backslashes being interpreted.
+	 *
+	 * @param outputDir The directory to which snippet should be written
+	 * @return the handler that will produce the snippet
+	 */
+	public static HttpSnippetResultHandler documentHttpieRequest(String outputDir) {
+		return new HttpSnippetResultHandler(outputDir, "httpie-request") {
+
+			@Override
+			public void handle(MvcResult result, DocumentationWriter writer)
+					throws IOException {
+				writer.shellCommand(new HttpieRequestDocumentationAction(writer,
+						CapturedRequest.capture(result)));
+			}
+		};
+	}
+
+	/**
+	 * Produces a documentation snippet containing the request as it would be built
+	 * using Java's {@code java.net.http.HttpClient}. The request's body is included as it
+	 * was sent, without being formatted.
+	 *
+	 * @param outputDir The directory to which snippet should be written
+	 * @return the handler that will produce the snippet
+	 */
+	public static HttpSnippetResultHandler documentHttpClientRequest(String outputDir) {
+		return new HttpSnippetResultHandler(outputDir, "http-client-request") {
+
+			@Override
+			public void handle(MvcResult result, DocumentationWriter writer)
+					throws IOException {
+				writer.codeBlock("java", new HttpClientRequestDocumentationAction(
+						writer, CapturedRequest.capture(result)));
+			}
+		};
+	}
+
+	private static final class HttpRequestDocumentationAction implements
+			DocumentationAction {
+
+		private final DocumentationWriter writer;
+
+		private final CapturedRequest request;
+
+		private final boolean formatBodies;
+
+		HttpRequestDocumentationAction(DocumentationWriter writer,
+				CapturedRequest request, boolean formatBodies) {
+			this.writer = writer;
+			this.request = request;
+			this.formatBodies = formatBodies;
+		}
+
+		@Override
+		public void perform() throws IOException {
+			this.writer.println(String.format("%s %s HTTP/1.1", this.request.getMethod(),
+					this.request.getUri()));
+			boolean hostWritten = false;
+			for (Entry<String, List<String>> header : this.request.getHeaders()
+					.entrySet()) {
+				hostWritten |= HttpHeaders.HOST.equalsIgnoreCase(header.getKey());
+				for (String value : header.getValue()) {
+					this.writer.println(String.format("%s: %s", header.getKey(), value));
+				}
+			}
+			if (!hostWritten) {
+				this.writer.println(String.format("%s: %s%s", HttpHeaders.HOST,
+						this.request.getHost(), this.request.isNonStandardPort() ? ":"
+								+ this.request.getPort() : ""));
+			}
+			this.writer.println();
+			if (this.request.hasContent()) {
+				this.writer.println(this.formatBodies ? this.request
+						.getFormattedContent() : this.request.getContent());
+			}
+		}
+
+	}
+
+	private static final class HttpieRequestDocumentationAction implements
+			DocumentationAction {
+
+		private final DocumentationWriter writer;
+
+		private final CapturedRequest request;
+
+		HttpieRequestDocumentationAction(DocumentationWriter writer,
+				CapturedRequest request) {
+			this.writer = writer;
+			this.request = request;
+		}
+
+		@Override
+		public void perform() throws IOException {
+			if (this.request.hasContent()) {
+				// Unlike echo, printf adds no newline and leaves backslashes alone
+				this.writer.print(String.format("printf '%%s' %s | ",
+						quote(this.request.getContent())));
+			}
+			this.writer.print(String.format("http %s %s", this.request.getMethod(),
+					quote(this.request.getUrl())));
+			for (Entry<String, List<String>> header : this.request.getHeaders()
+					.entrySet()) {
+				for (String value : header.getValue()) {
+					this.writer.print(" " + quote(header.getKey() + ":" + value));
+				}
+			}
+			this.writer.println();
+		}
+
+		private String quote(String value) {
+			return "'" + value.replace("'", "'\\''") + "'";
+		}
+
+	}
+
+	private static final class HttpClientRequestDocumentationAction implements
+			DocumentationAction {
+
+		// Headers that HttpClient does not allow to be set
+		private static final Set<String> RESTRICTED_HEADERS = new HashSet<String>(
+				Arrays.asList("connection", "content-length", "expect", "host",
+						"upgrade"));
+
+		private final DocumentationWriter writer;
+
+		private final CapturedRequest request;
+
+		HttpClientRequestDocumentationAction(DocumentationWriter writer,
+				CapturedRequest request) {
+			this.writer = writer;
+			this.request = request;
+		}
+
+		@Override
+		public void perform() throws IOException {
+			this.writer.println(String.format(
+					"HttpRequest request = HttpRequest.newBuilder(URI.create(%s))",
+					literal(this.request.getUrl())));
+			for (Entry<String, List<String>> header : this.request.getHeaders()
+					.entrySet()) {
+				if (RESTRICTED_HEADERS.contains(header.getKey().toLowerCase(Locale.ENGLISH))) {
+					continue;
+				}
+				for (String value : header.getValue()) {
+					this.writer.println(String.format("\t\t.header(%s, %s)",
+							literal(header.getKey()), literal(value)));
+				}
+			}
+			if (this.request.hasContent()) {
+				this.writer.println(String.format(
+						"\t\t.method(%s, BodyPublishers.ofString(%s))",
+						literal(this.request.getMethod()),
+						literal(this.request.getContent())));
+			}
+			else if (!"GET".equals(this.request.getMethod())) {
+				this.writer.println(String.format(
+						"\t\t.method(%s, BodyPublishers.noBody())",
+						literal(this.request.getMethod())));
+			}
+			this.writer.println("\t\t.build();");
+		}
+
+		private String literal(String value) {
+			StringBuilder literal = new StringBuilder("\"");
+			for (int i = 0; i < value.length(); i++) {
+				char c = value.charAt(i);
+				switch (c) {
+				case '"':
+					literal.append("\\\"");
+					break;
+				case '\\':
+					literal.append("\\\\");
+					break;
+				case '\n':
+					literal.append("\\n");
+					break;
+				case '\r':
+					literal.append("\\r");
+					break;
+				case '\t':
+					literal.append("\\t");
+					break;
+				default:
+					literal.append(c);
+				}
+			}
+			return literal.append('"').toString();
+		}
+
+	}
+
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.restdocs.http;
+
+import org.springframework.restdocs.format.BodyFormatter;
+import org.springframework.restdocs.format.BodyFormatters;
+import org.springframework.restdocs.snippet.SnippetWritingResultHandler;
+import org.springframework.test.web.servlet.ResultHandler;
+
+/**
+ * Abstract base class for Spring Mock MVC {@link ResultHandler ResultHandlers} that
+ * produce documentation snippets from a {@link CapturedRequest}.
+ *
+ * @author Andy Wilkinson
+ */
+public abstract class HttpSnippetResultHandler extends SnippetWritingResultHandler {
+
+	private boolean formatBodies = true;
+
+	public HttpSnippetResultHandler(String outputDir, String fileName) {
+		super(outputDir, fileName);
+	}
+
+	boolean isFormatBodies() {
+		return this.formatBodies;
+	}
+
+	/**
+	 * Specify whether or not the bodies of requests should be formatted using the
+	 * {@link BodyFormatter} for their content type, for example to pretty-print JSON.
+	 * Bodies are formatted by default.
+	 *
+	 * @param format {@code true} to format bodies, otherwise false
+	 * @return {@code this}
+	 * @see BodyFormatters#formatterForContentType(String)
+	 */
+	public HttpSnippetResultHandler formatBodies(boolean format) {
+		this.formatBodies = format;
+		return this;
+	}
+
+}
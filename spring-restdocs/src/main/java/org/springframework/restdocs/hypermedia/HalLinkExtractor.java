@@ -0,0 +1,99 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.restdocs.hypermedia;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * A {@link LinkExtractor} for links in Hypermedia Application Language (HAL) format. The
+ * links in the top-level {@code _links} map are always extracted. Optionally, the links
+ * of the resources in {@code _embedded} are also extracted, down to a maximum depth and
+ * from a maximum number of resources per embedded array. The rel of a link that is found
+ * in an embedded resource is prefixed with the embedded relation, for example
+ * {@code notes.self}, so that the rels of every resource in an embedded relation are
+ * aggregated together.
+ *
+ * @author Andy Wilkinson
+ */
+class HalLinkExtractor extends StreamingJsonLinkExtractor {
+
+	private final int maxEmbeddedDepth;
+
+	private final int maxEmbeddedItems;
+
+	HalLinkExtractor(int maxEmbeddedDepth, int maxEmbeddedItems) {
+		this.maxEmbeddedDepth = maxEmbeddedDepth;
+		this.maxEmbeddedItems = maxEmbeddedItems;
+	}
+
+	@Override
+	protected void extractLinks(JsonParser parser, Map<String, List<Link>> extractedLinks)
+			throws IOException {
+		readResource(parser, "", 0, extractedLinks);
+	}
+
+	private void readResource(JsonParser parser, String relPrefix, int depth,
+			Map<String, List<Link>> extractedLinks) throws IOException {
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String name = parser.getCurrentName();
+			JsonToken value = parser.nextToken();
+			if ("_links".equals(name) && value == JsonToken.START_OBJECT) {
+				readLinkMap(parser, relPrefix, extractedLinks);
+			}
+			else if ("_embedded".equals(name) && value == JsonToken.START_OBJECT
+					&& depth < this.maxEmbeddedDepth) {
+				readEmbedded(parser, relPrefix, depth, extractedLinks);
+			}
+			else {
+				parser.skipChildren();
+			}
+		}
+	}
+
+	private void readEmbedded(JsonParser parser, String relPrefix, int depth,
+			Map<String, List<Link>> extractedLinks) throws IOException {
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String embeddedRelPrefix = relPrefix + parser.getCurrentName() + ".";
+			JsonToken value = parser.nextToken();
+			if (value == JsonToken.START_OBJECT) {
+				readResource(parser, embeddedRelPrefix, depth + 1, extractedLinks);
+			}
+			else if (value == JsonToken.START_ARRAY) {
+				int items = 0;
+				while (parser.nextToken() != JsonToken.END_ARRAY) {
+					if (parser.getCurrentToken() == JsonToken.START_OBJECT
+							&& items++ < this.maxEmbeddedItems) {
+						readResource(parser, embeddedRelPrefix, depth + 1,
+								extractedLinks);
+					}
+					else {
+						parser.skipChildren();
+					}
+				}
+			}
+			else {
+				parser.skipChildren();
+			}
+		}
+	}
+
+}
@@ -34,8 +34,11 @@ public abstract class HypermediaDocumentation {
 
 	/**
 	 * Creates a {@code LinkDescriptor} that describes a link with the given {@code rel}.
+	 * The rel may be a pattern, such as {@code ex:*}, in which {@code *} matches any
+	 * sequence of characters. A pattern describes every link with a matching rel and at
+	 * least one such link must be present.
 	 * 
-	 * @param rel The rel of the link
+	 * @param rel The rel of the link, or a pattern matching the rels of several links
 	 * @return a {@code LinkDescriptor} ready for further configuration
 	 * @see RestDocumentationResultHandler#withLinks(LinkDescriptor...)
 	 * @see RestDocumentationResultHandler#withLinks(LinkExtractor, LinkDescriptor...)
@@ -44,6 +47,20 @@ public abstract class HypermediaDocumentation {
 		return new LinkDescriptor(rel);
 	}
 
+	/**
+	 * Creates an immutable {@code LinkDescriptors} from the given {@code descriptors}.
+	 * The descriptors are validated and indexed once so the set can be shared and used
+	 * to document any number of responses.
+	 * 
+	 * @param descriptors The descriptors
+	 * @return the descriptor set
+	 * @see RestDocumentationResultHandler#withLinks(LinkDescriptors)
+	 * @see RestDocumentationResultHandler#withLinks(LinkExtractor, LinkDescriptors)
+	 */
+	public static LinkDescriptors linkDescriptors(LinkDescriptor... descriptors) {
+		return new LinkDescriptors(Arrays.asList(descriptors));
+	}
+
     /**
      * Creates a {@code LinkSnippetResultHandler} that will produce a documentation
      * snippet for a response's links.
@@ -57,8 +74,23 @@ public abstract class HypermediaDocumentation {
      */
     public static LinkSnippetResultHandler documentLinks(String outputDir,
             LinkExtractor linkExtractor, LinkDescriptor... descriptors) {
-        return new LinkSnippetResultHandler(outputDir, linkExtractor,
-                Arrays.asList(descriptors));
+        return documentLinks(outputDir, linkExtractor, linkDescriptors(descriptors));
+    }
+
+    /**
+     * Creates a {@code LinkSnippetResultHandler} that will produce a documentation
+     * snippet for a response's links.
+     *
+     * @param outputDir The directory to which the snippet should be written
+     * @param linkExtractor Used to extract the links from the response
+     * @param descriptors The descriptions of the response's links
+     * @return the handler
+     * @see RestDocumentationResultHandler#withLinks(LinkDescriptors)
+     * @see RestDocumentationResultHandler#withLinks(LinkExtractor, LinkDescriptors)
+     */
+    public static LinkSnippetResultHandler documentLinks(String outputDir,
+            LinkExtractor linkExtractor, LinkDescriptors descriptors) {
+        return new LinkSnippetResultHandler(outputDir, linkExtractor, descriptors);
     }
 
     /**
@@ -89,4 +121,21 @@ public abstract class HypermediaDocumentation {
         return new SchemaSnippetResultHandler(outputDir, schemaExtractor, descriptor);
     }
 
+    /**
+     * Creates a {@code SchemaValidatingResultHandler} that will validate the body of a
+     * response against the given JSON {@code schema}. The compiled schema is cached so
+     * using the same schema for many responses only compiles it once. The schema is not
+     * taken from a documented {@code /schema} response, so it should be loaded from the
+     * same source as the one that the application serves.
+     *
+     * @param outputDir The directory of the documented call, used when reporting failures
+     * @param schema The JSON schema
+     * @return the handler
+     * @see RestDocumentationResultHandler#withSchemaValidation(String)
+     */
+    public static SchemaValidatingResultHandler validateSchema(String outputDir,
+            String schema) {
+        return new SchemaValidatingResultHandler(outputDir, schema);
+    }
+
 }
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.restdocs.hypermedia;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.net.URI;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+
+/**
+ * A {@link SchemaExtractor} that derives a schema from the Java type of a response's
+ * payload using Jackson's introspection of the type's properties rather than from the
+ * response itself. The properties of nested objects and of the elements of arrays and
+ * collections are included with dotted names such as {@code tags[].name}. A type that
+ * refers back to a type whose properties are already being described is not described
+ * again.
+ * <p>
+ * Types are introspected using the configuration of an {@link ObjectMapper}, so that
+ * the application's naming strategy, visibility rules and mix-ins are honoured when
+ * its mapper is provided. The properties of each type are introspected once per mapper
+ * configuration and cached for as long as that configuration is in use. Binary
+ * properties, such as a {@code byte[]}, are described as strings as Jackson writes them
+ * as Base64.
+ *
+ * @author Andy Wilkinson
+ */
+class JavaTypeSchemaExtractor implements SchemaExtractor {
+
+	// Weakly keyed so that the properties found with a configuration that is no longer
+	// in use, for example that of a discarded or reconfigured mapper, are not retained
+	private static final Map<SerializationConfig, ConcurrentMap<JavaType, List<SchemaProperty>>> PROPERTIES_BY_CONFIG = Collections
+			.synchronizedMap(new WeakHashMap<SerializationConfig, ConcurrentMap<JavaType, List<SchemaProperty>>>());
+
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+	private final JavaType type;
+
+	private final ObjectMapper objectMapper;
+
+	JavaTypeSchemaExtractor(JavaType type) {
+		this(type, OBJECT_MAPPER);
+	}
+
+	JavaTypeSchemaExtractor(Class<?> type) {
+		this(type, OBJECT_MAPPER);
+	}
+
+	JavaTypeSchemaExtractor(JavaType type, ObjectMapper objectMapper) {
+		this.type = type;
+		this.objectMapper = objectMapper;
+	}
+
+	JavaTypeSchemaExtractor(Class<?> type, ObjectMapper objectMapper) {
+		this(objectMapper.getTypeFactory().constructType(type), objectMapper);
+	}
+
+	@Override
+	public SchemaDescriptor extractSchema(MockHttpServletResponse response)
+			throws IOException {
+		return new SchemaDescriptor(this.type.getRawClass().getName()).description(
+				null, getProperties(this.type, this.objectMapper));
+	}
+
+	static List<SchemaProperty> getProperties(JavaType type, ObjectMapper objectMapper) {
+		// The configuration is immutable and is replaced when the mapper is
+		// reconfigured, so it identifies the rules that the properties were found with
+		SerializationConfig config = objectMapper.getSerializationConfig();
+		ConcurrentMap<JavaType, List<SchemaProperty>> propertiesByType = getPropertiesByType(config);
+		List<SchemaProperty> properties = propertiesByType.get(type);
+		if (properties == null) {
+			List<SchemaProperty> described = new ArrayList<SchemaProperty>();
+			new Describer(config, described).describeProperties("", type);
+			properties = Collections.unmodifiableList(described);
+			List<SchemaProperty> existing = propertiesByType.putIfAbsent(type, properties);
+			if (existing != null) {
+				properties = existing;
+			}
+		}
+		return properties;
+	}
+
+	private static ConcurrentMap<JavaType, List<SchemaProperty>> getPropertiesByType(
+			SerializationConfig config) {
+		synchronized (PROPERTIES_BY_CONFIG) {
+			ConcurrentMap<JavaType, List<SchemaProperty>> propertiesByType = PROPERTIES_BY_CONFIG
+					.get(config);
+			if (propertiesByType == null) {
+				propertiesByType = new ConcurrentHashMap<JavaType, List<SchemaProperty>>();
+				PROPERTIES_BY_CONFIG.put(config, propertiesByType);
+			}
+			return propertiesByType;
+		}
+	}
+
+	private static final class Describer {
+
+		private final SerializationConfig config;
+
+		private final List<SchemaProperty> properties;
+
+		private final Set<Class<?>> typesInProgress = new HashSet<Class<?>>();
+
+		private Describer(SerializationConfig config, List<SchemaProperty> properties) {
+			this.config = config;
+			this.properties = properties;
+		}
+
+		private void describeProperties(String prefix, JavaType type) {
+			if (!this.typesInProgress.add(type.getRawClass())) {
+				return;
+			}
+			BeanDescription description = this.config.introspect(type);
+			for (BeanPropertyDefinition property : description.findProperties()) {
+				AnnotatedMember accessor = property.getAccessor();
+				if (accessor == null) {
+					continue;
+				}
+				JavaType propertyType = accessor.getType(description
+						.bindingsForBeanType());
+				String name = prefix + property.getName();
+				// A primitive is always present in the serialized payload
+				this.properties.add(new SchemaProperty(name, typeName(propertyType),
+						null, property.isRequired()
+								|| propertyType.getRawClass().isPrimitive()));
+				describeNested(name, propertyType);
+			}
+			this.typesInProgress.remove(type.getRawClass());
+		}
+
+		private void describeNested(String name, JavaType type) {
+			if (type.isArrayType() || type.isCollectionLikeType()) {
+				JavaType elementType = type.getContentType();
+				if (elementType != null && "object".equals(typeName(elementType))) {
+					describeProperties(name + "[].", elementType);
+				}
+			}
+			else if (isBean(type)) {
+				describeProperties(name + ".", type);
+			}
+		}
+
+	}
+
+	private static String typeName(JavaType type) {
+		Class<?> rawClass = type.getRawClass();
+		if (rawClass == byte[].class) {
+			// Jackson writes binary data as a Base64 string
+			return "string";
+		}
+		if (type.isArrayType() || type.isCollectionLikeType()) {
+			return "array";
+		}
+		if (rawClass == boolean.class || rawClass == Boolean.class) {
+			return "boolean";
+		}
+		if (rawClass == byte.class || rawClass == short.class || rawClass == int.class
+				|| rawClass == long.class || Byte.class == rawClass
+				|| Short.class == rawClass || Integer.class == rawClass
+				|| Long.class == rawClass || rawClass == BigInteger.class
+				|| Date.class.isAssignableFrom(rawClass)
+				|| Calendar.class.isAssignableFrom(rawClass)) {
+			return "integer";
+		}
+		if (rawClass == float.class || rawClass == double.class
+				|| Number.class.isAssignableFrom(rawClass)) {
+			return "number";
+		}
+		if (CharSequence.class.isAssignableFrom(rawClass) || rawClass == char.class
+				|| rawClass == Character.class || rawClass.isEnum()
+				|| rawClass == UUID.class || rawClass == URI.class
+				|| rawClass == URL.class) {
+			return "string";
+		}
+		return "object";
+	}
+
+	private static boolean isBean(JavaType type) {
+		return "object".equals(typeName(type)) && !type.isMapLikeType()
+				&& !type.getRawClass().getName().startsWith("java.");
+	}
+
+}
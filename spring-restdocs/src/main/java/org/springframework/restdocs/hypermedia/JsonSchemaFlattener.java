@@ -0,0 +1,559 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.restdocs.hypermedia;
+
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.springframework.util.StringUtils;
+
+/**
+ * Flattens the properties of a JSON schema, including those of nested objects, of array
+ * {@code items} and of {@code $ref} targets, into a list of {@link SchemaProperty
+ * SchemaProperties} with dotted names. The properties of an array's items are named
+ * using {@code []}, for example {@code tags[].name}.
+ * <p>
+ * Nested properties and {@code $ref} targets are walked using a single explicit stack
+ * rather than recursion, so neither a deeply nested schema nor a long chain of
+ * references can overflow the call stack. A {@code $ref} that refers back to a schema
+ * that is already being flattened is not expanded again.
+ * <p>
+ * The flattened properties of each local {@code $ref} target are cached for the rest of
+ * the run in a bounded cache that is shared by every schema. Targets whose flattened
+ * property names are very long are not cached. The cache is keyed by a
+ * fingerprint of the target's content, including the content of the targets of the
+ * references that it contains, so schemas that share a definition only flatten it once
+ * while schemas whose definitions differ never share a result.
+ *
+ * @author Andy Wilkinson
+ */
+class JsonSchemaFlattener {
+
+	private static final int MAX_CACHED_REFS = 1024;
+
+	private static final int MAX_CACHED_NAME_LENGTH = 16 * 1024;
+
+	private static final Map<String, List<SchemaProperty>> FLATTENED_REFS = Collections
+			.synchronizedMap(new FlattenedRefCache());
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private static final Object END_OBJECT = new Object();
+
+	private static final Object END_ARRAY = new Object();
+
+	private static final Object NULL_VALUE = new Object();
+
+	private final Map<String, Object> schema;
+
+	private final Map<String, String> fingerprints = new HashMap<String, String>();
+
+	private final Set<String> refsInProgress = new HashSet<String>();
+
+	private final Deque<RefScope> scopes = new ArrayDeque<RefScope>();
+
+	JsonSchemaFlattener(Map<String, Object> schema) {
+		this.schema = schema;
+	}
+
+	/**
+	 * Returns the flattened properties of the schema, in the order in which they appear
+	 * in the schema with each nested property following its parent.
+	 *
+	 * @return the flattened properties
+	 */
+	List<SchemaProperty> flatten() {
+		List<SchemaProperty> properties = new ArrayList<SchemaProperty>();
+		Deque<Object> stack = new ArrayDeque<Object>();
+		descend("", this.schema, stack, properties);
+		while (!stack.isEmpty()) {
+			Object top = stack.peek();
+			if (top instanceof RefScope) {
+				stack.pop();
+				complete((RefScope) top, properties);
+				continue;
+			}
+			Frame frame = (Frame) top;
+			if (!frame.properties.hasNext()) {
+				stack.pop();
+				continue;
+			}
+			Entry<String, Object> entry = frame.properties.next();
+			if (!(entry.getValue() instanceof Map)) {
+				continue;
+			}
+			String path = join(frame.path, entry.getKey());
+			Map<String, Object> propertySchema = asMap(entry.getValue());
+			Map<String, Object> target = resolve(propertySchema);
+			SchemaProperty property = createProperty(path, propertySchema, target,
+					frame.required.contains(entry.getKey()));
+			if (property != null) {
+				properties.add(property);
+			}
+			descend(path, propertySchema, stack, properties);
+		}
+		return properties;
+	}
+
+	static void clearCache() {
+		FLATTENED_REFS.clear();
+	}
+
+	static int getCacheSize() {
+		return FLATTENED_REFS.size();
+	}
+
+	private void descend(String path, Map<String, Object> schema, Deque<Object> stack,
+			List<SchemaProperty> properties) {
+		Map<String, Object> current = schema;
+		String currentPath = path;
+		while (current != null) {
+			Object ref = current.get("$ref");
+			if (ref instanceof String) {
+				current = enterRef((String) ref, currentPath, stack, properties);
+			}
+			else if (current.get("properties") instanceof Map) {
+				stack.push(new Frame(currentPath, current));
+				current = null;
+			}
+			else if (current.get("items") instanceof Map) {
+				current = asMap(current.get("items"));
+				currentPath = currentPath + "[]";
+			}
+			else {
+				current = null;
+			}
+		}
+	}
+
+	/**
+	 * Enters the target of the given {@code ref}, either by adding its cached properties
+	 * or by pushing a scope that collects its properties onto the stack. Returns the
+	 * target if it should be descended into, otherwise {@code null}.
+	 */
+	private Map<String, Object> enterRef(String ref, String path, Deque<Object> stack,
+			List<SchemaProperty> properties) {
+		Map<String, Object> target = resolve(ref);
+		if (target == null) {
+			return null;
+		}
+		if (this.refsInProgress.contains(ref)) {
+			// What has been flattened so far depends on where the cycle was entered
+			for (RefScope scope : this.scopes) {
+				scope.cycleDetected = true;
+			}
+			return null;
+		}
+		String fingerprint = fingerprint(ref);
+		List<SchemaProperty> cached = FLATTENED_REFS.get(fingerprint);
+		if (cached != null) {
+			for (SchemaProperty property : cached) {
+				properties.add(new SchemaProperty(join(path, property.getName()),
+						property.getType(), property.getDescription(), property
+								.getRequired()));
+			}
+			return null;
+		}
+		RefScope scope = new RefScope(ref, fingerprint, path, properties.size());
+		this.refsInProgress.add(ref);
+		this.scopes.push(scope);
+		stack.push(scope);
+		return target;
+	}
+
+	private void complete(RefScope scope, List<SchemaProperty> properties) {
+		this.refsInProgress.remove(scope.ref);
+		this.scopes.pop();
+		if (scope.cycleDetected || !isCacheable(scope, properties)) {
+			return;
+		}
+		List<SchemaProperty> flattened = new ArrayList<SchemaProperty>(
+				properties.size() - scope.start);
+		for (SchemaProperty property : properties.subList(scope.start,
+				properties.size())) {
+			flattened.add(new SchemaProperty(relativize(scope.path, property.getName()),
+					property.getType(), property.getDescription(), property
+							.getRequired()));
+		}
+		FLATTENED_REFS.put(scope.fingerprint, Collections.unmodifiableList(flattened));
+	}
+
+	/**
+	 * Returns whether the properties collected by the given {@code scope} are small
+	 * enough to be cached. The names of the properties of a long chain of references
+	 * grow with its length, so caching every target in the chain would hold a quadratic
+	 * number of characters.
+	 */
+	private boolean isCacheable(RefScope scope, List<SchemaProperty> properties) {
+		long length = 0;
+		for (int i = scope.start; i < properties.size(); i++) {
+			length += properties.get(i).getName().length() - scope.path.length();
+			if (length > MAX_CACHED_NAME_LENGTH) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns a fingerprint of the content of the target of the given {@code ref}. Each
+	 * reference in the content contributes the fingerprint of its own target, so the
+	 * fingerprints of the targets that can be reached from a target are calculated
+	 * first, using an explicit stack. A reference back to a target whose fingerprint is
+	 * still being calculated contributes a marker instead. Such a target is part of a
+	 * cycle and its flattened properties are never cached.
+	 */
+	private String fingerprint(String ref) {
+		String fingerprint = this.fingerprints.get(ref);
+		if (fingerprint != null) {
+			return fingerprint;
+		}
+		Deque<RefNode> path = new ArrayDeque<RefNode>();
+		Set<String> onPath = new HashSet<String>();
+		path.push(new RefNode(ref, walk(resolve(ref), null, null)));
+		onPath.add(ref);
+		while (!path.isEmpty()) {
+			RefNode node = path.peek();
+			String next = node.nextPendingRef(onPath);
+			if (next != null) {
+				path.push(new RefNode(next, walk(resolve(next), null, null)));
+				onPath.add(next);
+				continue;
+			}
+			path.pop();
+			onPath.remove(node.ref);
+			MessageDigest digest = createDigest();
+			walk(resolve(node.ref), digest, onPath);
+			this.fingerprints.put(node.ref, toHex(digest.digest()));
+		}
+		return this.fingerprints.get(ref);
+	}
+
+	/**
+	 * Walks the given {@code content} using an explicit stack without following its
+	 * references. If a {@code digest} is provided the content is added to it, otherwise
+	 * the resolvable references that the content contains are returned.
+	 */
+	private List<String> walk(Map<String, Object> content, MessageDigest digest,
+			Set<String> onPath) {
+		List<String> refs = new ArrayList<String>();
+		Deque<Object> stack = new ArrayDeque<Object>();
+		stack.push(content);
+		while (!stack.isEmpty()) {
+			Object item = stack.pop();
+			if (item instanceof RefValue) {
+				String ref = ((RefValue) item).ref;
+				if (resolve(ref) == null) {
+					update(digest, "unresolved:" + ref);
+				}
+				else if (digest == null) {
+					refs.add(ref);
+				}
+				else if (onPath.contains(ref)) {
+					update(digest, "cycle:" + ref);
+				}
+				else {
+					update(digest, "ref:" + this.fingerprints.get(ref));
+				}
+			}
+			else if (item instanceof Map) {
+				update(digest, "{");
+				stack.push(END_OBJECT);
+				List<Entry<String, Object>> entries = new ArrayList<Entry<String, Object>>(
+						asMap(item).entrySet());
+				for (int i = entries.size() - 1; i >= 0; i--) {
+					Entry<String, Object> entry = entries.get(i);
+					boolean isRef = "$ref".equals(entry.getKey())
+							&& entry.getValue() instanceof String;
+					stack.push(isRef ? new RefValue((String) entry.getValue())
+							: valueOf(entry.getValue()));
+					stack.push(new Key(entry.getKey()));
+				}
+			}
+			else if (item instanceof List) {
+				update(digest, "[");
+				stack.push(END_ARRAY);
+				List<?> list = (List<?>) item;
+				for (int i = list.size() - 1; i >= 0; i--) {
+					stack.push(valueOf(list.get(i)));
+				}
+			}
+			else if (item == END_OBJECT) {
+				update(digest, "}");
+			}
+			else if (item == END_ARRAY) {
+				update(digest, "]");
+			}
+			else if (item == NULL_VALUE) {
+				update(digest, "null");
+			}
+			else if (item instanceof Key) {
+				update(digest, "\"" + ((Key) item).value);
+			}
+			else {
+				update(digest, item.getClass().getSimpleName() + ":" + item);
+			}
+		}
+		return refs;
+	}
+
+	private static Object valueOf(Object value) {
+		return value == null ? NULL_VALUE : value;
+	}
+
+	private static String toHex(byte[] bytes) {
+		StringBuilder hex = new StringBuilder();
+		for (byte b : bytes) {
+			hex.append(String.format("%02x", b & 0xff));
+		}
+		return hex.toString();
+	}
+
+	private static void update(MessageDigest digest, String value) {
+		if (digest == null) {
+			return;
+		}
+		byte[] bytes = value.getBytes(UTF_8);
+		// Prefix each value with its length so that consecutive values cannot run into
+		// each other
+		digest.update(new byte[] { (byte) (bytes.length >>> 24),
+				(byte) (bytes.length >>> 16), (byte) (bytes.length >>> 8),
+				(byte) bytes.length });
+		digest.update(bytes);
+	}
+
+	private static MessageDigest createDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		}
+		catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	private Map<String, Object> resolve(Map<String, Object> propertySchema) {
+		Object ref = propertySchema.get("$ref");
+		return ref instanceof String ? resolve((String) ref) : null;
+	}
+
+	private Map<String, Object> resolve(String ref) {
+		if (!ref.startsWith("#")) {
+			return null;
+		}
+		Object current = this.schema;
+		for (String token : StringUtils.tokenizeToStringArray(ref.substring(1), "/",
+				false, true)) {
+			String name = token.replace("~1", "/").replace("~0", "~");
+			if (current instanceof Map) {
+				current = ((Map<?, ?>) current).get(name);
+			}
+			else if (current instanceof List && isIndex(name)) {
+				List<?> list = (List<?>) current;
+				int index = Integer.parseInt(name);
+				current = index < list.size() ? list.get(index) : null;
+			}
+			else {
+				return null;
+			}
+		}
+		return current instanceof Map ? asMap(current) : null;
+	}
+
+	private SchemaProperty createProperty(String path, Map<String, Object> schema,
+			Map<String, Object> target, boolean requiredByParent) {
+		String type = getType(schema);
+		if (type == null && target != null) {
+			type = getType(target);
+		}
+		if (type == null) {
+			return null;
+		}
+		Object description = schema.get("description");
+		if (description == null && target != null) {
+			description = target.get("description");
+		}
+		boolean required = requiredByParent || Boolean.TRUE.equals(schema.get("required"));
+		return new SchemaProperty(path, type, description instanceof String ? (String) description
+				: null, required);
+	}
+
+	private static String getType(Map<String, Object> schema) {
+		Object type = schema.get("type");
+		if (type instanceof String) {
+			return (String) type;
+		}
+		if (type instanceof Collection) {
+			return StringUtils.collectionToDelimitedString((Collection<?>) type, ", ");
+		}
+		if (schema.get("properties") instanceof Map) {
+			return "object";
+		}
+		if (schema.get("items") instanceof Map) {
+			return "array";
+		}
+		return null;
+	}
+
+	private static String join(String path, String name) {
+		if (path.isEmpty() || name.startsWith("[]")) {
+			return path + name;
+		}
+		return path + "." + name;
+	}
+
+	private static String relativize(String path, String name) {
+		if (path.isEmpty()) {
+			return name;
+		}
+		String relative = name.substring(path.length());
+		return relative.startsWith(".") ? relative.substring(1) : relative;
+	}
+
+	private static boolean isIndex(String name) {
+		for (int i = 0; i < name.length(); i++) {
+			if (!Character.isDigit(name.charAt(i))) {
+				return false;
+			}
+		}
+		return !name.isEmpty() && name.length() < 10;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object> asMap(Object object) {
+		return (Map<String, Object>) object;
+	}
+
+	private static final class FlattenedRefCache extends
+			LinkedHashMap<String, List<SchemaProperty>> {
+
+		private static final long serialVersionUID = 1L;
+
+		private FlattenedRefCache() {
+			super(16, 0.75f, true);
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Entry<String, List<SchemaProperty>> eldest) {
+			return size() > MAX_CACHED_REFS;
+		}
+
+	}
+
+	/**
+	 * The properties of a {@code $ref} target that are being collected on the stack.
+	 */
+	private static final class RefScope {
+
+		private final String ref;
+
+		private final String fingerprint;
+
+		private final String path;
+
+		private final int start;
+
+		private boolean cycleDetected;
+
+		private RefScope(String ref, String fingerprint, String path, int start) {
+			this.ref = ref;
+			this.fingerprint = fingerprint;
+			this.path = path;
+			this.start = start;
+		}
+
+	}
+
+	/**
+	 * A reference whose fingerprint is being calculated.
+	 */
+	private final class RefNode {
+
+		private final String ref;
+
+		private final Iterator<String> refs;
+
+		private RefNode(String ref, List<String> refs) {
+			this.ref = ref;
+			this.refs = refs.iterator();
+		}
+
+		private String nextPendingRef(Set<String> onPath) {
+			while (this.refs.hasNext()) {
+				String next = this.refs.next();
+				if (!JsonSchemaFlattener.this.fingerprints.containsKey(next)
+						&& !onPath.contains(next)) {
+					return next;
+				}
+			}
+			return null;
+		}
+
+	}
+
+	private static final class RefValue {
+
+		private final String ref;
+
+		private RefValue(String ref) {
+			this.ref = ref;
+		}
+
+	}
+
+	private static final class Key {
+
+		private final String value;
+
+		private Key(String value) {
+			this.value = value;
+		}
+
+	}
+
+	private static final class Frame {
+
+		private final String path;
+
+		private final Iterator<Entry<String, Object>> properties;
+
+		private final Set<Object> required;
+
+		private Frame(String path, Map<String, Object> schema) {
+			this.path = path;
+			this.properties = asMap(schema.get("properties")).entrySet().iterator();
+			Object required = schema.get("required");
+			this.required = required instanceof Collection ? new HashSet<Object>(
+					(Collection<?>) required) : Collections.emptySet();
+		}
+
+	}
+
+}
@@ -0,0 +1,390 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.restdocs.hypermedia;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.util.StringUtils;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Validates JSON content against a JSON schema. The schema is compiled once into a graph
+ * of nodes and the content is then validated as a stream of tokens, without building a
+ * tree. Compiled validators are cached for the rest of the run, keyed by the schema's
+ * source. Instances are immutable and thread-safe.
+ * <p>
+ * The {@code type}, {@code properties}, {@code required}, {@code additionalProperties},
+ * {@code items}, {@code enum} and local {@code $ref} keywords are supported. Java type
+ * names, such as {@code long} and {@code double}, are accepted as types in addition to
+ * the standard JSON schema types. Other keywords are ignored.
+ *
+ * @author Andy Wilkinson
+ */
+final class JsonSchemaValidator {
+
+	private static final int MAX_ERRORS = 100;
+
+	private static final int MAX_DEPTH = 1000;
+
+	private static final ConcurrentMap<String, JsonSchemaValidator> VALIDATORS = new ConcurrentHashMap<String, JsonSchemaValidator>();
+
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+	private static final Map<String, String> TYPE_ALIASES;
+
+	static {
+		Map<String, String> aliases = new HashMap<String, String>();
+		for (String integer : Arrays.asList("int", "long", "short", "byte", "biginteger")) {
+			aliases.put(integer, "integer");
+		}
+		for (String number : Arrays.asList("float", "double", "decimal", "bigdecimal")) {
+			aliases.put(number, "number");
+		}
+		aliases.put("char", "string");
+		TYPE_ALIASES = aliases;
+	}
+
+	private final Node root;
+
+	private JsonSchemaValidator(Map<String, Object> schema) {
+		this.root = new Compiler(schema).compile(schema);
+	}
+
+	/**
+	 * Returns the validator for the given {@code schema}, compiling it if it has not been
+	 * compiled before.
+	 *
+	 * @param schema the JSON schema
+	 * @return the validator
+	 * @throws IOException if the schema cannot be read
+	 */
+	@SuppressWarnings("unchecked")
+	static JsonSchemaValidator forSchema(String schema) throws IOException {
+		JsonSchemaValidator validator = VALIDATORS.get(schema);
+		if (validator == null) {
+			validator = new JsonSchemaValidator(new ObjectMapper().readValue(schema,
+					LinkedHashMap.class));
+			JsonSchemaValidator existing = VALIDATORS.putIfAbsent(schema, validator);
+			if (existing != null) {
+				validator = existing;
+			}
+		}
+		return validator;
+	}
+
+	/**
+	 * Validates the given JSON {@code content}, returning a description of each problem
+	 * that was found. At most 100 problems are returned.
+	 *
+	 * @param content the content to validate
+	 * @return the problems, or an empty list if the content is valid
+	 * @throws IOException if the content cannot be parsed
+	 */
+	List<String> validate(String content) throws IOException {
+		List<String> errors = new ArrayList<String>();
+		JsonParser parser = JSON_FACTORY.createParser(content);
+		try {
+			if (parser.nextToken() == null) {
+				errors.add("$: no content");
+			}
+			else {
+				validate(parser, this.root, "$", errors, 0);
+			}
+		}
+		finally {
+			parser.close();
+		}
+		return errors;
+	}
+
+	private void validate(JsonParser parser, Node node, String path, List<String> errors,
+			int depth) throws IOException {
+		if (depth > MAX_DEPTH) {
+			throw new IOException("Content is nested too deeply");
+		}
+		Node schema = node == null ? null : node.resolve();
+		JsonToken token = parser.getCurrentToken();
+		if (schema == null) {
+			parser.skipChildren();
+			return;
+		}
+		if (!schema.types.isEmpty() && !matchesType(token, schema.types)) {
+			addError(errors, path + ": expected " + schema.types + " but found "
+					+ describe(token));
+			parser.skipChildren();
+			return;
+		}
+		if (schema.enumValues != null && token.isScalarValue()
+				&& !schema.enumValues.contains(enumKey(token, parser.getText()))) {
+			addError(errors, path + ": " + parser.getText()
+					+ " is not one of the allowed values");
+		}
+		if (token == JsonToken.START_OBJECT) {
+			validateObject(parser, schema, path, errors, depth);
+		}
+		else if (token == JsonToken.START_ARRAY) {
+			int index = 0;
+			while (parser.nextToken() != JsonToken.END_ARRAY) {
+				validate(parser, schema.items, path + "[" + index++ + "]", errors,
+						depth + 1);
+			}
+		}
+	}
+
+	private void validateObject(JsonParser parser, Node schema, String path,
+			List<String> errors, int depth) throws IOException {
+		Set<String> missing = schema.required.isEmpty() ? Collections.<String> emptySet()
+				: new HashSet<String>(schema.required);
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String name = parser.getCurrentName();
+			parser.nextToken();
+			missing.remove(name);
+			Node property = schema.properties.get(name);
+			if (property == null && !schema.additionalProperties) {
+				addError(errors, path + "." + name + ": is not allowed");
+			}
+			validate(parser, property, path + "." + name, errors, depth + 1);
+		}
+		for (String name : schema.required) {
+			if (missing.contains(name)) {
+				addError(errors, path + "." + name + ": is required");
+			}
+		}
+	}
+
+	private static boolean matchesType(JsonToken token, Set<String> types) {
+		switch (token) {
+		case START_OBJECT:
+			return types.contains("object");
+		case START_ARRAY:
+			return types.contains("array");
+		case VALUE_STRING:
+			return types.contains("string");
+		case VALUE_NUMBER_INT:
+			return types.contains("integer") || types.contains("number");
+		case VALUE_NUMBER_FLOAT:
+			return types.contains("number");
+		case VALUE_TRUE:
+		case VALUE_FALSE:
+			return types.contains("boolean");
+		case VALUE_NULL:
+			return types.contains("null");
+		default:
+			return true;
+		}
+	}
+
+	private static String describe(JsonToken token) {
+		switch (token) {
+		case START_OBJECT:
+			return "object";
+		case START_ARRAY:
+			return "array";
+		case VALUE_STRING:
+			return "string";
+		case VALUE_NUMBER_INT:
+			return "integer";
+		case VALUE_NUMBER_FLOAT:
+			return "number";
+		case VALUE_TRUE:
+		case VALUE_FALSE:
+			return "boolean";
+		default:
+			return "null";
+		}
+	}
+
+	private static String enumKey(JsonToken token, String text) {
+		return (token == JsonToken.VALUE_STRING ? "s:" : "v:") + text;
+	}
+
+	private static void addError(List<String> errors, String error) {
+		if (errors.size() < MAX_ERRORS) {
+			errors.add(error);
+		}
+	}
+
+	/**
+	 * A compiled schema. A node for a {@code $ref} delegates to the node of its target.
+	 */
+	private static final class Node {
+
+		private Set<String> types = Collections.emptySet();
+
+		private Map<String, Node> properties = Collections.emptyMap();
+
+		private List<String> required = Collections.emptyList();
+
+		private boolean additionalProperties = true;
+
+		private Node items;
+
+		private Set<String> enumValues;
+
+		private Node ref;
+
+		private Node resolve() {
+			Node node = this;
+			// Bounded so that a chain of references that loops does not hang
+			for (int i = 0; node.ref != null && i < MAX_DEPTH; i++) {
+				node = node.ref;
+			}
+			return node.ref == null ? node : null;
+		}
+
+	}
+
+	private static final class Compiler {
+
+		private final Map<String, Object> schema;
+
+		private final Map<Object, Node> compiled = new IdentityHashMap<Object, Node>();
+
+		private Compiler(Map<String, Object> schema) {
+			this.schema = schema;
+		}
+
+		@SuppressWarnings("unchecked")
+		private Node compile(Map<String, Object> source) {
+			Node node = this.compiled.get(source);
+			if (node != null) {
+				return node;
+			}
+			node = new Node();
+			this.compiled.put(source, node);
+			Object ref = source.get("$ref");
+			if (ref instanceof String) {
+				Map<String, Object> target = resolve((String) ref);
+				if (target != null) {
+					node.ref = compile(target);
+				}
+				return node;
+			}
+			node.types = compileTypes(source.get("type"));
+			if (source.get("properties") instanceof Map) {
+				Map<String, Node> properties = new HashMap<String, Node>();
+				for (Entry<String, Object> entry : ((Map<String, Object>) source
+						.get("properties")).entrySet()) {
+					if (entry.getValue() instanceof Map) {
+						properties.put(entry.getKey(),
+								compile((Map<String, Object>) entry.getValue()));
+					}
+				}
+				node.properties = properties;
+				node.required = compileRequired(source, properties);
+			}
+			node.additionalProperties = !Boolean.FALSE.equals(source
+					.get("additionalProperties"));
+			if (source.get("items") instanceof Map) {
+				node.items = compile((Map<String, Object>) source.get("items"));
+			}
+			if (source.get("enum") instanceof Collection) {
+				Set<String> enumValues = new HashSet<String>();
+				for (Object value : (Collection<Object>) source.get("enum")) {
+					enumValues.add((value instanceof String ? "s:" : "v:") + value);
+				}
+				node.enumValues = enumValues;
+			}
+			return node;
+		}
+
+		@SuppressWarnings("unchecked")
+		private List<String> compileRequired(Map<String, Object> source,
+				Map<String, Node> properties) {
+			List<String> required = new ArrayList<String>();
+			if (source.get("required") instanceof Collection) {
+				for (Object name : (Collection<Object>) source.get("required")) {
+					required.add(String.valueOf(name));
+				}
+			}
+			for (Entry<String, Object> entry : ((Map<String, Object>) source
+					.get("properties")).entrySet()) {
+				if (entry.getValue() instanceof Map
+						&& Boolean.TRUE.equals(((Map<String, Object>) entry.getValue())
+								.get("required")) && !required.contains(entry.getKey())) {
+					required.add(entry.getKey());
+				}
+			}
+			return required;
+		}
+
+		private Set<String> compileTypes(Object type) {
+			Set<String> types = new HashSet<String>();
+			if (type instanceof String) {
+				addType((String) type, types);
+			}
+			else if (type instanceof Collection) {
+				for (Object element : (Collection<?>) type) {
+					addType(String.valueOf(element), types);
+				}
+			}
+			// An unrecognized type places no constraint on the value
+			return types.contains(null) ? Collections.<String> emptySet() : types;
+		}
+
+		private void addType(String type, Set<String> types) {
+			String name = type.toLowerCase();
+			if (TYPE_ALIASES.containsKey(name)) {
+				name = TYPE_ALIASES.get(name);
+			}
+			if (Arrays.asList("object", "array", "string", "integer", "number",
+					"boolean", "null").contains(name)) {
+				types.add(name);
+			}
+			else {
+				types.add(null);
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		private Map<String, Object> resolve(String ref) {
+			if (!ref.startsWith("#")) {
+				return null;
+			}
+			Object current = this.schema;
+			for (String token : StringUtils.tokenizeToStringArray(ref.substring(1),
+					"/", false, true)) {
+				if (!(current instanceof Map)) {
+					return null;
+				}
+				current = ((Map<String, Object>) current).get(token.replace("~1", "/")
+						.replace("~0", "~"));
+			}
+			return current instanceof Map ? (Map<String, Object>) current : null;
+		}
+
+	}
+
+}
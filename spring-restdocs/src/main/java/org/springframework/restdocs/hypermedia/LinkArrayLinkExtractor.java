@@ -0,0 +1,48 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.restdocs.hypermedia;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * A {@link LinkExtractor} for formats, such as Atom and Collection+JSON, that hold
+ * their links in an array of objects each with a {@code rel} and an {@code href}.
+ *
+ * @author Andy Wilkinson
+ */
+class LinkArrayLinkExtractor extends StreamingJsonLinkExtractor {
+
+	private final String[] path;
+
+	LinkArrayLinkExtractor(String... path) {
+		this.path = path;
+	}
+
+	@Override
+	protected void extractLinks(JsonParser parser, Map<String, List<Link>> extractedLinks)
+			throws IOException {
+		if (nextValueAt(parser, this.path) == JsonToken.START_ARRAY) {
+			readLinkArray(parser, extractedLinks);
+		}
+	}
+
+}
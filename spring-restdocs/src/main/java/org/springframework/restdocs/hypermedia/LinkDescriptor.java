@@ -29,10 +29,18 @@ public class LinkDescriptor {
 
 	private String description;
 
+	private boolean optional;
+
 	LinkDescriptor(String rel) {
 		this.rel = rel;
 	}
 
+	LinkDescriptor(LinkDescriptor descriptor) {
+		this.rel = descriptor.rel;
+		this.description = descriptor.description;
+		this.optional = descriptor.optional;
+	}
+
 	/**
 	 * Specifies the description of the link
 	 * 
@@ -44,6 +52,17 @@ public class LinkDescriptor {
 		return this;
 	}
 
+	/**
+	 * Marks the link as optional. An optional link does not have to be present in the
+	 * response.
+	 * 
+	 * @return {@code this}
+	 */
+	public LinkDescriptor optional() {
+		this.optional = true;
+		return this;
+	}
+
 	String getRel() {
 		return this.rel;
 	}
@@ -51,4 +70,8 @@ public class LinkDescriptor {
 	String getDescription() {
 		return this.description;
 	}
+
+	boolean isOptional() {
+		return this.optional;
+	}
 }
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.restdocs.hypermedia;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.util.Assert;
+
+/**
+ * An immutable set of {@link LinkDescriptor LinkDescriptors}. The descriptors are
+ * validated and indexed when the set is created so a set that is used to document many
+ * responses, for example by holding it in a constant that is shared by several tests,
+ * incurs no further setup cost per response. A set cannot contain two descriptors with
+ * the same rel. A rel pattern can be combined with descriptors for more specific rels
+ * that it matches, in which case a link with such a rel is described by the more
+ * specific descriptor rather than by the pattern. Instances are thread-safe.
+ * 
+ * @author Andy Wilkinson
+ * @see HypermediaDocumentation#linkDescriptors(LinkDescriptor...)
+ */
+public final class LinkDescriptors {
+
+	private final List<LinkDescriptor> descriptors;
+
+	private final Map<String, LinkDescriptor> descriptorsByRel = new LinkedHashMap<String, LinkDescriptor>();
+
+	private final List<LinkDescriptor> patternDescriptors = new ArrayList<LinkDescriptor>();
+
+	private final RelPatternMatcher relPatternMatcher;
+
+	LinkDescriptors(List<LinkDescriptor> descriptors) {
+		List<LinkDescriptor> copies = new ArrayList<LinkDescriptor>();
+		List<String> relPatterns = new ArrayList<String>();
+		for (LinkDescriptor descriptor : descriptors) {
+			Assert.hasText(descriptor.getRel());
+			Assert.hasText(descriptor.getDescription());
+			// Copy the descriptor so that later changes to it have no effect
+			LinkDescriptor copy = new LinkDescriptor(descriptor);
+			copies.add(copy);
+			if (RelPatternMatcher.isPattern(copy.getRel())) {
+				this.patternDescriptors.add(copy);
+				relPatterns.add(copy.getRel());
+			}
+			else {
+				Assert.isTrue(!this.descriptorsByRel.containsKey(copy.getRel()),
+						"A link with the rel '" + copy.getRel()
+								+ "' has already been described");
+				this.descriptorsByRel.put(copy.getRel(), copy);
+			}
+		}
+		this.descriptors = Collections.unmodifiableList(copies);
+		this.relPatternMatcher = new RelPatternMatcher(relPatterns);
+	}
+
+	/**
+	 * Returns a new {@code LinkDescriptors} that contains the descriptors in this set
+	 * followed by the given extra {@code descriptors}. This set is unchanged.
+	 * 
+	 * @param descriptors the extra descriptors
+	 * @return the new descriptor set
+	 */
+	public LinkDescriptors and(LinkDescriptor... descriptors) {
+		List<LinkDescriptor> combined = new ArrayList<LinkDescriptor>(this.descriptors);
+		combined.addAll(Arrays.asList(descriptors));
+		return new LinkDescriptors(combined);
+	}
+
+	List<LinkDescriptor> getDescriptors() {
+		return this.descriptors;
+	}
+
+	/**
+	 * Verifies that the given {@code rels}, found in a response, are all described by
+	 * this set and that every link in this set that is not optional is present.
+	 * 
+	 * @param rels the rels found in the response
+	 * @return a description of the problems that were found, or {@code null} if there
+	 * were none
+	 */
+	String verify(Set<String> rels) {
+		Set<String> undocumentedRels = new LinkedHashSet<String>();
+		BitSet matchedPatterns = new BitSet(this.patternDescriptors.size());
+		for (String rel : rels) {
+			// A rel that is described on its own takes precedence over the patterns
+			if (this.descriptorsByRel.containsKey(rel)) {
+				continue;
+			}
+			BitSet matches = this.relPatternMatcher.match(rel);
+			matchedPatterns.or(matches);
+			if (matches.isEmpty()) {
+				undocumentedRels.add(rel);
+			}
+		}
+
+		Set<String> missingRels = new LinkedHashSet<String>();
+		for (LinkDescriptor descriptor : this.descriptorsByRel.values()) {
+			if (!descriptor.isOptional() && !rels.contains(descriptor.getRel())) {
+				missingRels.add(descriptor.getRel());
+			}
+		}
+		for (int i = 0; i < this.patternDescriptors.size(); i++) {
+			LinkDescriptor descriptor = this.patternDescriptors.get(i);
+			if (!descriptor.isOptional() && !matchedPatterns.get(i)) {
+				missingRels.add(descriptor.getRel());
+			}
+		}
+
+		if (!undocumentedRels.isEmpty() || !missingRels.isEmpty()) {
+			String message = "";
+			if (!undocumentedRels.isEmpty()) {
+				message += "Links with the following relations were not documented: "
+						+ undocumentedRels;
+			}
+			if (!missingRels.isEmpty()) {
+				message += "Links with the following relations were not found in the response: "
+						+ missingRels;
+			}
+			return message;
+		}
+		return null;
+	}
+
+}
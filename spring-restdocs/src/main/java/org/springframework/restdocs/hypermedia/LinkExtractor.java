@@ -23,8 +23,9 @@ import java.util.Map;
 import org.springframework.mock.web.MockHttpServletResponse;
 
 /**
- * A {@code LinkExtractor} is used to extract {@link Link links} from a JSON response. The
- * expected format of the links in the response is determined by the implementation.
+ * A {@code LinkExtractor} is used to extract {@link Link links} from a response. Where
+ * the links are found in the response, and their expected format, is determined by the
+ * implementation.
  *
  * @author Andy Wilkinson
  *
@@ -18,16 +18,19 @@ package org.springframework.restdocs.hypermedia;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockHttpServletResponse;
-
-import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
 
 /**
  * Static factory methods providing a selection of {@link LinkExtractor link extractors}
@@ -37,6 +40,19 @@ import com.fasterxml.jackson.databind.ObjectMapper;
  */
 public abstract class LinkExtractors {
 
+	private static final Map<MediaType, LinkExtractor> EXTRACTORS_BY_MEDIA_TYPE;
+
+	static {
+		Map<MediaType, LinkExtractor> extractors = new HashMap<MediaType, LinkExtractor>();
+		extractors.put(MediaType.APPLICATION_JSON, atomLinks());
+		extractors.put(MediaType.valueOf("application/hal+json"), halLinks());
+		extractors.put(MediaType.valueOf("application/vnd.siren+json"), sirenLinks());
+		extractors.put(MediaType.valueOf("application/vnd.api+json"), jsonApiLinks());
+		extractors.put(MediaType.valueOf("application/vnd.collection+json"),
+				collectionJsonLinks());
+		EXTRACTORS_BY_MEDIA_TYPE = extractors;
+	}
+
 	private LinkExtractors() {
 
 	}
@@ -49,7 +65,30 @@ public abstract class LinkExtractors {
 	 * @return The extract for HAL-style links
 	 */
 	public static LinkExtractor halLinks() {
-		return new HalLinkExtractor();
+		return new HalLinkExtractor(0, 0);
+	}
+
+	/**
+	 * Returns a {@code LinkExtractor} capable of extracting links in Hypermedia
+	 * Application Language (HAL) format from a resource's {@code _links} map and from the
+	 * {@code _links} of the resources in its {@code _embedded} map. The rel of an
+	 * embedded resource's link is prefixed with the name of its embedded relation and a
+	 * {@code .}, for example {@code notes.self}. The links of all of the resources in an
+	 * embedded relation are aggregated beneath the same rels.
+	 * <p>
+	 * The content is read as a stream. Embedded resources that are nested more than
+	 * {@code maxEmbeddedDepth} levels deep, and the items in an embedded array beyond the
+	 * first {@code maxEmbeddedItems}, are skipped without being read into memory.
+	 *
+	 * @param maxEmbeddedDepth The maximum depth of embedded resources to traverse
+	 * @param maxEmbeddedItems The maximum number of resources to read from each embedded
+	 * array
+	 * @return The extractor for HAL-style links, including those of embedded resources
+	 */
+	public static LinkExtractor halLinks(int maxEmbeddedDepth, int maxEmbeddedItems) {
+		Assert.isTrue(maxEmbeddedDepth >= 0, "maxEmbeddedDepth must not be negative");
+		Assert.isTrue(maxEmbeddedItems >= 0, "maxEmbeddedItems must not be negative");
+		return new HalLinkExtractor(maxEmbeddedDepth, maxEmbeddedItems);
 	}
 
 	/**
@@ -59,125 +98,290 @@ public abstract class LinkExtractors {
 	 * @return The extractor for Atom-style links
 	 */
 	public static LinkExtractor atomLinks() {
-		return new AtomLinkExtractor();
+		return new LinkArrayLinkExtractor("links");
+	}
+
+	/**
+	 * Returns a {@code LinkExtractor} capable of extracting links in Siren format where
+	 * the links are found in an array named {@code links} and each link has an array of
+	 * rels. Sub-entities that are embedded links are extracted too.
+	 *
+	 * @return The extractor for Siren links
+	 */
+	public static LinkExtractor sirenLinks() {
+		return new SirenLinkExtractor();
+	}
+
+	/**
+	 * Returns a {@code LinkExtractor} capable of extracting links in JSON API format where
+	 * the links are found in a top-level map named {@code links}.
+	 *
+	 * @return The extractor for JSON API links
+	 */
+	public static LinkExtractor jsonApiLinks() {
+		return new LinkMapLinkExtractor("links");
+	}
+
+	/**
+	 * Returns a {@code LinkExtractor} capable of extracting links in Collection+JSON
+	 * format where the links are found in an array named {@code links} in the
+	 * {@code collection} object.
+	 *
+	 * @return The extractor for Collection+JSON links
+	 */
+	public static LinkExtractor collectionJsonLinks() {
+		return new LinkArrayLinkExtractor("collection", "links");
+	}
+
+	/**
+	 * Returns a {@code LinkExtractor} capable of extracting links from the response's
+	 * {@code Link} headers as described in RFC 5988. A link with several space-separated
+	 * relation types in its {@code rel} parameter is extracted once for each relation
+	 * type.
+	 *
+	 * @return The extractor for {@code Link} headers
+	 */
+	public static LinkExtractor linkHeaders() {
+		return new LinkHeaderLinkExtractor();
+	}
+
+	/**
+	 * Returns a {@code LinkExtractor} that combines the links extracted by each of the
+	 * given {@code extractors}. Links with the same rel that are found by more than one
+	 * extractor are all included.
+	 *
+	 * @param extractors The extractors to combine
+	 * @return The combined extractor
+	 */
+	public static LinkExtractor combined(LinkExtractor... extractors) {
+		return new CompositeLinkExtractor(Arrays.asList(extractors));
 	}
 
 	/**
 	 * Returns the {@code LinkExtractor} for the given {@code contentType} or {@code null}
-	 * if there is no extractor for the content type.
+	 * if there is no extractor for the content type. Extractors are available for
+	 * {@code application/json} (Atom-style links), {@code application/hal+json},
+	 * {@code application/vnd.siren+json}, {@code application/vnd.api+json} and
+	 * {@code application/vnd.collection+json}. Any parameters of the content type, such
+	 * as its charset, are ignored.
 	 * 
 	 * @param contentType The content type
 	 * @return The extractor for the content type, or {@code null}
 	 */
 	public static LinkExtractor extractorForContentType(String contentType) {
-		if (MediaType.APPLICATION_JSON_VALUE.equals(contentType)) {
-			return atomLinks();
+		if (!StringUtils.hasText(contentType)) {
+			return null;
 		}
-		else if ("application/hal+json".equals(contentType)) {
-			return halLinks();
+		MediaType mediaType;
+		try {
+			mediaType = MediaType.parseMediaType(contentType);
 		}
-		return null;
+		catch (InvalidMediaTypeException ex) {
+			return null;
+		}
+		return EXTRACTORS_BY_MEDIA_TYPE.get(new MediaType(mediaType.getType(),
+				mediaType.getSubtype()));
 	}
 
-	private abstract static class JsonContentLinkExtractor implements LinkExtractor {
-
-		private final ObjectMapper objectMapper = new ObjectMapper();
+	private static class LinkHeaderLinkExtractor implements LinkExtractor {
 
 		@Override
-		@SuppressWarnings("unchecked")
 		public Map<String, List<Link>> extractLinks(MockHttpServletResponse response)
 				throws IOException {
-			Map<String, Object> jsonContent = this.objectMapper.readValue(
-					response.getContentAsString(), Map.class);
-			return extractLinks(jsonContent);
+			Map<String, List<Link>> extractedLinks = new LinkedHashMap<String, List<Link>>();
+			for (String header : response.getHeaders(HttpHeaders.LINK)) {
+				new LinkHeaderTokenizer(header).extractLinks(extractedLinks);
+			}
+			return extractedLinks;
 		}
 
-		protected abstract Map<String, List<Link>> extractLinks(Map<String, Object> json);
 	}
 
-	@SuppressWarnings("unchecked")
-	private static class HalLinkExtractor extends JsonContentLinkExtractor {
+	/**
+	 * Tokenizes a single {@code Link} header value of the form
+	 * {@code <uri>; rel="a b"; title="t", <uri>; rel=c}. Malformed link values are
+	 * skipped up to the next top-level comma.
+	 */
+	private static final class LinkHeaderTokenizer {
 
-		@Override
-		public Map<String, List<Link>> extractLinks(Map<String, Object> json) {
-			Map<String, List<Link>> extractedLinks = new HashMap<>();
-			Object possibleLinks = json.get("_links");
-			if (possibleLinks instanceof Map) {
-				Map<String, Object> links = (Map<String, Object>) possibleLinks;
-				for (Entry<String, Object> entry : links.entrySet()) {
-					String rel = entry.getKey();
-					extractedLinks.put(rel, convertToLinks(entry.getValue(), rel));
+		private final String header;
+
+		private int position;
+
+		private LinkHeaderTokenizer(String header) {
+			this.header = header;
+		}
+
+		private void extractLinks(Map<String, List<Link>> extractedLinks) {
+			while (skipWhitespaceAndCommas()) {
+				if (this.header.charAt(this.position) != '<') {
+					skipToNextLinkValue();
+					continue;
+				}
+				int end = this.header.indexOf('>', this.position + 1);
+				if (end == -1) {
+					return;
+				}
+				String href = this.header.substring(this.position + 1, end).trim();
+				this.position = end + 1;
+				String rels = readRelParameter();
+				if (rels != null) {
+					storeLinks(href, rels, extractedLinks);
 				}
 			}
-			return extractedLinks;
 		}
 
-		private static List<Link> convertToLinks(Object object, String rel) {
-			List<Link> links = new ArrayList<>();
-			if (object instanceof Collection) {
-				Collection<Object> hrefObjects = (Collection<Object>) object;
-				for (Object hrefObject : hrefObjects) {
-					maybeAddLink(maybeCreateLink(rel, hrefObject), links);
+		private String readRelParameter() {
+			String rels = null;
+			while (true) {
+				skipWhitespace();
+				if (atEnd() || this.header.charAt(this.position) != ';') {
+					skipToNextLinkValue();
+					return rels;
+				}
+				this.position++;
+				skipWhitespace();
+				String name = readToken();
+				skipWhitespace();
+				String value = null;
+				if (!atEnd() && this.header.charAt(this.position) == '=') {
+					this.position++;
+					skipWhitespace();
+					value = readValue();
+				}
+				// Only the first rel parameter is significant (RFC 5988 section 5.3)
+				if (rels == null && value != null && "rel".equalsIgnoreCase(name)) {
+					rels = value;
 				}
 			}
-			else {
-				maybeAddLink(maybeCreateLink(rel, object), links);
+		}
+
+		private String readToken() {
+			int start = this.position;
+			while (!atEnd() && !isDelimiter(this.header.charAt(this.position))) {
+				this.position++;
 			}
-			return links;
+			return this.header.substring(start, this.position);
 		}
 
-		private static Link maybeCreateLink(String rel, Object possibleHref) {
-			if (possibleHref instanceof String) {
-				return new Link(rel, (String) possibleHref);
+		private String readValue() {
+			if (atEnd() || this.header.charAt(this.position) != '"') {
+				return readToken();
+			}
+			this.position++;
+			StringBuilder value = new StringBuilder();
+			while (!atEnd()) {
+				char c = this.header.charAt(this.position++);
+				if (c == '"') {
+					break;
+				}
+				if (c == '\\' && !atEnd()) {
+					c = this.header.charAt(this.position++);
+				}
+				value.append(c);
+			}
+			return value.toString();
+		}
+
+		private void storeLinks(String href, String rels,
+				Map<String, List<Link>> extractedLinks) {
+			int start = -1;
+			for (int i = 0; i <= rels.length(); i++) {
+				boolean whitespace = i == rels.length()
+						|| Character.isWhitespace(rels.charAt(i));
+				if (whitespace && start != -1) {
+					maybeStoreLink(new Link(rels.substring(start, i), href),
+							extractedLinks);
+					start = -1;
+				}
+				else if (!whitespace && start == -1) {
+					start = i;
+				}
+			}
+		}
+
+		private boolean skipWhitespaceAndCommas() {
+			while (!atEnd()) {
+				char c = this.header.charAt(this.position);
+				if (c != ',' && !Character.isWhitespace(c)) {
+					return true;
+				}
+				this.position++;
+			}
+			return false;
+		}
+
+		private void skipWhitespace() {
+			while (!atEnd() && Character.isWhitespace(this.header.charAt(this.position))) {
+				this.position++;
 			}
-			return null;
 		}
 
-		private static void maybeAddLink(Link possibleLink, List<Link> links) {
-			if (possibleLink != null) {
-				links.add(possibleLink);
+		private void skipToNextLinkValue() {
+			boolean quoted = false;
+			while (!atEnd()) {
+				char c = this.header.charAt(this.position);
+				if (quoted && c == '\\') {
+					this.position++;
+				}
+				else if (c == '"') {
+					quoted = !quoted;
+				}
+				else if (c == ',' && !quoted) {
+					return;
+				}
+				this.position++;
 			}
 		}
+
+		private boolean atEnd() {
+			return this.position >= this.header.length();
+		}
+
+		private static boolean isDelimiter(char c) {
+			return c == ';' || c == ',' || c == '=' || Character.isWhitespace(c);
+		}
+
 	}
 
-	@SuppressWarnings("unchecked")
-	private static class AtomLinkExtractor extends JsonContentLinkExtractor {
+	private static class CompositeLinkExtractor implements LinkExtractor {
+
+		private final List<LinkExtractor> extractors;
+
+		private CompositeLinkExtractor(List<LinkExtractor> extractors) {
+			this.extractors = extractors;
+		}
 
 		@Override
-		public Map<String, List<Link>> extractLinks(Map<String, Object> json) {
-			Map<String, List<Link>> extractedLinks = new HashMap<>();
-			Object possibleLinks = json.get("links");
-			if (possibleLinks instanceof Collection) {
-				Collection<Object> linksCollection = (Collection<Object>) possibleLinks;
-				for (Object linkObject : linksCollection) {
-					if (linkObject instanceof Map) {
-						Link link = maybeCreateLink((Map<String, Object>) linkObject);
-						maybeStoreLink(link, extractedLinks);
+		public Map<String, List<Link>> extractLinks(MockHttpServletResponse response)
+				throws IOException {
+			Map<String, List<Link>> combinedLinks = new LinkedHashMap<String, List<Link>>();
+			for (LinkExtractor extractor : this.extractors) {
+				for (Entry<String, List<Link>> entry : extractor.extractLinks(response)
+						.entrySet()) {
+					List<Link> linksForRel = combinedLinks.get(entry.getKey());
+					if (linksForRel == null) {
+						combinedLinks.put(entry.getKey(),
+								new ArrayList<Link>(entry.getValue()));
+					}
+					else {
+						linksForRel.addAll(entry.getValue());
 					}
 				}
 			}
-			return extractedLinks;
+			return combinedLinks;
 		}
 
-		private static Link maybeCreateLink(Map<String, Object> linkMap) {
-			Object hrefObject = linkMap.get("href");
-			Object relObject = linkMap.get("rel");
-			if (relObject instanceof String && hrefObject instanceof String) {
-				return new Link((String) relObject, (String) hrefObject);
-			}
-			return null;
-		}
+	}
 
-		private static void maybeStoreLink(Link link,
-				Map<String, List<Link>> extractedLinks) {
-			if (link != null) {
-				List<Link> linksForRel = extractedLinks.get(link.getRel());
-				if (linksForRel == null) {
-					linksForRel = new ArrayList<Link>();
-					extractedLinks.put(link.getRel(), linksForRel);
-				}
-				linksForRel.add(link);
+	private static void maybeStoreLink(Link link, Map<String, List<Link>> extractedLinks) {
+		if (link != null) {
+			List<Link> linksForRel = extractedLinks.get(link.getRel());
+			if (linksForRel == null) {
+				linksForRel = new ArrayList<Link>();
+				extractedLinks.put(link.getRel(), linksForRel);
 			}
+			linksForRel.add(link);
 		}
 	}
 }
@@ -16,100 +16,81 @@
 
 package org.springframework.restdocs.hypermedia;
 
-import static org.junit.Assert.fail;
-
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Set;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.restdocs.snippet.DocumentationWriter;
 import org.springframework.restdocs.snippet.SnippetWritingResultHandler;
 import org.springframework.test.web.servlet.MvcResult;
-import org.springframework.util.Assert;
 
 /**
  * A {@link SnippetWritingResultHandler} that produces a snippet documenting a RESTful
- * resource's links.
+ * resource's links. The links are documented in the order in which their descriptors
+ * were declared. A descriptor whose rel contains a {@code *} documents every link with
+ * a rel that matches it, with the {@code *} matching any sequence of characters.
+ * <p>
+ * When no {@link LinkExtractor} is provided, the links are extracted using the extractor
+ * for the response's content type or, if there is no such extractor, from its
+ * {@code Link} headers. To document the links in the body and in the headers together,
+ * provide an extractor created using {@link LinkExtractors#combined(LinkExtractor...)}.
  * 
  * @author Andy Wilkinson
  */
 public class LinkSnippetResultHandler extends SnippetWritingResultHandler {
 
-	private final Map<String, LinkDescriptor> descriptorsByRel = new HashMap<String, LinkDescriptor>();
+	private final LinkDescriptors descriptors;
 
 	private final LinkExtractor extractor;
 
 	LinkSnippetResultHandler(String outputDir, LinkExtractor linkExtractor,
-			List<LinkDescriptor> descriptors) {
+			LinkDescriptors descriptors) {
 		super(outputDir, "links");
 		this.extractor = linkExtractor;
-		for (LinkDescriptor descriptor : descriptors) {
-			Assert.hasText(descriptor.getRel());
-			Assert.hasText(descriptor.getDescription());
-			this.descriptorsByRel.put(descriptor.getRel(), descriptor);
-		}
+		this.descriptors = descriptors;
 	}
 
 	@Override
 	protected void handle(MvcResult result, DocumentationWriter writer)
 			throws IOException {
-		Map<String, List<Link>> links;
-		if (this.extractor != null) {
-			links = this.extractor.extractLinks(result.getResponse());
-		}
-		else {
-			String contentType = result.getResponse().getContentType();
-			LinkExtractor extractorForContentType = LinkExtractors
-					.extractorForContentType(contentType);
-			if (extractorForContentType != null) {
-				links = extractorForContentType.extractLinks(result.getResponse());
-			}
-			else {
-				throw new IllegalStateException(
-						"No LinkExtractor has been provided and one is not available for the content type "
-								+ contentType);
-			}
-
-		}
-
-		Set<String> actualRels = links.keySet();
-		Set<String> expectedRels = this.descriptorsByRel.keySet();
-
-		Set<String> undocumentedRels = new HashSet<String>(actualRels);
-		undocumentedRels.removeAll(expectedRels);
+		Map<String, List<Link>> links = getLinkExtractor(result.getResponse())
+				.extractLinks(result.getResponse());
 
-		Set<String> missingRels = new HashSet<String>(expectedRels);
-		missingRels.removeAll(actualRels);
-
-		if (!undocumentedRels.isEmpty() || !missingRels.isEmpty()) {
-			String message = "";
-			if (!undocumentedRels.isEmpty()) {
-				message += "Links with the following relations were not documented: "
-						+ undocumentedRels;
-			}
-			if (!missingRels.isEmpty()) {
-				message += "Links with the following relations were not found in the response: "
-						+ missingRels;
-			}
-			fail(message);
+		String failure = this.descriptors.verify(links.keySet());
+		if (failure != null) {
+			reportFailure(result, failure);
 		}
 
-		Assert.isTrue(actualRels.equals(expectedRels));
-
 		writer.println("|===");
 		writer.println("| Relation | Description");
 
-		for (Entry<String, LinkDescriptor> entry : this.descriptorsByRel.entrySet()) {
+		for (LinkDescriptor descriptor : this.descriptors.getDescriptors()) {
 			writer.println();
-			writer.println("| " + entry.getKey());
-			writer.println("| " + entry.getValue().getDescription());
+			writer.println("| " + descriptor.getRel());
+			writer.println("| " + descriptor.getDescription());
 		}
 
 		writer.println("|===");
 	}
 
+	private LinkExtractor getLinkExtractor(MockHttpServletResponse response) {
+		if (this.extractor != null) {
+			return this.extractor;
+		}
+		String contentType = response.getContentType();
+		LinkExtractor extractorForContentType = LinkExtractors
+				.extractorForContentType(contentType);
+		if (extractorForContentType != null) {
+			return extractorForContentType;
+		}
+		if (response.containsHeader(HttpHeaders.LINK)) {
+			return LinkExtractors.linkHeaders();
+		}
+		throw new IllegalStateException(
+				"No LinkExtractor has been provided and one is not available for the content type "
+						+ contentType);
+	}
+
 }
\ No newline at end of file
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.restdocs.hypermedia;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Matches link rels against a number of patterns in which {@code *} matches any
+ * sequence of characters. The patterns are compiled once into a trie in which a
+ * {@code *} is a node that loops back on itself. A rel is then matched against every
+ * pattern at once by walking the trie a character at a time, so no pattern is
+ * reconsidered once it can no longer match. Instances are immutable and thread-safe.
+ *
+ * @author Andy Wilkinson
+ */
+final class RelPatternMatcher {
+
+	private static final char WILDCARD = '*';
+
+	private final Node root = new Node(false);
+
+	private final int patternCount;
+
+	/**
+	 * Creates a new {@code RelPatternMatcher} for the given {@code patterns}. The result
+	 * of {@link #match(String)} identifies patterns by their index in the list.
+	 *
+	 * @param patterns the patterns
+	 */
+	RelPatternMatcher(List<String> patterns) {
+		this.patternCount = patterns.size();
+		for (int i = 0; i < patterns.size(); i++) {
+			add(patterns.get(i), i);
+		}
+	}
+
+	/**
+	 * Returns whether or not the given {@code rel} is a pattern rather than a literal
+	 * rel.
+	 *
+	 * @param rel the rel
+	 * @return {@code true} if the rel is a pattern
+	 */
+	static boolean isPattern(String rel) {
+		return rel.indexOf(WILDCARD) != -1;
+	}
+
+	/**
+	 * Returns the indexes of the patterns that match the given {@code rel}.
+	 *
+	 * @param rel the rel
+	 * @return the indexes of the matching patterns
+	 */
+	BitSet match(String rel) {
+		BitSet matches = new BitSet(this.patternCount);
+		if (this.patternCount == 0) {
+			return matches;
+		}
+		Set<Node> states = new LinkedHashSet<Node>();
+		this.root.enter(states);
+		for (int i = 0; i < rel.length() && !states.isEmpty(); i++) {
+			Set<Node> next = new LinkedHashSet<Node>();
+			for (Node state : states) {
+				state.advance(rel.charAt(i), next);
+			}
+			states = next;
+		}
+		for (Node state : states) {
+			for (Integer pattern : state.patterns) {
+				matches.set(pattern);
+			}
+		}
+		return matches;
+	}
+
+	private void add(String pattern, int index) {
+		Node node = this.root;
+		for (int i = 0; i < pattern.length(); i++) {
+			char c = pattern.charAt(i);
+			if (c == WILDCARD) {
+				if (node.wildcard == null) {
+					node.wildcard = new Node(true);
+				}
+				node = node.wildcard;
+				// Consecutive wildcards are equivalent to one
+				while (i + 1 < pattern.length() && pattern.charAt(i + 1) == WILDCARD) {
+					i++;
+				}
+			}
+			else {
+				Node child = node.children.get(c);
+				if (child == null) {
+					child = new Node(false);
+					node.children.put(c, child);
+				}
+				node = child;
+			}
+		}
+		node.patterns.add(index);
+	}
+
+	private static final class Node {
+
+		private final boolean loops;
+
+		private final Map<Character, Node> children = new HashMap<Character, Node>();
+
+		private final List<Integer> patterns = new ArrayList<Integer>();
+
+		private Node wildcard;
+
+		private Node(boolean loops) {
+			this.loops = loops;
+		}
+
+		/**
+		 * Adds this node to the given {@code states} along with its wildcard node, if
+		 * any, as a wildcard may match no characters at all.
+		 */
+		private void enter(Set<Node> states) {
+			if (states.add(this) && this.wildcard != null) {
+				this.wildcard.enter(states);
+			}
+		}
+
+		private void advance(char c, Set<Node> next) {
+			Node child = this.children.get(c);
+			if (child != null) {
+				child.enter(next);
+			}
+			if (this.loops) {
+				enter(next);
+			}
+		}
+
+	}
+
+}
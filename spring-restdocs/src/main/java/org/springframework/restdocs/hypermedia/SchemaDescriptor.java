@@ -1,10 +1,18 @@
 package org.springframework.restdocs.hypermedia;
 
-import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.core.style.ToStringCreator;
 
 /**
- * A description of a resource schema found in a JSON hyperschema-based API
+ * A description of a resource schema found in a JSON hyperschema-based API. The
+ * properties are held in the order in which they were provided and are indexed by name.
  *
  * @see HypermediaDocumentation#schemaForResource(String)
  *
@@ -13,7 +21,8 @@ import java.util.List;
 public class SchemaDescriptor {
     private final String resource;
     private String description;
-    private List<SchemaProperty> properties = new ArrayList<>();
+    private final Map<String, SchemaProperty> propertiesByName = new LinkedHashMap<>();
+    private int hashCode;
 
     SchemaDescriptor(String resource) {
         this.resource = resource;
@@ -21,12 +30,17 @@ public class SchemaDescriptor {
 
     public SchemaDescriptor description(String description) {
         this.description = description;
+        this.hashCode = 0;
         return this;
     }
 
     public SchemaDescriptor description(String description, List<SchemaProperty> properties) {
         this.description = description;
-        this.properties = properties;
+        this.propertiesByName.clear();
+        for (SchemaProperty property : properties) {
+            this.propertiesByName.put(property.getName(), property);
+        }
+        this.hashCode = 0;
         return this;
     }
 
@@ -38,8 +52,16 @@ public class SchemaDescriptor {
         return this.description;
     }
 
-    List<SchemaProperty> getProperties() {
-        return this.properties;
+    Collection<SchemaProperty> getProperties() {
+        return Collections.unmodifiableCollection(this.propertiesByName.values());
+    }
+
+    Set<String> getPropertyNames() {
+        return Collections.unmodifiableSet(this.propertiesByName.keySet());
+    }
+
+    SchemaProperty getProperty(String name) {
+        return this.propertiesByName.get(name);
     }
 
     @Override
@@ -55,16 +77,21 @@ public class SchemaDescriptor {
         }
         SchemaDescriptor other = (SchemaDescriptor) obj;
 
-        if (!((this.resource == null ? "" : this.resource).equals(other.resource == null ? "" : other.resource))) {
+        if (!nullToEmpty(this.resource).equals(nullToEmpty(other.resource))) {
+            return false;
+        }
+
+        if (!nullToEmpty(this.description).equals(nullToEmpty(other.description))) {
             return false;
         }
 
-        if (!((this.description == null ? "" : this.description).equals(other.description == null ? "" : other.description))) {
+        if (this.propertiesByName.size() != other.propertiesByName.size()) {
             return false;
         }
 
-        for(SchemaProperty schemaProperty : this.properties) {
-            if(!schemaProperty.equals(other.properties.get(this.properties.indexOf(schemaProperty)))) {
+        Iterator<SchemaProperty> otherProperties = other.propertiesByName.values().iterator();
+        for (SchemaProperty schemaProperty : this.propertiesByName.values()) {
+            if (!schemaProperty.equals(otherProperties.next())) {
                 return false;
             }
         }
@@ -73,17 +100,31 @@ public class SchemaDescriptor {
 
     @Override
     public int hashCode() {
-        int prime = 31;
-        int result = 1;
-        result = prime * result + this.resource.hashCode();
-        result = prime * result + this.description.hashCode();
-
-        for(SchemaProperty schemaProperty : this.properties) {
-            result = prime * result + schemaProperty.hashCode();
+        int result = this.hashCode;
+        if (result == 0) {
+            int prime = 31;
+            result = 1;
+            result = prime * result + nullToEmpty(this.resource).hashCode();
+            result = prime * result + nullToEmpty(this.description).hashCode();
+
+            for (SchemaProperty schemaProperty : this.propertiesByName.values()) {
+                result = prime * result + schemaProperty.hashCode();
+            }
+            this.hashCode = result;
         }
-
         return result;
     }
 
+    @Override
+    public String toString() {
+        return new ToStringCreator(this)
+                .append("resource", this.resource)
+                .append("description", this.description)
+                .append("properties", this.propertiesByName.values()).toString();
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
 
 }
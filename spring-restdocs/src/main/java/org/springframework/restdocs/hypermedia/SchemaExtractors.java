@@ -1,11 +1,12 @@
 package org.springframework.restdocs.hypermedia;
 
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.restdocs.format.ContentDecoder;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -22,7 +23,10 @@ public abstract class SchemaExtractors {
     /**
      * Returns a {@code SchemaExtractor} capable of extracting a repository's schema in
      * JSON schema (json-schema.org) format where the properties are found in
-     * a map named {@code properties}.
+     * a map named {@code properties}. The extracted properties are in the order
+     * in which they appear in the schema. The properties of nested objects, of
+     * array {@code items} and of local {@code $ref} targets are included with
+     * dotted names such as {@code address.street} and {@code tags[].name}.
      *
      * @return The extract for the hyperschema JSON object
      */
@@ -30,6 +34,79 @@ public abstract class SchemaExtractors {
         return new SchemaPropertyExtractor();
     }
 
+    /**
+     * Returns a {@code SchemaExtractor} that infers the schema of the resource with
+     * the given name from the JSON bodies of all of the responses that it has been
+     * used with during the run. Each response is merged into the inference, but the
+     * schema that is returned describes only that response so that its snippet does
+     * not depend on the order in which the tests are run. The schema inferred from
+     * every response is written once, at the end of the run, to
+     * {@code inferred-schemas.asciidoc} in the configured output directory. A property
+     * is required if it was present in every object in which it could have appeared,
+     * and its description records how often it was present.
+     *
+     * @param resource The name of the resource
+     * @return The extractor that infers the resource's schema
+     */
+    public static SchemaExtractor inferredSchema(String resource) {
+        return new InferringSchemaExtractor(SchemaInference.forResource(resource));
+    }
+
+    /**
+     * Returns a {@code SchemaExtractor} that derives the schema of a resource from the
+     * Java type of its payload, using Jackson to introspect the type's properties. No
+     * schema needs to be requested from the API and the response is not read. The
+     * properties of each type are introspected once and then reused.
+     *
+     * @param type The type of the resource's payload
+     * @return The extractor for the type's schema
+     */
+    public static SchemaExtractor typeSchema(Class<?> type) {
+        return new JavaTypeSchemaExtractor(type);
+    }
+
+    /**
+     * Returns a {@code SchemaExtractor} that derives the schema of a resource from the
+     * given Java type of its payload, such as a parameterized type that has been
+     * constructed using Jackson's {@code TypeFactory}.
+     *
+     * @param type The type of the resource's payload
+     * @return The extractor for the type's schema
+     * @see #typeSchema(Class)
+     */
+    public static SchemaExtractor typeSchema(JavaType type) {
+        return new JavaTypeSchemaExtractor(type);
+    }
+
+    /**
+     * Returns a {@code SchemaExtractor} that derives the schema of a resource from the
+     * Java type of its payload, introspecting the type using the configuration of the
+     * given {@code objectMapper}. Provide the application's mapper so that its naming
+     * strategy, visibility rules and mix-ins are reflected in the schema.
+     *
+     * @param type The type of the resource's payload
+     * @param objectMapper The mapper that serializes the payload
+     * @return The extractor for the type's schema
+     * @see #typeSchema(Class)
+     */
+    public static SchemaExtractor typeSchema(Class<?> type, ObjectMapper objectMapper) {
+        return new JavaTypeSchemaExtractor(type, objectMapper);
+    }
+
+    /**
+     * Returns a {@code SchemaExtractor} that derives the schema of a resource from the
+     * given Java type of its payload, introspecting the type using the configuration of
+     * the given {@code objectMapper}.
+     *
+     * @param type The type of the resource's payload
+     * @param objectMapper The mapper that serializes the payload
+     * @return The extractor for the type's schema
+     * @see #typeSchema(Class, ObjectMapper)
+     */
+    public static SchemaExtractor typeSchema(JavaType type, ObjectMapper objectMapper) {
+        return new JavaTypeSchemaExtractor(type, objectMapper);
+    }
+
     /**
      * Returns the {@code SchemaExtractor} for the given {@code contentType} or {@code null}
      * if there is no extractor for the content type.
@@ -44,6 +121,22 @@ public abstract class SchemaExtractors {
         return null;
     }
 
+    private static class InferringSchemaExtractor implements SchemaExtractor {
+
+        private final SchemaInference inference;
+
+        private InferringSchemaExtractor(SchemaInference inference) {
+            this.inference = inference;
+        }
+
+        @Override
+        public SchemaDescriptor extractSchema(MockHttpServletResponse response)
+                throws IOException {
+            return this.inference.mergeAndDescribe(ContentDecoder
+                    .getContentAsString(response));
+        }
+    }
+
     private abstract static class JsonContentSchemaExtractor implements SchemaExtractor {
 
         private final ObjectMapper objectMapper = new ObjectMapper();
@@ -52,56 +145,23 @@ public abstract class SchemaExtractors {
         @SuppressWarnings("unchecked")
         public SchemaDescriptor extractSchema(MockHttpServletResponse response)
                 throws IOException {
+            // Keep the schema's own property order so that snippets are stable
             Map<String, Object> jsonContent = this.objectMapper.readValue(
-                    response.getContentAsString(), Map.class);
+                    ContentDecoder.getContentAsString(response), LinkedHashMap.class);
             return extractProperties(jsonContent);
         }
 
         protected abstract SchemaDescriptor extractProperties(Map<String, Object> json);
     }
 
-    @SuppressWarnings("unchecked")
     private static class SchemaPropertyExtractor extends JsonContentSchemaExtractor {
 
         @Override
         public SchemaDescriptor extractProperties(Map<String, Object> json) {
             SchemaDescriptor extractedProperties = new SchemaDescriptor((String) json.get("name"));
-            List<SchemaProperty> schemaProperties = new ArrayList<>();
-            Object possibleProperties = json.get("properties");
-            if (possibleProperties instanceof Map) {
-                Map<String, Object> property = (Map<String, Object>) possibleProperties;
-                for (Map.Entry<String, Object> entry : property.entrySet()) {
-                    String name = entry.getKey();
-                    schemaProperties.addAll(convertToProperties(entry.getValue(), name));
-                }
-            }
-            extractedProperties.description((String) json.get("description"), schemaProperties);
+            extractedProperties.description((String) json.get("description"),
+                    new JsonSchemaFlattener(json).flatten());
             return extractedProperties;
         }
-
-        private static List<SchemaProperty> convertToProperties(Object object, String prop) {
-            List<SchemaProperty> properties = new ArrayList<>();
-            if (object instanceof Map) {
-                Map<String, Object> propertyObjects = (Map<String, Object>) object;
-                    maybeAddProperty(maybeCreateProperty(prop,
-                            propertyObjects.get("type"),
-                            propertyObjects.get("description"),
-                            propertyObjects.get("type")), properties);
-            }
-            return properties;
-        }
-
-        private static SchemaProperty maybeCreateProperty(String prop, Object type, Object description, Object required) {
-            if (type instanceof String) {
-                return new SchemaProperty(prop, (String) type, (String) description, Boolean.getBoolean((String)required));
-            }
-            return null;
-        }
-
-        private static void maybeAddProperty(SchemaProperty possibleSchemaProperty, List<SchemaProperty> properties) {
-            if (possibleSchemaProperty != null) {
-                properties.add(possibleSchemaProperty);
-            }
-        }
     }
 }
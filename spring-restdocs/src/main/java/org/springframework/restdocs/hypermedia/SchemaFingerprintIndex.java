@@ -0,0 +1,508 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.restdocs.hypermedia;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.restdocs.snippet.DocumentationFailures;
+import org.springframework.restdocs.snippet.DocumentationProperties;
+
+/**
+ * An on-disk index of the fingerprints of the schemas that have been documented. The
+ * index written by the previous run is read into memory and compared with the schemas
+ * that are documented in this run. At the end of the run the schemas whose properties have
+ * been added, removed or retyped are written to a {@code schema-changes.asciidoc} file
+ * alongside the index and the index is updated. Schemas that are not documented in a
+ * run are kept in the index as they were, so running a subset of the tests does not
+ * report them as removed.
+ * <p>
+ * The index is a header followed by a table of fixed-size records, one per schema,
+ * sorted by the hash of the schema's name. Each record holds the schema's fingerprint
+ * and the location of its properties, so a lookup is a binary search of the table and a
+ * schema whose fingerprint is unchanged is not compared property by property. Every
+ * record is checked when the index is read and an index that is inconsistent, for
+ * example because it was truncated, is ignored as if there were no previous run.
+ * <p>
+ * A failure to read or write the index is reported through
+ * {@link DocumentationFailures}.
+ *
+ * @author Andy Wilkinson
+ * @see DocumentationProperties#isTrackSchemaChanges()
+ */
+final class SchemaFingerprintIndex {
+
+	static final String INDEX_FILE_NAME = "schema-fingerprints.idx";
+
+	static final String CHANGES_FILE_NAME = "schema-changes.asciidoc";
+
+	private static final int MAGIC = 0x52445346;
+
+	private static final int VERSION = 1;
+
+	private static final int HEADER_SIZE = 12;
+
+	private static final int RECORD_SIZE = 24;
+
+	private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private static SchemaFingerprintIndex instance;
+
+	private static boolean instanceCreated;
+
+	private final File directory;
+
+	private final ByteBuffer previous;
+
+	private final int previousCount;
+
+	private final ConcurrentMap<String, List<SchemaProperty>> schemas = new ConcurrentHashMap<String, List<SchemaProperty>>();
+
+	SchemaFingerprintIndex(File directory) throws IOException {
+		this.directory = directory;
+		this.previous = read(new File(directory, INDEX_FILE_NAME));
+		this.previousCount = this.previous == null ? 0 : this.previous.getInt(8);
+	}
+
+	/**
+	 * Records the properties of the schema with the given {@code name} in the index for
+	 * the run if schema changes are being tracked. If the index of the previous run could
+	 * not be read, schema changes are no longer tracked and a description of the failure
+	 * is returned.
+	 *
+	 * @param name the name of the schema
+	 * @param properties the schema's properties
+	 * @return a description of the failure, or {@code null}
+	 * @see DocumentationProperties#isTrackSchemaChanges()
+	 */
+	static String recordIfTracking(String name, Collection<SchemaProperty> properties) {
+		SchemaFingerprintIndex index;
+		try {
+			index = getInstance();
+		}
+		catch (IOException ex) {
+			return "Schema changes will not be tracked as the schema fingerprint index "
+					+ "could not be read: " + ex.getMessage();
+		}
+		if (index != null) {
+			index.record(name, properties);
+		}
+		return null;
+	}
+
+	void record(String name, Collection<SchemaProperty> properties) {
+		this.schemas.put(name, new ArrayList<SchemaProperty>(properties));
+	}
+
+	/**
+	 * Returns the changes to the schemas that have been recorded compared with the
+	 * previous run, keyed by schema name in name order. Schemas that are unchanged are
+	 * not included. If there was no previous run, there are no changes.
+	 *
+	 * @return the changes
+	 */
+	Map<String, List<String[]>> getChanges() {
+		Map<String, List<String[]>> changes = new LinkedHashMap<String, List<String[]>>();
+		if (this.previous == null) {
+			return changes;
+		}
+		List<String> names = new ArrayList<String>(this.schemas.keySet());
+		Collections.sort(names);
+		for (String name : names) {
+			List<SchemaProperty> properties = this.schemas.get(name);
+			int record = find(name);
+			if (record >= 0
+					&& this.previous.getLong(recordPosition(record) + 8) == fingerprint(properties)) {
+				continue;
+			}
+			List<SchemaProperty> previousProperties = record < 0 ? Collections
+					.<SchemaProperty> emptyList() : readEntry(record).properties;
+			List<String[]> schemaChanges = diff(previousProperties, properties);
+			if (!schemaChanges.isEmpty()) {
+				changes.put(name, schemaChanges);
+			}
+		}
+		return changes;
+	}
+
+	/**
+	 * Writes the report of the schema changes and then the updated index.
+	 *
+	 * @throws IOException if the report or the index cannot be written
+	 */
+	void write() throws IOException {
+		if (!this.directory.isDirectory() && !this.directory.mkdirs()) {
+			throw new IOException("Failed to create directory '"
+					+ this.directory + "'");
+		}
+		writeChanges(getChanges());
+		List<Entry> entries = new ArrayList<Entry>();
+		for (Map.Entry<String, List<SchemaProperty>> schema : this.schemas.entrySet()) {
+			entries.add(new Entry(schema.getKey(), schema.getValue()));
+		}
+		for (int i = 0; i < this.previousCount; i++) {
+			Entry entry = readEntry(i);
+			if (!this.schemas.containsKey(entry.name)) {
+				entries.add(entry);
+			}
+		}
+		Collections.sort(entries, new Comparator<Entry>() {
+
+			@Override
+			public int compare(Entry one, Entry two) {
+				return Long.compare(hash(one.name), hash(two.name));
+			}
+
+		});
+		writeIndex(entries);
+	}
+
+	private void writeChanges(Map<String, List<String[]>> changes) throws IOException {
+		Writer writer = new OutputStreamWriter(new FileOutputStream(new File(
+				this.directory, CHANGES_FILE_NAME)), UTF_8);
+		try {
+			if (changes.isEmpty()) {
+				writer.write(String.format("No schemas have changed.%n"));
+			}
+			for (Map.Entry<String, List<String[]>> schema : changes.entrySet()) {
+				writer.write(String.format("=== %s%n%n|===%n| Change | Property | Type%n",
+						schema.getKey()));
+				for (String[] change : schema.getValue()) {
+					writer.write(String.format("%n| %s%n| %s%n| %s%n", change[0],
+							change[1], change[2]));
+				}
+				writer.write(String.format("|===%n%n"));
+			}
+		}
+		finally {
+			writer.close();
+		}
+	}
+
+	private void writeIndex(List<Entry> entries) throws IOException {
+		ByteArrayOutputStream data = new ByteArrayOutputStream();
+		DataOutputStream dataOutput = new DataOutputStream(data);
+		ByteBuffer table = ByteBuffer.allocate(HEADER_SIZE + entries.size()
+				* RECORD_SIZE);
+		table.putInt(MAGIC).putInt(VERSION).putInt(entries.size());
+		for (Entry entry : entries) {
+			int offset = dataOutput.size();
+			dataOutput.writeUTF(entry.name);
+			dataOutput.writeInt(entry.properties.size());
+			for (SchemaProperty property : entry.properties) {
+				dataOutput.writeUTF(nullToEmpty(property.getName()));
+				dataOutput.writeUTF(nullToEmpty(property.getType()));
+				dataOutput.writeByte(property.getRequired() == null ? 2 : property
+						.getRequired() ? 1 : 0);
+			}
+			table.putLong(hash(entry.name)).putLong(fingerprint(entry.properties))
+					.putInt(table.capacity() + offset).putInt(dataOutput.size() - offset);
+		}
+		// Write alongside and then replace so that a failed write keeps the old index
+		File index = new File(this.directory, INDEX_FILE_NAME);
+		File temporary = new File(this.directory, INDEX_FILE_NAME + ".tmp");
+		FileOutputStream output = new FileOutputStream(temporary);
+		try {
+			output.write(table.array());
+			data.writeTo(output);
+		}
+		finally {
+			output.close();
+		}
+		if (index.exists() && !index.delete() || !temporary.renameTo(index)) {
+			throw new IOException("Failed to replace '" + index + "'");
+		}
+	}
+
+	private int find(String name) {
+		long hash = hash(name);
+		int low = 0;
+		int high = this.previousCount - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			long middleHash = this.previous.getLong(recordPosition(middle));
+			if (middleHash < hash) {
+				low = middle + 1;
+			}
+			else {
+				high = middle - 1;
+			}
+		}
+		// low is the first record with the hash, if any. Check each of them in case of
+		// collisions
+		for (int record = low; record < this.previousCount
+				&& this.previous.getLong(recordPosition(record)) == hash; record++) {
+			if (readName(record).equals(name)) {
+				return record;
+			}
+		}
+		return -1;
+	}
+
+	private String readName(int record) {
+		// The index was checked when it was read so its records can always be decoded
+		try {
+			return input(this.previous, record).readUTF();
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	private Entry readEntry(int record) {
+		try {
+			return readEntry(this.previous, record);
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	private static Entry readEntry(ByteBuffer index, int record) throws IOException {
+		DataInputStream input = input(index, record);
+		String name = input.readUTF();
+		int count = input.readInt();
+		if (count < 0) {
+			throw new IOException("Invalid property count " + count);
+		}
+		List<SchemaProperty> properties = new ArrayList<SchemaProperty>();
+		for (int i = 0; i < count; i++) {
+			String propertyName = input.readUTF();
+			String type = input.readUTF();
+			byte required = input.readByte();
+			properties.add(new SchemaProperty(propertyName, type, null,
+					required == 2 ? null : required == 1));
+		}
+		if (input.available() > 0) {
+			throw new IOException("Unexpected data after record " + record);
+		}
+		return new Entry(name, properties);
+	}
+
+	private static DataInputStream input(ByteBuffer index, int record) {
+		int position = recordPosition(record);
+		int offset = index.getInt(position + 16);
+		int length = index.getInt(position + 20);
+		byte[] bytes = new byte[length];
+		ByteBuffer slice = index.duplicate();
+		slice.position(offset);
+		slice.get(bytes);
+		return new DataInputStream(new ByteArrayInputStream(bytes));
+	}
+
+	private static int recordPosition(int record) {
+		return HEADER_SIZE + record * RECORD_SIZE;
+	}
+
+	private static List<String[]> diff(List<SchemaProperty> previous,
+			List<SchemaProperty> current) {
+		Map<String, String> previousTypes = describeTypes(previous);
+		Map<String, String> currentTypes = describeTypes(current);
+		List<String[]> changes = new ArrayList<String[]>();
+		for (Map.Entry<String, String> property : currentTypes.entrySet()) {
+			String previousType = previousTypes.get(property.getKey());
+			if (previousType == null) {
+				changes.add(new String[] { "added", property.getKey(),
+						property.getValue() });
+			}
+			else if (!previousType.equals(property.getValue())) {
+				changes.add(new String[] { "retyped", property.getKey(),
+						previousType + " -> " + property.getValue() });
+			}
+		}
+		for (Map.Entry<String, String> property : previousTypes.entrySet()) {
+			if (!currentTypes.containsKey(property.getKey())) {
+				changes.add(new String[] { "removed", property.getKey(),
+						property.getValue() });
+			}
+		}
+		return changes;
+	}
+
+	private static Map<String, String> describeTypes(Collection<SchemaProperty> properties) {
+		Map<String, String> types = new LinkedHashMap<String, String>();
+		for (SchemaProperty property : properties) {
+			types.put(nullToEmpty(property.getName()), nullToEmpty(property.getType())
+					+ (Boolean.TRUE.equals(property.getRequired()) ? " (required)" : ""));
+		}
+		return types;
+	}
+
+	static long fingerprint(Collection<SchemaProperty> properties) {
+		long fingerprint = FNV_OFFSET_BASIS;
+		for (Map.Entry<String, String> property : describeTypes(properties).entrySet()) {
+			fingerprint = hash(fingerprint, property.getKey());
+			fingerprint = hash(fingerprint, property.getValue());
+		}
+		return fingerprint;
+	}
+
+	private static long hash(String value) {
+		return hash(FNV_OFFSET_BASIS, value);
+	}
+
+	private static long hash(long hash, String value) {
+		for (byte b : value.getBytes(UTF_8)) {
+			hash = (hash ^ (b & 0xff)) * FNV_PRIME;
+		}
+		// Separate consecutive values so that "ab", "c" and "a", "bc" differ
+		return (hash ^ 0xff) * FNV_PRIME;
+	}
+
+	private static String nullToEmpty(String value) {
+		return value == null ? "" : value;
+	}
+
+	private static ByteBuffer read(File index) throws IOException {
+		// Read onto the heap rather than mapping the file as a mapped file cannot be
+		// deleted or replaced on Windows until the mapping has been garbage collected
+		if (!index.isFile() || index.length() < HEADER_SIZE
+				|| index.length() > Integer.MAX_VALUE) {
+			return null;
+		}
+		byte[] bytes = new byte[(int) index.length()];
+		InputStream input = new FileInputStream(index);
+		try {
+			int read = 0;
+			while (read < bytes.length) {
+				int count = input.read(bytes, read, bytes.length - read);
+				if (count < 0) {
+					return null;
+				}
+				read += count;
+			}
+		}
+		finally {
+			input.close();
+		}
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		return isValid(buffer) ? buffer : null;
+	}
+
+	private static boolean isValid(ByteBuffer index) {
+		int count = index.getInt(8);
+		long tableEnd = HEADER_SIZE + (long) count * RECORD_SIZE;
+		if (index.getInt(0) != MAGIC || index.getInt(4) != VERSION || count < 0
+				|| tableEnd > index.capacity()) {
+			return false;
+		}
+		long previousHash = Long.MIN_VALUE;
+		for (int record = 0; record < count; record++) {
+			int position = recordPosition(record);
+			long hash = index.getLong(position);
+			int offset = index.getInt(position + 16);
+			int length = index.getInt(position + 20);
+			if (hash < previousHash || offset < tableEnd || length < 0
+					|| (long) offset + length > index.capacity()) {
+				return false;
+			}
+			previousHash = hash;
+			try {
+				Entry entry = readEntry(index, record);
+				if (hash(entry.name) != hash
+						|| fingerprint(entry.properties) != index.getLong(position + 8)) {
+					return false;
+				}
+			}
+			catch (IOException ex) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static synchronized SchemaFingerprintIndex getInstance() throws IOException {
+		// Created on first use rather than during class initialization so that the
+		// configuration is read through the shared properties. Creation is only
+		// attempted once so that a failure is only reported once
+		if (!instanceCreated) {
+			instanceCreated = true;
+			instance = createInstance();
+		}
+		return instance;
+	}
+
+	private static SchemaFingerprintIndex createInstance() throws IOException {
+		DocumentationProperties properties = DocumentationProperties.get();
+		if (!properties.isTrackSchemaChanges()) {
+			return null;
+		}
+		SchemaFingerprintIndex index = new SchemaFingerprintIndex(
+				properties.getOutputDir());
+		DocumentationFailures.runAtExit(new IndexWriter(index));
+		return index;
+	}
+
+	private static final class Entry {
+
+		private final String name;
+
+		private final List<SchemaProperty> properties;
+
+		private Entry(String name, List<SchemaProperty> properties) {
+			this.name = name;
+			this.properties = properties;
+		}
+
+	}
+
+	private static final class IndexWriter implements Runnable {
+
+		private final SchemaFingerprintIndex index;
+
+		private IndexWriter(SchemaFingerprintIndex index) {
+			this.index = index;
+		}
+
+		@Override
+		public void run() {
+			try {
+				this.index.write();
+			}
+			catch (IOException ex) {
+				DocumentationFailures.reportAtExit("Failed to write the schema "
+						+ "fingerprint index: " + ex.getMessage());
+			}
+		}
+
+	}
+
+}
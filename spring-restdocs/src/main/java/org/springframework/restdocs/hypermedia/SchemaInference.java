@@ -0,0 +1,358 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.restdocs.hypermedia;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.restdocs.snippet.DocumentationFailures;
+import org.springframework.restdocs.snippet.DocumentationProperties;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * A schema for a resource that is inferred from the JSON bodies of the responses that
+ * have been seen for it during the run. For each field path the types that have been
+ * observed are recorded, together with the number of objects in which the field was
+ * present. A field is required if it was present in every object that was seen at its
+ * parent path. Fields in the objects of an array are named using {@code []}, for
+ * example {@code tags[].name}.
+ * <p>
+ * Each body is read as a stream of tokens into a small set of observations, which are
+ * then merged into the inference. Merging is thread-safe.
+ * <p>
+ * As the inference for a resource depends on every response that has been seen for it,
+ * the inferred schemas are written once, at the end of the run, to an
+ * {@code inferred-schemas.asciidoc} file in the configured output directory, with the
+ * presence of each property described. The report is not written when no output
+ * directory has been configured. The snippet that is produced for a documented call
+ * only describes that call's response, without presence counts, so it does not depend
+ * on the order in which the tests are run.
+ *
+ * @author Andy Wilkinson
+ */
+final class SchemaInference {
+
+	private static final ConcurrentMap<String, SchemaInference> INFERENCES = new ConcurrentHashMap<String, SchemaInference>();
+
+	private static final AtomicBoolean REPORT_WRITER_REGISTERED = new AtomicBoolean();
+
+	static final String REPORT_FILE_NAME = "inferred-schemas.asciidoc";
+
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private static final int MAX_DEPTH = 1000;
+
+	private static final int MAX_FIELDS = 10000;
+
+	private static final String[] TYPE_NAMES = { "object", "array", "string",
+			"integer", "number", "boolean", "null" };
+
+	private final String resource;
+
+	private final Map<String, FieldStatistics> fields = new LinkedHashMap<String, FieldStatistics>();
+
+	private final Map<String, Long> objectCounts = new HashMap<String, Long>();
+
+	private SchemaInference(String resource) {
+		this.resource = resource;
+	}
+
+	/**
+	 * Returns the inference for the resource with the given {@code name}, creating it if
+	 * no responses have been seen for the resource yet.
+	 *
+	 * @param resource the name of the resource
+	 * @return the inference
+	 */
+	static SchemaInference forResource(String resource) {
+		SchemaInference inference = INFERENCES.get(resource);
+		if (inference == null) {
+			inference = new SchemaInference(resource);
+			SchemaInference existing = INFERENCES.putIfAbsent(resource, inference);
+			if (existing != null) {
+				inference = existing;
+			}
+			else if (REPORT_WRITER_REGISTERED.compareAndSet(false, true)) {
+				DocumentationFailures.runAtExit(new ReportWriter());
+			}
+		}
+		return inference;
+	}
+
+	static void clear() {
+		INFERENCES.clear();
+	}
+
+	/**
+	 * Writes the schemas that have been inferred during the run to the given
+	 * {@code writer}, one section per resource in name order.
+	 *
+	 * @param writer the writer
+	 * @throws IOException if the schemas cannot be written
+	 */
+	static void writeReport(Writer writer) throws IOException {
+		List<String> resources = new ArrayList<String>(INFERENCES.keySet());
+		Collections.sort(resources);
+		for (String resource : resources) {
+			writer.write(String.format(
+					"=== %s%n%n|===%n| Property | Type | Description | Required%n",
+					resource));
+			for (SchemaProperty property : INFERENCES.get(resource).toSchemaDescriptor()
+					.getProperties()) {
+				writer.write(String.format("%n| %s%n| %s%n| %s%n| %s%n",
+						property.getName(), property.getType(),
+						property.getDescription(), property.getRequired()));
+			}
+			writer.write(String.format("|===%n%n"));
+		}
+	}
+
+	/**
+	 * Reads the given JSON {@code content} and merges what it contains into this
+	 * inference.
+	 *
+	 * @param content the content
+	 * @throws IOException if the content cannot be read
+	 */
+	void merge(String content) throws IOException {
+		merge(observe(content));
+	}
+
+	/**
+	 * Reads the given JSON {@code content}, merges what it contains into this inference
+	 * and returns a {@link SchemaDescriptor} for the schema of the content alone. As a
+	 * single response says nothing about how often a property is present, the
+	 * properties are not described.
+	 *
+	 * @param content the content
+	 * @return the schema of the content
+	 * @throws IOException if the content cannot be read
+	 */
+	SchemaDescriptor mergeAndDescribe(String content) throws IOException {
+		Observations observations = observe(content);
+		merge(observations);
+		return describe(this.resource, observations.fields, observations.objectCounts,
+				false);
+	}
+
+	private static Observations observe(String content) throws IOException {
+		Observations observations = new Observations();
+		JsonParser parser = JSON_FACTORY.createParser(content);
+		try {
+			if (parser.nextToken() != null) {
+				observations.observe(parser, "", 0);
+			}
+		}
+		finally {
+			parser.close();
+		}
+		return observations;
+	}
+
+	private void merge(Observations observations) {
+		synchronized (this) {
+			for (Entry<String, FieldStatistics> entry : observations.fields.entrySet()) {
+				FieldStatistics statistics = this.fields.get(entry.getKey());
+				if (statistics == null) {
+					if (this.fields.size() >= MAX_FIELDS) {
+						continue;
+					}
+					statistics = new FieldStatistics(entry.getValue().parent);
+					this.fields.put(entry.getKey(), statistics);
+				}
+				statistics.types |= entry.getValue().types;
+				statistics.occurrences += entry.getValue().occurrences;
+			}
+			for (Entry<String, Long> entry : observations.objectCounts.entrySet()) {
+				Long count = this.objectCounts.get(entry.getKey());
+				this.objectCounts.put(entry.getKey(), count == null ? entry.getValue()
+						: count + entry.getValue());
+			}
+		}
+	}
+
+	/**
+	 * Returns a {@link SchemaDescriptor} for the schema that has been inferred so far.
+	 * The properties are in the order in which they were first seen and the description
+	 * of each property records how often it has been present.
+	 *
+	 * @return the inferred schema
+	 */
+	synchronized SchemaDescriptor toSchemaDescriptor() {
+		return describe(this.resource, this.fields, this.objectCounts, true);
+	}
+
+	private static SchemaDescriptor describe(String resource,
+			Map<String, FieldStatistics> fields, Map<String, Long> objectCounts,
+			boolean describePresence) {
+		List<SchemaProperty> properties = new ArrayList<SchemaProperty>();
+		for (Entry<String, FieldStatistics> entry : fields.entrySet()) {
+			FieldStatistics statistics = entry.getValue();
+			Long parentCount = objectCounts.get(statistics.parent);
+			long objects = parentCount == null ? 0 : parentCount;
+			properties.add(new SchemaProperty(entry.getKey(),
+					describeTypes(statistics.types), describePresence ? "Present in "
+							+ statistics.occurrences + " of " + objects : null,
+					statistics.occurrences >= objects));
+		}
+		return new SchemaDescriptor(resource).description(null, properties);
+	}
+
+	private static String describeTypes(int types) {
+		StringBuilder description = new StringBuilder();
+		for (int i = 0; i < TYPE_NAMES.length; i++) {
+			if ((types & (1 << i)) != 0) {
+				description.append(description.length() > 0 ? ", " : "").append(
+						TYPE_NAMES[i]);
+			}
+		}
+		return description.toString();
+	}
+
+	private static int typeOf(JsonToken token) {
+		switch (token) {
+		case START_OBJECT:
+			return 1;
+		case START_ARRAY:
+			return 1 << 1;
+		case VALUE_STRING:
+			return 1 << 2;
+		case VALUE_NUMBER_INT:
+			return 1 << 3;
+		case VALUE_NUMBER_FLOAT:
+			return 1 << 4;
+		case VALUE_TRUE:
+		case VALUE_FALSE:
+			return 1 << 5;
+		default:
+			return 1 << 6;
+		}
+	}
+
+	private static final class FieldStatistics {
+
+		private final String parent;
+
+		private int types;
+
+		private long occurrences;
+
+		private FieldStatistics(String parent) {
+			this.parent = parent;
+		}
+
+	}
+
+	private static final class ReportWriter implements Runnable {
+
+		@Override
+		public void run() {
+			if (INFERENCES.isEmpty()) {
+				return;
+			}
+			File outputDir = DocumentationProperties.get().getOutputDir();
+			if (outputDir == null) {
+				return;
+			}
+			try {
+				if (!outputDir.isDirectory() && !outputDir.mkdirs()) {
+					throw new IOException("Failed to create directory '" + outputDir
+							+ "'");
+				}
+				Writer writer = new OutputStreamWriter(new FileOutputStream(new File(
+						outputDir, REPORT_FILE_NAME)), UTF_8);
+				try {
+					writeReport(writer);
+				}
+				finally {
+					writer.close();
+				}
+			}
+			catch (IOException ex) {
+				DocumentationFailures.reportAtExit("Failed to write the inferred "
+						+ "schemas: " + ex.getMessage());
+			}
+		}
+
+	}
+
+	/**
+	 * The observations made while reading a single body.
+	 */
+	private static final class Observations {
+
+		private final Map<String, FieldStatistics> fields = new LinkedHashMap<String, FieldStatistics>();
+
+		private final Map<String, Long> objectCounts = new HashMap<String, Long>();
+
+		private void observe(JsonParser parser, String path, int depth)
+				throws IOException {
+			if (depth > MAX_DEPTH) {
+				throw new IOException("Content is nested too deeply");
+			}
+			JsonToken token = parser.getCurrentToken();
+			if (token == JsonToken.START_OBJECT) {
+				Long count = this.objectCounts.get(path);
+				this.objectCounts.put(path, count == null ? 1 : count + 1);
+				Set<String> seen = new HashSet<String>();
+				while (parser.nextToken() == JsonToken.FIELD_NAME) {
+					String name = parser.getCurrentName();
+					String fieldPath = path.isEmpty() ? name : path + "." + name;
+					JsonToken value = parser.nextToken();
+					FieldStatistics statistics = this.fields.get(fieldPath);
+					if (statistics == null) {
+						statistics = new FieldStatistics(path);
+						this.fields.put(fieldPath, statistics);
+					}
+					statistics.types |= typeOf(value);
+					if (seen.add(name)) {
+						statistics.occurrences++;
+					}
+					observe(parser, fieldPath, depth + 1);
+				}
+			}
+			else if (token == JsonToken.START_ARRAY) {
+				while (parser.nextToken() != JsonToken.END_ARRAY) {
+					observe(parser, path + "[]", depth + 1);
+				}
+			}
+		}
+
+	}
+
+}
@@ -1,6 +1,7 @@
 package org.springframework.restdocs.hypermedia;
 
 import org.springframework.core.style.ToStringCreator;
+import org.springframework.util.ObjectUtils;
 
 /**
  * Representation of a schema property used in a JSON Hyperschema-based API
@@ -68,10 +69,10 @@ public class SchemaProperty {
     public int hashCode() {
         int prime = 31;
         int result = 1;
-        result = prime * result + this.name.hashCode();
-        result = prime * result + this.type.hashCode();
-        result = prime * result + this.description.hashCode();
-        result = prime * result + this.required.hashCode();
+        result = prime * result + ObjectUtils.nullSafeHashCode(this.name);
+        result = prime * result + ObjectUtils.nullSafeHashCode(this.type);
+        result = prime * result + ObjectUtils.nullSafeHashCode(this.description);
+        result = prime * result + ObjectUtils.nullSafeHashCode(this.required);
         return result;
     }
 
@@ -87,16 +88,16 @@ public class SchemaProperty {
             return false;
         }
         SchemaProperty other = (SchemaProperty) obj;
-        if (!this.name.equals(other.name)) {
+        if (!ObjectUtils.nullSafeEquals(this.name, other.name)) {
             return false;
         }
-        if (!this.type.equals(other.type)) {
+        if (!ObjectUtils.nullSafeEquals(this.type, other.type)) {
             return false;
         }
-        if (!this.description.equals(other.description)) {
+        if (!ObjectUtils.nullSafeEquals(this.description, other.description)) {
             return false;
         }
-        if (!this.required.equals(other.required)) {
+        if (!ObjectUtils.nullSafeEquals(this.required, other.required)) {
             return false;
         }
         return true;
@@ -6,10 +6,20 @@ import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.util.Assert;
 
 import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 /**
  * A {@link SnippetWritingResultHandler} that produces a snippet documenting a RESTful
- * resource's schema.
+ * resource's schema. The properties are documented in the order in which they
+ * are returned by the {@link SchemaExtractor}.
+ * <p>
+ * If the {@link SchemaDescriptor} declares properties, they are verified against the
+ * extracted properties. A property that is extracted but not declared, or declared but
+ * not extracted, is reported as a failure.
+ * <p>
+ * When schema changes are being tracked, the extracted properties are also recorded
+ * so that changes since the previous run can be reported.
  *
  * @author Kenny Bastani
  */
@@ -47,6 +57,13 @@ public class SchemaSnippetResultHandler extends SnippetWritingResultHandler {
 
         }
 
+        verify(result, schema);
+        String trackingFailure = SchemaFingerprintIndex.recordIfTracking(
+                this.schemaDescriptor.getName(), schema.getProperties());
+        if (trackingFailure != null) {
+            reportFailure(result, trackingFailure);
+        }
+
         // Allow calling test to override name format and description
         writer.println(schemaDescriptor.getDescription() == null ? schema.getDescription() : schemaDescriptor.getDescription());
 
@@ -54,13 +71,43 @@ public class SchemaSnippetResultHandler extends SnippetWritingResultHandler {
         writer.println("| Property | Type | Description | Required");
 
         for (SchemaProperty schemaProperty : schema.getProperties()) {
+            SchemaProperty documentedProperty = this.schemaDescriptor.getProperty(schemaProperty.getName());
             writer.println();
             writer.println("| " + schemaProperty.getName());
             writer.println("| " + schemaProperty.getType());
-            writer.println("| " + schemaProperty.getDescription());
+            writer.println("| " + (documentedProperty == null || documentedProperty.getDescription() == null
+                    ? schemaProperty.getDescription() : documentedProperty.getDescription()));
             writer.println("| " + schemaProperty.getRequired());
         }
 
         writer.println("|===");
     }
+
+    private void verify(MvcResult result, SchemaDescriptor schema) {
+        Set<String> expectedProperties = this.schemaDescriptor.getPropertyNames();
+        if (expectedProperties.isEmpty()) {
+            // Only the description has been documented
+            return;
+        }
+        Set<String> actualProperties = schema.getPropertyNames();
+
+        Set<String> undocumentedProperties = new LinkedHashSet<String>(actualProperties);
+        undocumentedProperties.removeAll(expectedProperties);
+
+        Set<String> missingProperties = new LinkedHashSet<String>(expectedProperties);
+        missingProperties.removeAll(actualProperties);
+
+        if (!undocumentedProperties.isEmpty() || !missingProperties.isEmpty()) {
+            String message = "";
+            if (!undocumentedProperties.isEmpty()) {
+                message += "Schema properties with the following names were not documented: "
+                        + undocumentedProperties;
+            }
+            if (!missingProperties.isEmpty()) {
+                message += "Schema properties with the following names were not found in the response: "
+                        + missingProperties;
+            }
+            reportFailure(result, message);
+        }
+    }
 }
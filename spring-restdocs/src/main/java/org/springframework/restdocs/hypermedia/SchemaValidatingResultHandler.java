@@ -0,0 +1,88 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.restdocs.hypermedia;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.springframework.restdocs.format.ContentDecoder;
+import org.springframework.restdocs.snippet.DocumentationFailures;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultHandler;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+/**
+ * A {@link ResultHandler} that validates the body of a response against a JSON schema.
+ * The schema is compiled when the handler is created, or taken from the compiled
+ * schemas that are cached for the run, and the body is validated as a stream. Any
+ * problems, including a body that is not valid JSON or that is nested too deeply to be
+ * validated, are reported as documentation failures.
+ * <p>
+ * The schema is supplied when the handler is created rather than being taken from the
+ * documented {@code /schema} response, so that the validation of a response does not
+ * depend on the schema having been documented earlier in the run. Load the schema from
+ * the same source as the application's {@code /schema} endpoint to validate against the
+ * documented schema.
+ *
+ * @author Andy Wilkinson
+ * @see DocumentationFailures
+ */
+public class SchemaValidatingResultHandler implements ResultHandler {
+
+	private final String outputDir;
+
+	private final JsonSchemaValidator validator;
+
+	SchemaValidatingResultHandler(String outputDir, String schema) {
+		Assert.hasText(schema);
+		this.outputDir = outputDir;
+		try {
+			this.validator = JsonSchemaValidator.forSchema(schema);
+		}
+		catch (IOException ex) {
+			throw new IllegalArgumentException("Failed to read JSON schema", ex);
+		}
+	}
+
+	@Override
+	public void handle(MvcResult result) throws IOException {
+		List<String> errors;
+		try {
+			errors = this.validator.validate(ContentDecoder.getContentAsString(result
+					.getResponse()));
+		}
+		catch (JsonProcessingException ex) {
+			DocumentationFailures.report(this.outputDir, result,
+					"The response is not valid JSON: " + ex.getOriginalMessage());
+			return;
+		}
+		catch (IOException ex) {
+			DocumentationFailures.report(this.outputDir, result,
+					"The response could not be validated: " + ex.getMessage());
+			return;
+		}
+		if (!errors.isEmpty()) {
+			DocumentationFailures.report(this.outputDir, result,
+					"The response does not match its schema: "
+							+ StringUtils.collectionToDelimitedString(errors, ", "));
+		}
+	}
+
+}
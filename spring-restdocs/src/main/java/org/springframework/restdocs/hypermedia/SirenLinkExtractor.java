@@ -0,0 +1,91 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.restdocs.hypermedia;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * A {@link LinkExtractor} for Siren. An entity's links are held in an array named
+ * {@code links} of objects each with an {@code href} and a {@code rel} that is an array
+ * of one or more rels. A link is extracted once for each of its rels. The sub-entities in
+ * the entity's {@code entities} array that are embedded links, rather than embedded
+ * representations, are extracted in the same way. Links whose {@code rel} is not an
+ * array are not valid Siren and are ignored.
+ *
+ * @author Andy Wilkinson
+ */
+class SirenLinkExtractor extends StreamingJsonLinkExtractor {
+
+	@Override
+	protected void extractLinks(JsonParser parser, Map<String, List<Link>> extractedLinks)
+			throws IOException {
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String name = parser.getCurrentName();
+			JsonToken value = parser.nextToken();
+			if (value == JsonToken.START_ARRAY
+					&& ("links".equals(name) || "entities".equals(name))) {
+				readLinks(parser, extractedLinks);
+			}
+			else {
+				parser.skipChildren();
+			}
+		}
+	}
+
+	private void readLinks(JsonParser parser, Map<String, List<Link>> extractedLinks)
+			throws IOException {
+		List<String> rels = new ArrayList<String>();
+		while (parser.nextToken() != JsonToken.END_ARRAY) {
+			if (parser.getCurrentToken() != JsonToken.START_OBJECT) {
+				parser.skipChildren();
+				continue;
+			}
+			rels.clear();
+			String href = null;
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String name = parser.getCurrentName();
+				JsonToken value = parser.nextToken();
+				if ("href".equals(name)) {
+					href = readString(parser);
+				}
+				else if ("rel".equals(name) && value == JsonToken.START_ARRAY) {
+					while (parser.nextToken() != JsonToken.END_ARRAY) {
+						String rel = readString(parser);
+						if (rel != null) {
+							rels.add(rel);
+						}
+					}
+				}
+				else {
+					parser.skipChildren();
+				}
+			}
+			if (href != null) {
+				for (String rel : rels) {
+					linksForRel(rel, extractedLinks).add(new Link(rel, href));
+				}
+			}
+		}
+	}
+
+}
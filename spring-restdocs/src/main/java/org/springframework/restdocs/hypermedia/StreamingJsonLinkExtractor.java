@@ -0,0 +1,241 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.restdocs.hypermedia;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.restdocs.format.ContentDecoder;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Base class for {@link LinkExtractor LinkExtractors} that find links in JSON content by
+ * reading it as a stream of tokens. Parts of the content that cannot contain links are
+ * skipped without being materialized.
+ *
+ * @author Andy Wilkinson
+ */
+abstract class StreamingJsonLinkExtractor implements LinkExtractor {
+
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+	@Override
+	public Map<String, List<Link>> extractLinks(MockHttpServletResponse response)
+			throws IOException {
+		Map<String, List<Link>> extractedLinks = new LinkedHashMap<String, List<Link>>();
+		JsonParser parser = JSON_FACTORY.createParser(ContentDecoder
+				.getContentAsString(response));
+		try {
+			if (parser.nextToken() == JsonToken.START_OBJECT) {
+				extractLinks(parser, extractedLinks);
+			}
+		}
+		finally {
+			parser.close();
+		}
+		return extractedLinks;
+	}
+
+	/**
+	 * Extracts the links from the top-level object on which the given {@code parser} is
+	 * positioned, storing them in the given {@code extractedLinks}. The rest of the
+	 * content need not be read once all of the links have been extracted.
+	 *
+	 * @param parser the parser, positioned on the start of the top-level object
+	 * @param extractedLinks the links extracted so far, keyed by rel
+	 * @throws IOException if the content cannot be read
+	 */
+	protected abstract void extractLinks(JsonParser parser,
+			Map<String, List<Link>> extractedLinks) throws IOException;
+
+	/**
+	 * Advances the given {@code parser}, which is positioned on the start of an object,
+	 * to the value of the field at the given {@code path} of nested field names. Fields
+	 * that are not on the path are skipped.
+	 *
+	 * @param parser the parser
+	 * @param path the field names
+	 * @return the token at the start of the field's value, or {@code null} if the field
+	 * was not found
+	 * @throws IOException if the content cannot be read
+	 */
+	protected static JsonToken nextValueAt(JsonParser parser, String... path)
+			throws IOException {
+		JsonToken value = JsonToken.START_OBJECT;
+		for (String field : path) {
+			if (value != JsonToken.START_OBJECT) {
+				return null;
+			}
+			value = null;
+			while (value == null && parser.nextToken() == JsonToken.FIELD_NAME) {
+				boolean onPath = field.equals(parser.getCurrentName());
+				parser.nextToken();
+				if (onPath) {
+					value = parser.getCurrentToken();
+				}
+				else {
+					parser.skipChildren();
+				}
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * Reads an object on which the given {@code parser} is positioned that maps rels to
+	 * links. Each link is either an href string or an object with an {@code href} field,
+	 * and a rel may map to a single link or to an array of links. Each rel is prefixed
+	 * with the given {@code relPrefix}. Links without a string href are ignored, as is a
+	 * rel that has no such link.
+	 *
+	 * @param parser the parser, positioned on the start of the object
+	 * @param relPrefix the prefix for each rel
+	 * @param extractedLinks the links extracted so far, keyed by rel
+	 * @throws IOException if the content cannot be read
+	 */
+	protected static void readLinkMap(JsonParser parser, String relPrefix,
+			Map<String, List<Link>> extractedLinks) throws IOException {
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String rel = relPrefix + parser.getCurrentName();
+			if (parser.nextToken() == JsonToken.START_ARRAY) {
+				while (parser.nextToken() != JsonToken.END_ARRAY) {
+					maybeAddLink(parser, rel, extractedLinks);
+				}
+			}
+			else {
+				maybeAddLink(parser, rel, extractedLinks);
+			}
+		}
+	}
+
+	private static void maybeAddLink(JsonParser parser, String rel,
+			Map<String, List<Link>> extractedLinks) throws IOException {
+		String href = null;
+		if (parser.getCurrentToken() == JsonToken.START_OBJECT) {
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				boolean isHref = "href".equals(parser.getCurrentName());
+				parser.nextToken();
+				if (isHref) {
+					href = readString(parser);
+				}
+				else {
+					parser.skipChildren();
+				}
+			}
+		}
+		else {
+			href = readString(parser);
+		}
+		if (href != null) {
+			linksForRel(rel, extractedLinks).add(new Link(rel, href));
+		}
+	}
+
+	/**
+	 * Reads an array on which the given {@code parser} is positioned of link objects that
+	 * each have a {@code rel} and an {@code href} field. The {@code rel} may be a string
+	 * or an array of strings in which case the link is stored once for each rel. Entries
+	 * without a string {@code href} or without a rel are ignored.
+	 *
+	 * @param parser the parser, positioned on the start of the array
+	 * @param extractedLinks the links extracted so far, keyed by rel
+	 * @throws IOException if the content cannot be read
+	 */
+	protected static void readLinkArray(JsonParser parser,
+			Map<String, List<Link>> extractedLinks) throws IOException {
+		List<String> rels = new ArrayList<String>();
+		while (parser.nextToken() != JsonToken.END_ARRAY) {
+			if (parser.getCurrentToken() != JsonToken.START_OBJECT) {
+				parser.skipChildren();
+				continue;
+			}
+			rels.clear();
+			String href = null;
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String name = parser.getCurrentName();
+				JsonToken value = parser.nextToken();
+				if ("href".equals(name)) {
+					href = readString(parser);
+				}
+				else if ("rel".equals(name) && value == JsonToken.START_ARRAY) {
+					while (parser.nextToken() != JsonToken.END_ARRAY) {
+						addIfNotNull(readString(parser), rels);
+					}
+				}
+				else if ("rel".equals(name)) {
+					addIfNotNull(readString(parser), rels);
+				}
+				else {
+					parser.skipChildren();
+				}
+			}
+			if (href != null) {
+				for (String rel : rels) {
+					linksForRel(rel, extractedLinks).add(new Link(rel, href));
+				}
+			}
+		}
+	}
+
+	private static void addIfNotNull(String rel, List<String> rels) {
+		if (rel != null) {
+			rels.add(rel);
+		}
+	}
+
+	/**
+	 * Reads the value on which the given {@code parser} is positioned as a string,
+	 * skipping it and returning {@code null} if it is not a string.
+	 *
+	 * @param parser the parser
+	 * @return the string or {@code null}
+	 * @throws IOException if the content cannot be read
+	 */
+	protected static String readString(JsonParser parser) throws IOException {
+		if (parser.getCurrentToken() == JsonToken.VALUE_STRING) {
+			return parser.getText();
+		}
+		parser.skipChildren();
+		return null;
+	}
+
+	/**
+	 * Returns the links with the given {@code rel}, creating and storing an empty list if
+	 * there are none yet.
+	 *
+	 * @param rel the rel
+	 * @param extractedLinks the links extracted so far, keyed by rel
+	 * @return the links with the rel
+	 */
+	protected static List<Link> linksForRel(String rel,
+			Map<String, List<Link>> extractedLinks) {
+		List<Link> linksForRel = extractedLinks.get(rel);
+		if (linksForRel == null) {
+			linksForRel = new ArrayList<Link>();
+			extractedLinks.put(rel, linksForRel);
+		}
+		return linksForRel;
+	}
+
+}
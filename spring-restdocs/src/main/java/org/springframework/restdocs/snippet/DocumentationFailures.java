@@ -0,0 +1,220 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.restdocs.snippet;
+
+import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.junit.Assert;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.web.servlet.MvcResult;
+
+/**
+ * A registry of documentation failures, such as undocumented or missing links, that are
+ * collected during a run rather than failing each documented call. Collection is
+ * enabled by setting the {@code org.springframework.restdocs.collectFailures} property
+ * to {@code true}. The property is read each time a failure is reported.
+ * <p>
+ * Collected failures are grouped by endpoint and written to standard error when the JVM
+ * exits. To fail the build instead, call {@link #assertNoFailures()} once all of the
+ * documentation tests have run, for example from a suite's {@code @AfterClass} method.
+ * Work that completes the run's output when the JVM exits is registered using
+ * {@link #runAtExit(Runnable)} so that its failures are included in the report. The
+ * registry is safe to use from any number of threads.
+ * 
+ * @author Andy Wilkinson
+ * @see DocumentationProperties#isCollectFailures()
+ */
+public final class DocumentationFailures {
+
+	// Failures are recorded under the read lock and drained under the write lock so that
+	// a failure is never recorded in a map that has already been drained
+	private static final ReadWriteLock LOCK = new ReentrantReadWriteLock();
+
+	private static final String END_OF_RUN = "End of run";
+
+	private static final AtomicBoolean SHUTDOWN_HOOK_REGISTERED = new AtomicBoolean();
+
+	private static final Queue<Runnable> EXIT_TASKS = new ConcurrentLinkedQueue<Runnable>();
+
+	private static volatile ConcurrentMap<String, Queue<String>> failuresByEndpoint = new ConcurrentSkipListMap<String, Queue<String>>();
+
+	private DocumentationFailures() {
+
+	}
+
+	/**
+	 * Returns a report of the failures that have been collected, grouped by endpoint, or
+	 * {@code null} if there are none.
+	 * 
+	 * @return the report, or {@code null}
+	 */
+	public static String getReport() {
+		return getReport(failuresByEndpoint);
+	}
+
+	/**
+	 * Asserts that no failures have been collected. If there are failures, an
+	 * {@link AssertionError} describing all of them is thrown and the failures are
+	 * cleared. Failures that are reported while the assertion is being made are either
+	 * included in the error or kept for a later assertion.
+	 */
+	public static void assertNoFailures() {
+		String report = getReport(drain());
+		if (report != null) {
+			Assert.fail(report);
+		}
+	}
+
+	/**
+	 * Reports a documentation failure found while documenting the given {@code result}
+	 * in the given {@code outputDir}. When failures are being collected the failure is
+	 * recorded, otherwise it is thrown as an {@link AssertionError}.
+	 * 
+	 * @param outputDir the output directory of the documented call
+	 * @param result the result of the documented call
+	 * @param message a description of the failure
+	 */
+	public static void report(String outputDir, MvcResult result, String message) {
+		if (isCollecting()) {
+			record(describeEndpoint(result), "[" + outputDir + "] " + message);
+		}
+		else {
+			Assert.fail(message);
+		}
+	}
+
+	/**
+	 * Registers a {@code task} that completes the output of the run when the JVM exits.
+	 * The task is run before the collected failures are written to standard error and
+	 * any failure that it reports using {@link #reportAtExit(String)}, or that it throws,
+	 * is included in what is written.
+	 * 
+	 * @param task the task to run when the JVM exits
+	 */
+	public static void runAtExit(Runnable task) {
+		EXIT_TASKS.add(task);
+		registerShutdownHook();
+	}
+
+	/**
+	 * Reports a failure that occurred while completing the output of the run, rather
+	 * than while documenting a call. As it can no longer fail a test, the failure is
+	 * always recorded, whether or not failures are being collected.
+	 * 
+	 * @param message a description of the failure
+	 * @see #runAtExit(Runnable)
+	 */
+	public static void reportAtExit(String message) {
+		record(END_OF_RUN, message);
+	}
+
+	private static String getReport(ConcurrentMap<String, Queue<String>> failures) {
+		if (failures.isEmpty()) {
+			return null;
+		}
+		StringBuilder report = new StringBuilder("Documentation failures were found:");
+		for (Entry<String, Queue<String>> entry : failures.entrySet()) {
+			report.append(String.format("%n%n%s", entry.getKey()));
+			for (String failure : entry.getValue()) {
+				report.append(String.format("%n  - %s", failure));
+			}
+		}
+		return report.toString();
+	}
+
+	static void record(String endpoint, String failure) {
+		LOCK.readLock().lock();
+		try {
+			Queue<String> failures = failuresByEndpoint.get(endpoint);
+			if (failures == null) {
+				Queue<String> newFailures = new ConcurrentLinkedQueue<String>();
+				failures = failuresByEndpoint.putIfAbsent(endpoint, newFailures);
+				if (failures == null) {
+					failures = newFailures;
+				}
+			}
+			failures.add(failure);
+		}
+		finally {
+			LOCK.readLock().unlock();
+		}
+		registerShutdownHook();
+	}
+
+	private static void registerShutdownHook() {
+		if (SHUTDOWN_HOOK_REGISTERED.compareAndSet(false, true)) {
+			Runtime.getRuntime().addShutdownHook(
+					new Thread(new ReportPrinter(), "restdocs-failure-report"));
+		}
+	}
+
+	static void clear() {
+		drain();
+	}
+
+	private static ConcurrentMap<String, Queue<String>> drain() {
+		LOCK.writeLock().lock();
+		try {
+			ConcurrentMap<String, Queue<String>> drained = failuresByEndpoint;
+			failuresByEndpoint = new ConcurrentSkipListMap<String, Queue<String>>();
+			return drained;
+		}
+		finally {
+			LOCK.writeLock().unlock();
+		}
+	}
+
+	private static boolean isCollecting() {
+		return DocumentationProperties.get().isCollectFailures();
+	}
+
+	private static String describeEndpoint(MvcResult result) {
+		MockHttpServletRequest request = result.getRequest();
+		if (request == null) {
+			return "Unknown endpoint";
+		}
+		return request.getMethod() + " " + request.getRequestURI();
+	}
+
+	private static final class ReportPrinter implements Runnable {
+
+		@Override
+		public void run() {
+			for (Runnable task : EXIT_TASKS) {
+				try {
+					task.run();
+				}
+				catch (RuntimeException ex) {
+					reportAtExit(ex.toString());
+				}
+			}
+			String report = getReport();
+			if (report != null) {
+				System.err.println(report);
+			}
+		}
+
+	}
+
+}
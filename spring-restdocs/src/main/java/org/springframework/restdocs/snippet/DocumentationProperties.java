@@ -19,15 +19,36 @@ package org.springframework.restdocs.snippet;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 
 import org.springframework.util.StringUtils;
 
-class DocumentationProperties {
+/**
+ * Provides access to the documentation configuration. Configuration is read from an
+ * optional {@code documentation.properties} file on the classpath and from the system
+ * properties, with the latter taking precedence.
+ * <p>
+ * The configuration that is used by the run is available from {@link #get()}. It is
+ * read when it is first needed, rather than during class initialization, so that a
+ * problem with it is reported to the caller, and it is then shared so that every part
+ * of the run sees the same configuration.
+ * 
+ * @author Andy Wilkinson
+ */
+public class DocumentationProperties {
+
+	private static volatile DocumentationProperties shared;
 
 	private final Properties properties = new Properties();
 
-	DocumentationProperties() {
+	/**
+	 * Creates a new {@code DocumentationProperties} populated with the current
+	 * configuration
+	 */
+	public DocumentationProperties() {
 		InputStream stream = getClass().getClassLoader().getResourceAsStream(
 				"documentation.properties");
 		if (stream != null) {
@@ -50,7 +71,38 @@ class DocumentationProperties {
 		this.properties.putAll(System.getProperties());
 	}
 
-	File getOutputDir() {
+	/**
+	 * Returns the configuration that is shared by the run, reading it if it has not been
+	 * read yet
+	 * 
+	 * @return the shared configuration
+	 */
+	public static DocumentationProperties get() {
+		DocumentationProperties properties = shared;
+		if (properties == null) {
+			properties = new DocumentationProperties();
+			shared = properties;
+		}
+		return properties;
+	}
+
+	/**
+	 * Discards the shared configuration so that it is read again when it is next needed,
+	 * for example once a test has changed the system properties. Configuration that has
+	 * already been acted upon, such as the HAR file that is being written, is not
+	 * affected.
+	 */
+	public static void reset() {
+		shared = null;
+	}
+
+	/**
+	 * Returns the configured output directory or {@code null} if one has not been
+	 * configured
+	 * 
+	 * @return the output directory, or {@code null}
+	 */
+	public File getOutputDir() {
 		String outputDir = this.properties
 				.getProperty("org.springframework.restdocs.outputDir");
 		if (StringUtils.hasText(outputDir)) {
@@ -58,4 +110,126 @@ class DocumentationProperties {
 		}
 		return null;
 	}
+
+	/**
+	 * Returns the names of the snippets that should be produced by default or
+	 * {@code null} if they have not been configured. The names are configured as a
+	 * comma-separated list.
+	 * 
+	 * @return the names of the default snippets, or {@code null}
+	 */
+	public List<String> getDefaultSnippets() {
+		String defaultSnippets = this.properties
+				.getProperty("org.springframework.restdocs.defaultSnippets");
+		if (defaultSnippets == null) {
+			return null;
+		}
+		List<String> names = new ArrayList<String>();
+		for (String name : StringUtils.commaDelimitedListToStringArray(defaultSnippets)) {
+			if (StringUtils.hasText(name)) {
+				names.add(name.trim());
+			}
+		}
+		return names;
+	}
+
+	/**
+	 * Returns whether or not documentation is enabled. Documentation is enabled unless
+	 * the {@code org.springframework.restdocs.enabled} property is {@code false}.
+	 * 
+	 * @return {@code true} if documentation is enabled, otherwise {@code false}
+	 */
+	public boolean isEnabled() {
+		String enabled = this.properties
+				.getProperty("org.springframework.restdocs.enabled");
+		return !StringUtils.hasText(enabled) || Boolean.valueOf(enabled.trim());
+	}
+
+	/**
+	 * Returns whether or not the snippets for a documented call should be produced
+	 * concurrently. Snippets are produced sequentially unless the
+	 * {@code org.springframework.restdocs.concurrent} property is {@code true}.
+	 * 
+	 * @return {@code true} if snippets should be produced concurrently, otherwise
+	 * {@code false}
+	 */
+	public boolean isConcurrent() {
+		String concurrent = this.properties
+				.getProperty("org.springframework.restdocs.concurrent");
+		return StringUtils.hasText(concurrent) && Boolean.valueOf(concurrent.trim());
+	}
+
+	/**
+	 * Returns whether or not documentation failures, such as an undocumented link,
+	 * should be collected and reported at the end of the run rather than failing the
+	 * documented call. Failures are not collected unless the
+	 * {@code org.springframework.restdocs.collectFailures} property is {@code true}.
+	 * 
+	 * @return {@code true} if failures should be collected, otherwise {@code false}
+	 * @see DocumentationFailures
+	 */
+	public boolean isCollectFailures() {
+		String collectFailures = this.properties
+				.getProperty("org.springframework.restdocs.collectFailures");
+		return StringUtils.hasText(collectFailures)
+				&& Boolean.valueOf(collectFailures.trim());
+	}
+
+	/**
+	 * Returns whether or not the schemas that are documented should be fingerprinted
+	 * and compared with those of the previous run so that the schemas that have changed
+	 * are reported. Schema changes are not tracked unless the
+	 * {@code org.springframework.restdocs.trackSchemaChanges} property is {@code true}
+	 * and an output directory has been configured.
+	 * 
+	 * @return {@code true} if schema changes should be tracked, otherwise {@code false}
+	 */
+	public boolean isTrackSchemaChanges() {
+		String trackSchemaChanges = this.properties
+				.getProperty("org.springframework.restdocs.trackSchemaChanges");
+		return StringUtils.hasText(trackSchemaChanges)
+				&& Boolean.valueOf(trackSchemaChanges.trim()) && getOutputDir() != null;
+	}
+
+	/**
+	 * Returns the file to which every documented request and response should be
+	 * exported as an HTTP Archive (HAR) or {@code null} if one has not been configured.
+	 * The file is configured using the {@code org.springframework.restdocs.harFile}
+	 * property. The file is replaced by each JVM that documents calls, so JVMs that run
+	 * tests at the same time must each be configured with a different file.
+	 * 
+	 * @return the HAR file, or {@code null}
+	 */
+	public File getHarFile() {
+		String harFile = this.properties.getProperty("org.springframework.restdocs.harFile");
+		if (StringUtils.hasText(harFile)) {
+			return new File(harFile.trim()).getAbsoluteFile();
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the charset that should be used to decode request and response bodies
+	 * whose {@code Content-Type} does not specify a charset or {@code null} if one has
+	 * not been configured.
+	 * 
+	 * @return the default charset, or {@code null}
+	 * @throws IllegalArgumentException if the configured charset is not supported
+	 */
+	public Charset getDefaultCharset() {
+		String defaultCharset = this.properties
+				.getProperty("org.springframework.restdocs.defaultCharset");
+		if (StringUtils.hasText(defaultCharset)) {
+			try {
+				return Charset.forName(defaultCharset.trim());
+			}
+			catch (IllegalArgumentException ex) {
+				throw new IllegalArgumentException(
+						"Invalid org.springframework.restdocs.defaultCharset property: "
+								+ "the charset '" + defaultCharset.trim()
+								+ "' is not supported", ex);
+			}
+		}
+		return null;
+	}
 }
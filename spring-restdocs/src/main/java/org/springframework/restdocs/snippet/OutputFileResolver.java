@@ -92,7 +92,7 @@ class OutputFileResolver {
 	}
 
 	private File makeRelativeToConfiguredOutputDir(File outputFile) {
-		File configuredOutputDir = new DocumentationProperties().getOutputDir();
+		File configuredOutputDir = DocumentationProperties.get().getOutputDir();
 		if (configuredOutputDir != null) {
 			return new File(configuredOutputDir, outputFile.getPath());
 		}
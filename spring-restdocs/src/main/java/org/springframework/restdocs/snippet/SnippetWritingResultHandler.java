@@ -17,7 +17,7 @@
 package org.springframework.restdocs.snippet;
 
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
@@ -44,6 +44,19 @@ public abstract class SnippetWritingResultHandler implements ResultHandler {
 	protected abstract void handle(MvcResult result, DocumentationWriter writer)
 			throws IOException;
 
+	/**
+	 * Reports a documentation failure, such as an undocumented link, found while handling
+	 * the given {@code result}. The failure is either thrown immediately or collected
+	 * and reported at the end of the run.
+	 * 
+	 * @param result the result being handled
+	 * @param message a description of the failure
+	 * @see DocumentationFailures
+	 */
+	protected void reportFailure(MvcResult result, String message) {
+		DocumentationFailures.report(this.outputDir, result, message);
+	}
+
 	@Override
 	public void handle(MvcResult result) throws IOException {
 		Writer writer = createWriter();
@@ -65,7 +78,7 @@ public abstract class SnippetWritingResultHandler implements ResultHandler {
 				throw new IllegalStateException("Failed to create directory '" + parent
 						+ "'");
 			}
-			return new FileWriter(outputFile);
+			return new OutputStreamWriter(new FileOutputStream(outputFile), "UTF-8");
 		}
 		else {
 			return new OutputStreamWriter(System.out);
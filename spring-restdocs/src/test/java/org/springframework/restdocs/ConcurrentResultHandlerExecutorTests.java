@@ -0,0 +1,81 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.restdocs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultHandler;
+
+/**
+ * Tests for {@link ConcurrentResultHandlerExecutor}.
+ *
+ * @author Andy Wilkinson
+ */
+public class ConcurrentResultHandlerExecutorTests {
+
+	private final MvcResult result = new StubMvcResult(new MockHttpServletRequest(),
+			new MockHttpServletResponse());
+
+	@Test
+	public void allHandlersAreInvoked() throws Exception {
+		final AtomicInteger invocations = new AtomicInteger();
+		ResultHandler handler = new ResultHandler() {
+
+			@Override
+			public void handle(MvcResult result) throws Exception {
+				invocations.incrementAndGet();
+			}
+		};
+		ConcurrentResultHandlerExecutor.handle(
+				Arrays.asList(handler, handler, handler), this.result);
+		assertEquals(3, invocations.get());
+	}
+
+	@Test
+	public void failuresAreAggregated() throws Exception {
+		try {
+			ConcurrentResultHandlerExecutor.handle(
+					Arrays.asList(failingHandler("one"), failingHandler("two")),
+					this.result);
+			fail("Expected an IllegalStateException");
+		}
+		catch (IllegalStateException ex) {
+			assertEquals("one", ex.getMessage());
+			assertEquals(1, ex.getSuppressed().length);
+			assertEquals("two", ex.getSuppressed()[0].getMessage());
+		}
+	}
+
+	private ResultHandler failingHandler(final String message) {
+		return new ResultHandler() {
+
+			@Override
+			public void handle(MvcResult result) throws Exception {
+				throw new IllegalStateException(message);
+			}
+		};
+	}
+
+}
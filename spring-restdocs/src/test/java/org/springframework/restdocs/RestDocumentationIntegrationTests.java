@@ -16,7 +16,13 @@
 
 package org.springframework.restdocs;
 
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.springframework.restdocs.RestDocumentation.document;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -35,6 +41,7 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.http.MediaType;
 import org.springframework.restdocs.RestDocumentationIntegrationTests.TestConfiguration;
 import org.springframework.restdocs.config.RestDocumentationConfigurer;
+import org.springframework.restdocs.snippet.DocumentationProperties;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.test.context.web.WebAppConfiguration;
@@ -64,6 +71,7 @@ public class RestDocumentationIntegrationTests {
 	public void setOutputDirSystemProperty() {
 		System.setProperty("org.springframework.restdocs.outputDir",
 				"build/generated-snippets");
+		DocumentationProperties.reset();
 	}
 
 	@Before
@@ -74,6 +82,7 @@ public class RestDocumentationIntegrationTests {
 	@After
 	public void clearOutputDirSystemProperty() {
 		System.clearProperty("org.springframework.restdocs.outputDir");
+		DocumentationProperties.reset();
 	}
 
 	@Test
@@ -125,6 +134,123 @@ public class RestDocumentationIntegrationTests {
 
 	}
 
+	@Test
+	public void selectedDefaultSnippets() throws Exception {
+		MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(this.context)
+				.apply(new RestDocumentationConfigurer()).build();
+
+		mockMvc.perform(get("/").accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andDo(document("selected").withDefaultSnippets(
+						DefaultSnippet.REQUEST_RESPONSE));
+		File directory = new File("build/generated-snippets/selected");
+		assertExpectedSnippetFilesExist(directory, "request-response.asciidoc");
+		assertFalse(new File(directory, "request.asciidoc").exists());
+		assertFalse(new File(directory, "response.asciidoc").exists());
+	}
+
+	@Test
+	public void globallyConfiguredDefaultSnippets() throws Exception {
+		System.setProperty("org.springframework.restdocs.defaultSnippets",
+				"request, http-request");
+		DocumentationProperties.reset();
+		try {
+			MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(this.context)
+					.apply(new RestDocumentationConfigurer()).build();
+
+			mockMvc.perform(get("/").accept(MediaType.APPLICATION_JSON))
+					.andExpect(status().isOk()).andDo(document("global"));
+			File directory = new File("build/generated-snippets/global");
+			assertExpectedSnippetFilesExist(directory, "request.asciidoc",
+					"http-request.asciidoc");
+			assertFalse(new File(directory, "response.asciidoc").exists());
+			assertFalse(new File(directory, "request-response.asciidoc").exists());
+		}
+		finally {
+			System.clearProperty("org.springframework.restdocs.defaultSnippets");
+			DocumentationProperties.reset();
+		}
+	}
+
+	@Test
+	public void invalidGloballyConfiguredDefaultSnippet() throws Exception {
+		System.setProperty("org.springframework.restdocs.defaultSnippets", "unknown");
+		DocumentationProperties.reset();
+		try {
+			document("invalid");
+			fail("IllegalArgumentException was not thrown");
+		}
+		catch (IllegalArgumentException ex) {
+			assertThat(ex.getMessage(), containsString("'unknown'"));
+		}
+		finally {
+			System.clearProperty("org.springframework.restdocs.defaultSnippets");
+			DocumentationProperties.reset();
+		}
+		// The failure is not cached, so documentation works once the property is fixed
+		assertTrue(document("valid") != null);
+	}
+
+	@Test
+	public void concurrentSnippetGeneration() throws Exception {
+		MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(this.context)
+				.apply(new RestDocumentationConfigurer()).build();
+
+		mockMvc.perform(get("/").accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andDo(document("{method-name}").concurrent(true));
+		assertExpectedSnippetFilesExist(new File(
+				"build/generated-snippets/concurrent-snippet-generation"),
+				"request.asciidoc", "response.asciidoc", "request-response.asciidoc");
+	}
+
+	@Test
+	public void snippetsAreProducedWhenTheCallCannotBeExported() throws Exception {
+		File notADirectory = File.createTempFile("har", ".tmp");
+		System.setProperty("org.springframework.restdocs.harFile", new File(
+				notADirectory, "calls.har").getPath());
+		DocumentationProperties.reset();
+		try {
+			MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(this.context)
+					.apply(new RestDocumentationConfigurer()).build();
+
+			mockMvc.perform(get("/").accept(MediaType.APPLICATION_JSON))
+					.andExpect(status().isOk()).andDo(document("unexported"));
+			fail("AssertionError was not thrown");
+		}
+		catch (AssertionError error) {
+			assertThat(error.getMessage(), containsString("HAR archive"));
+		}
+		finally {
+			System.clearProperty("org.springframework.restdocs.harFile");
+			DocumentationProperties.reset();
+			notADirectory.delete();
+		}
+		assertExpectedSnippetFilesExist(new File("build/generated-snippets/unexported"),
+				"request.asciidoc", "response.asciidoc", "request-response.asciidoc");
+	}
+
+	@Test
+	public void disabledDocumentation() throws Exception {
+		System.setProperty("org.springframework.restdocs.enabled", "false");
+		DocumentationProperties.reset();
+		try {
+			MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(this.context)
+					.apply(new RestDocumentationConfigurer()).build();
+
+			RestDocumentationResultHandler handler = document("disabled");
+			assertThat(handler, is(sameInstance(document("another"))));
+			mockMvc.perform(get("/").accept(MediaType.APPLICATION_JSON))
+					.andExpect(status().isOk())
+					.andDo(handler.withDefaultSnippets(DefaultSnippet.REQUEST));
+			assertFalse(new File("build/generated-snippets").exists());
+		}
+		finally {
+			System.clearProperty("org.springframework.restdocs.enabled");
+			DocumentationProperties.reset();
+		}
+	}
+
 	private void assertExpectedSnippetFilesExist(File directory, String... snippets) {
 		for (String snippet : snippets) {
 			assertTrue(new File(directory, snippet).isFile());
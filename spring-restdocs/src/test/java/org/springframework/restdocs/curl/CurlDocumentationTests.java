@@ -26,10 +26,12 @@ import static org.springframework.restdocs.curl.CurlDocumentation.documentCurlRe
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 import org.junit.After;
 import org.junit.Before;
@@ -39,6 +41,7 @@ import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.restdocs.StubMvcResult;
+import org.springframework.restdocs.snippet.DocumentationProperties;
 
 /**
  * Tests for {@link CurlDocumentation}
@@ -53,11 +56,13 @@ public class CurlDocumentationTests {
 	public void setup() {
 		System.setProperty("org.springframework.restdocs.outputDir",
 				this.outputDir.getAbsolutePath());
+		DocumentationProperties.reset();
 	}
 
 	@After
 	public void cleanup() {
 		System.clearProperty("org.springframework.restdocs.outputDir");
+		DocumentationProperties.reset();
 	}
 
 	@Test
@@ -178,6 +183,103 @@ public class CurlDocumentationTests {
 				hasItems("HTTP/1.1 200 OK", "content"));
 	}
 
+	@Test
+	public void requestWithJsonContent() throws IOException {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/foo");
+		request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		request.setContent("{\"a\":\"alpha\"}".getBytes());
+		documentCurlRequest("request-with-json-content").handle(
+				new StubMvcResult(request, null));
+		assertThat(
+				requestSnippetLines("request-with-json-content"),
+				hasItems(
+						"$ curl http://localhost/foo -i -X POST -H \"Content-Type: application/json\" -d '{",
+						"  \"a\" : \"alpha\"", "}'"));
+	}
+
+	@Test
+	public void requestWithBinaryContentIsNotHexDumped() throws IOException {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/foo");
+		request.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+		request.setContent("content".getBytes());
+		documentCurlRequest("request-with-binary-content").handle(
+				new StubMvcResult(request, null));
+		assertThat(
+				requestSnippetLines("request-with-binary-content"),
+				hasItem("$ curl http://localhost/foo -i -X POST -H \"Content-Type: "
+						+ "application/octet-stream\" -d 'content'"));
+	}
+
+	@Test
+	public void responseWithJsonContent() throws IOException {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		response.getWriter().append("{\"a\":[\"alpha\",\"bravo\"]}");
+		documentCurlResponse("response-with-json-content").handle(
+				new StubMvcResult(null, response));
+		assertThat(responseSnippetLines("response-with-json-content"),
+				hasItems("{", "  \"a\" : [ \"alpha\", \"bravo\" ]", "}"));
+	}
+
+	@Test
+	public void responseWithUtf8Content() throws IOException {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		response.setContentType("text/plain;charset=UTF-8");
+		response.getOutputStream().write("caf\u00e9".getBytes("UTF-8"));
+		documentCurlResponse("response-with-utf8-content").handle(
+				new StubMvcResult(null, response));
+		assertThat(responseSnippetLines("response-with-utf8-content"),
+				hasItem("caf\u00e9"));
+	}
+
+	@Test
+	public void gzipCompressedResponse() throws IOException {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		response.setHeader("Content-Encoding", "gzip");
+		GZIPOutputStream gzip = new GZIPOutputStream(response.getOutputStream());
+		gzip.write("{\"a\":\"alpha\"}".getBytes("UTF-8"));
+		gzip.close();
+		documentCurlRequestAndResponse("gzip-compressed-response").handle(
+				new StubMvcResult(new MockHttpServletRequest("GET", "/foo"), response));
+		assertThat(requestResponseSnippetLines("gzip-compressed-response"), hasItems(
+				"$ curl http://localhost/foo -i --compressed", "Content-Encoding: gzip",
+				"  \"a\" : \"alpha\""));
+	}
+
+	@Test
+	public void responseWithXmlContent() throws IOException {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		response.setContentType(MediaType.APPLICATION_XML_VALUE);
+		response.getWriter().append("<a><b>alpha</b></a>");
+		documentCurlResponse("response-with-xml-content").handle(
+				new StubMvcResult(null, response));
+		assertThat(responseSnippetLines("response-with-xml-content"),
+				hasItems("<a>", "  <b>alpha</b>", "</a>"));
+	}
+
+	@Test
+	public void responseWithMalformedJsonContent() throws IOException {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		response.getWriter().append("{\"a\":");
+		documentCurlResponse("response-with-malformed-json-content").handle(
+				new StubMvcResult(null, response));
+		assertThat(responseSnippetLines("response-with-malformed-json-content"),
+				hasItem("{\"a\":"));
+	}
+
+	@Test
+	public void responseWithBodyFormattingDisabled() throws IOException {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		response.getWriter().append("{\"a\":\"alpha\"}");
+		documentCurlResponse("response-with-body-formatting-disabled").formatBodies(
+				false).handle(new StubMvcResult(null, response));
+		assertThat(responseSnippetLines("response-with-body-formatting-disabled"),
+				hasItem("{\"a\":\"alpha\"}"));
+	}
+
 	@Test
 	public void requestAndResponse() throws IOException {
 		documentCurlRequestAndResponse("request-and-response").handle(
@@ -238,7 +340,8 @@ public class CurlDocumentationTests {
 		File snippetFile = new File(snippetDir, snippetType + ".asciidoc");
 		String line = null;
 		List<String> lines = new ArrayList<String>();
-		BufferedReader reader = new BufferedReader(new FileReader(snippetFile));
+		BufferedReader reader = new BufferedReader(new InputStreamReader(
+				new FileInputStream(snippetFile), "UTF-8"));
 		try {
 			while ((line = reader.readLine()) != null) {
 				lines.add(line);
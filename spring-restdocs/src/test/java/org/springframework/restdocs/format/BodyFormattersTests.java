@@ -0,0 +1,247 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.restdocs.format;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Tests for {@link BodyFormatters}.
+ *
+ * @author Andy Wilkinson
+ */
+public class BodyFormattersTests {
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	@Test
+	public void jsonFormatterForJsonContentTypes() {
+		assertThat(BodyFormatters.formatterForContentType("application/json"),
+				is(sameInstance(BodyFormatters.prettyPrintedJson())));
+		assertThat(
+				BodyFormatters.formatterForContentType("application/hal+json;charset=UTF-8"),
+				is(sameInstance(BodyFormatters.prettyPrintedJson())));
+	}
+
+	@Test
+	public void xmlFormatterForXmlContentTypes() {
+		assertThat(BodyFormatters.formatterForContentType("application/xml"),
+				is(sameInstance(BodyFormatters.prettyPrintedXml())));
+		assertThat(BodyFormatters.formatterForContentType("text/xml"),
+				is(sameInstance(BodyFormatters.prettyPrintedXml())));
+		assertThat(BodyFormatters.formatterForContentType("application/atom+xml"),
+				is(sameInstance(BodyFormatters.prettyPrintedXml())));
+	}
+
+	@Test
+	public void binaryFormattersForBinaryContentTypes() {
+		assertThat(BodyFormatters.formatterForContentType("application/x-jackson-smile"),
+				is(sameInstance(BodyFormatters.prettyPrintedSmile())));
+		assertThat(BodyFormatters.formatterForContentType("application/cbor"),
+				is(sameInstance(BodyFormatters.prettyPrintedCbor())));
+		assertThat(BodyFormatters.formatterForContentType("application/x-protobuf"),
+				is(sameInstance(BodyFormatters.hexDump())));
+		assertThat(BodyFormatters.formatterForContentType("application/octet-stream"),
+				is(sameInstance(BodyFormatters.hexDump())));
+	}
+
+	@Test
+	public void noFormatterForOtherContentTypes() {
+		assertThat(BodyFormatters.formatterForContentType("text/plain"), is(nullValue()));
+		assertThat(BodyFormatters.formatterForContentType("not a media type"),
+				is(nullValue()));
+		assertThat(BodyFormatters.formatterForContentType(null), is(nullValue()));
+	}
+
+	@Test
+	public void prettyPrintedJson() {
+		assertEquals(String.format("{%n  \"a\" : {%n    \"b\" : [ 1, 2 ]%n  }%n}"),
+				format("{\"a\":{\"b\":[1,2]}}", "application/json"));
+	}
+
+	@Test
+	public void malformedJsonIsNotFormatted() {
+		assertEquals("{\"a\":", format("{\"a\":", "application/json"));
+	}
+
+	@Test
+	public void prettyPrintedXml() {
+		assertEquals(
+				String.format("<feed xmlns=\"http://www.w3.org/2005/Atom\">%n"
+						+ "  <title>Notes</title>%n"
+						+ "  <link rel=\"next\" href=\"/notes?page=2\"></link>%n"
+						+ "  <entry>%n    <id>1</id>%n  </entry>%n</feed>"),
+				format("<feed xmlns=\"http://www.w3.org/2005/Atom\"><title>Notes</title>"
+						+ "<link rel=\"next\" href=\"/notes?page=2\"/>"
+						+ "<entry> <id>1</id> </entry></feed>", "application/atom+xml"));
+	}
+
+	@Test
+	public void prettyPrintedXmlWithDeclarationAndPrefixedNamespace() {
+		assertEquals(String.format("<?xml version=\"1.0\"?>%n"
+				+ "<n:note xmlns:n=\"urn:notes\">%n  <n:title>Alpha</n:title>%n</n:note>"),
+				format("<?xml version=\"1.0\"?><n:note xmlns:n=\"urn:notes\">"
+						+ "<n:title>Alpha</n:title></n:note>", "application/xml"));
+	}
+
+	@Test
+	public void prettyPrintedXmlKeepsDeclaredEncodingAndStandalone() {
+		Charset latin1 = Charset.forName("ISO-8859-1");
+		String xml = "<?xml version=\"1.0\" encoding=\"ISO-8859-1\" standalone=\"yes\"?>"
+				+ "<note><title>Caf\u00e9</title></note>";
+		assertEquals(String.format("<?xml version=\"1.0\" encoding=\"ISO-8859-1\""
+				+ " standalone=\"yes\"?>%n<note>%n  <title>Caf\u00e9</title>%n</note>"),
+				BodyFormatters.format(xml.getBytes(latin1), UTF_8, "application/xml"));
+	}
+
+	@Test
+	public void prettyPrintedXmlDoesNotIndentMixedContent() {
+		assertEquals(String.format("<doc>%n  <p>Some <b>bold</b> <i>text</i></p>%n"
+				+ "  <p> Spaced <b>bold</b>%n text</p>%n</doc>"),
+				format("<doc><p>Some <b>bold</b> <i>text</i></p>"
+						+ String.format("<p> Spaced <b>bold</b>%n text</p></doc>"),
+						"application/xml"));
+	}
+
+	@Test
+	public void prettyPrintedXmlKeepsTextThatFollowsIndentedChildren() {
+		assertEquals(String.format("<p>%n  <b>Bold</b> first</p>"),
+				format("<p><b>Bold</b> first</p>", "application/xml"));
+	}
+
+	@Test
+	public void malformedXmlIsNotFormatted() {
+		assertEquals("<a><b></a>", format("<a><b></a>", "application/xml"));
+	}
+
+	@Test
+	public void smileRenderedAsPrettyPrintedJson() throws IOException {
+		ByteArrayOutputStream smile = new ByteArrayOutputStream();
+		JsonGenerator generator = new SmileFactory().createGenerator(smile);
+		generator.writeStartObject();
+		generator.writeStringField("a", "alpha");
+		generator.writeNumberField("b", 2);
+		generator.writeEndObject();
+		generator.close();
+		assertEquals(String.format("{%n  \"a\" : \"alpha\",%n  \"b\" : 2%n}"),
+				BodyFormatters.format(smile.toByteArray(), UTF_8,
+						"application/x-jackson-smile"));
+	}
+
+	@Test
+	public void cborRenderedAsPrettyPrintedJson() {
+		// {"a": [1, -2, true, null, 1.5], "b": h'0102', 3: "c"} with an indefinite array
+		byte[] cbor = new byte[] { (byte) 0xa3, 0x61, 'a', (byte) 0x9f, 0x01, 0x21,
+				(byte) 0xf5, (byte) 0xf6, (byte) 0xf9, 0x3e, 0x00, (byte) 0xff, 0x61,
+				'b', 0x42, 0x01, 0x02, 0x03, 0x61, 'c' };
+		assertEquals(String.format("{%n  \"a\" : [ 1, -2, true, null, 1.5 ],%n"
+				+ "  \"b\" : \"AQI=\",%n  \"3\" : \"c\"%n}"),
+				BodyFormatters.format(cbor, UTF_8, "application/cbor"));
+	}
+
+	@Test
+	public void cborMapKeysThatAreNotTextAreRenderedAsText() {
+		// {h'01': 0, 1.5: 1, true: 2, [1, 2]: 3, simple(16): 4}
+		byte[] cbor = new byte[] { (byte) 0xa5, 0x41, 0x01, 0x00, (byte) 0xf9, 0x3e,
+				0x00, 0x01, (byte) 0xf5, 0x02, (byte) 0x82, 0x01, 0x02, 0x03,
+				(byte) 0xf0, 0x04 };
+		assertEquals(String.format("{%n  \"AQ==\" : 0,%n  \"1.5\" : 1,%n"
+				+ "  \"true\" : 2,%n  \"[1,2]\" : 3,%n  \"simple(16)\" : 4%n}"),
+				BodyFormatters.format(cbor, UTF_8, "application/cbor"));
+	}
+
+	@Test
+	public void cborLargestUnsignedIntegerIsRendered() {
+		byte[] cbor = new byte[] { 0x1b, (byte) 0xff, (byte) 0xff, (byte) 0xff,
+				(byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff };
+		assertEquals("18446744073709551615",
+				BodyFormatters.format(cbor, UTF_8, "application/cbor"));
+	}
+
+	@Test
+	public void cborSimpleValuesAreRenderedInDiagnosticForm() {
+		byte[] cbor = new byte[] { (byte) 0x82, (byte) 0xf0, (byte) 0xf8, (byte) 0xff };
+		assertEquals("[ \"simple(16)\", \"simple(255)\" ]",
+				BodyFormatters.format(cbor, UTF_8, "application/cbor"));
+	}
+
+	@Test
+	public void cborIndefiniteLengthIntegerIsNotFormatted() {
+		byte[] cbor = new byte[] { 0x1f };
+		assertEquals(new String(cbor, UTF_8),
+				BodyFormatters.format(cbor, UTF_8, "application/cbor"));
+	}
+
+	@Test
+	public void truncatedCborIsNotFormatted() {
+		byte[] cbor = new byte[] { (byte) 0x82, 0x01 };
+		assertEquals(new String(cbor, UTF_8),
+				BodyFormatters.format(cbor, UTF_8, "application/cbor"));
+	}
+
+	@Test
+	public void protobufRenderedAsHexDump() {
+		byte[] protobuf = new byte[] { 0x08, (byte) 0x96, 0x01, 0x12, 0x03, 'f', 'o',
+				'o' };
+		assertEquals("00000000  08 96 01 12 03 66 6f 6f"
+				+ "                          |.....foo|",
+				BodyFormatters.format(protobuf, UTF_8, "application/x-protobuf"));
+	}
+
+	@Test
+	public void hexDumpIsCapped() {
+		byte[] content = new byte[4096 + 10];
+		String[] lines = BodyFormatters.format(content, UTF_8,
+				"application/octet-stream").split(System.getProperty("line.separator"));
+		assertEquals(257, lines.length);
+		assertEquals("... 10 more bytes", lines[256]);
+	}
+
+	@Test
+	public void textFormatterOnlyForTextualContentTypes() {
+		assertThat(BodyFormatters.textFormatterForContentType("application/json"),
+				is(sameInstance(BodyFormatters.prettyPrintedJson())));
+		assertThat(BodyFormatters.textFormatterForContentType("application/xml"),
+				is(sameInstance(BodyFormatters.prettyPrintedXml())));
+		assertThat(BodyFormatters.textFormatterForContentType("application/cbor"),
+				is(nullValue()));
+		assertThat(BodyFormatters.textFormatterForContentType("application/x-protobuf"),
+				is(nullValue()));
+	}
+
+	@Test
+	public void contentWithoutAFormatterIsNotFormatted() {
+		assertEquals("{\"a\":1}", format("{\"a\":1}", "text/plain"));
+	}
+
+	private String format(String content, String contentType) {
+		return BodyFormatters.format(content.getBytes(UTF_8), UTF_8, contentType);
+	}
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.restdocs.format;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Tests for {@link CapturedResponse}
+ *
+ * @author Andy Wilkinson
+ */
+public class CapturedResponseTests {
+
+	@Test
+	public void responseIsCopied() throws IOException {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		response.setStatus(HttpStatus.CREATED.value());
+		response.setContentType("application/json;charset=UTF-8");
+		response.addHeader("Link", "<http://localhost/a>; rel=\"a\"");
+		response.addHeader("Link", "<http://localhost/b>; rel=\"b\"");
+		response.getWriter().print("{\"a\":\"alpha\"}");
+		CapturedResponse captured = CapturedResponse.capture(response);
+		assertThat(captured.getStatus(), is(equalTo(HttpStatus.CREATED.value())));
+		assertThat(captured.getContentType(),
+				is(equalTo("application/json;charset=UTF-8")));
+		assertThat(captured.getHeaders("Link"), is(equalTo(Arrays.asList(
+				"<http://localhost/a>; rel=\"a\"", "<http://localhost/b>; rel=\"b\""))));
+		assertThat(captured.getContentAsString(), is(equalTo("{\"a\":\"alpha\"}")));
+	}
+
+	@Test
+	public void originalResponseIsNotCommitted() throws IOException {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		response.getWriter().print("content");
+		CapturedResponse.capture(response).getContentAsByteArray();
+		assertFalse(response.isCommitted());
+	}
+
+	@Test
+	public void laterWritesToTheOriginalAreNotSeen() throws IOException {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		response.getWriter().print("one");
+		CapturedResponse captured = CapturedResponse.capture(response);
+		response.getWriter().print("two");
+		assertThat(captured.getContentAsString(), is(equalTo("one")));
+	}
+
+	@Test
+	public void capturedResponseIsNotCapturedAgain() throws IOException {
+		CapturedResponse captured = CapturedResponse
+				.capture(new MockHttpServletResponse());
+		assertThat(CapturedResponse.capture(captured), is(sameInstance(captured)));
+	}
+
+}
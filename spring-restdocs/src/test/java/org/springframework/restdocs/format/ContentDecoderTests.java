@@ -0,0 +1,223 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.restdocs.format;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.restdocs.snippet.DocumentationProperties;
+
+/**
+ * Tests for {@link ContentDecoder}.
+ *
+ * @author Andy Wilkinson
+ */
+public class ContentDecoderTests {
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private static final Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
+
+	@Test
+	public void charsetFromContentType() {
+		assertEquals(ISO_8859_1,
+				ContentDecoder.getCharset("text/plain;charset=ISO-8859-1"));
+	}
+
+	@Test
+	public void defaultCharsetWhenContentTypeHasNoCharset() {
+		assertEquals(UTF_8, ContentDecoder.getCharset("application/json"));
+		assertEquals(UTF_8, ContentDecoder.getCharset(null));
+		assertEquals(UTF_8, ContentDecoder.getCharset("not a media type"));
+	}
+
+	@Test
+	public void decodeUsingCharset() {
+		assertEquals("caf\u00e9", ContentDecoder.decode("caf\u00e9".getBytes(UTF_8), UTF_8));
+		assertEquals("caf\u00e9",
+				ContentDecoder.decode("caf\u00e9".getBytes(ISO_8859_1), ISO_8859_1));
+	}
+
+	@Test
+	public void malformedInputIsReplaced() {
+		assertEquals("a\ufffd", ContentDecoder.decode(new byte[] { 'a', (byte) 0xff },
+				UTF_8));
+	}
+
+	@Test
+	public void decodeContentLargerThanPooledBuffer() {
+		byte[] content = new byte[128 * 1024];
+		Arrays.fill(content, (byte) 'a');
+		assertEquals(content.length, ContentDecoder.decode(content, UTF_8).length());
+		assertEquals("b", ContentDecoder.decode(new byte[] { 'b' }, UTF_8));
+	}
+
+	@Test
+	public void responseContentIsDecodedUsingContentTypeCharset() throws IOException {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		response.setContentType("application/json;charset=UTF-8");
+		response.getOutputStream().write("{\"a\":\"caf\u00e9\"}".getBytes(UTF_8));
+		assertEquals("{\"a\":\"caf\u00e9\"}", ContentDecoder.getContentAsString(response));
+	}
+
+	@Test
+	public void capturedResponseContentIsOnlyDecodedOnce() throws IOException {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		response.getOutputStream().write("content".getBytes(UTF_8));
+		CapturedResponse captured = CapturedResponse.capture(response);
+		assertThat(ContentDecoder.getContentAsString(captured),
+				is(sameInstance(ContentDecoder.getContentAsString(captured))));
+	}
+
+	@Test
+	public void laterWritesToAResponseAreDecoded() throws IOException {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		response.getOutputStream().write("one".getBytes(UTF_8));
+		assertEquals("one", ContentDecoder.getContentAsString(response));
+		response.getOutputStream().write("two".getBytes(UTF_8));
+		assertEquals("onetwo", ContentDecoder.getContentAsString(response));
+	}
+
+	@Test
+	public void configuredDefaultCharset() {
+		System.setProperty("org.springframework.restdocs.defaultCharset", "ISO-8859-1");
+		DocumentationProperties.reset();
+		try {
+			assertEquals(ISO_8859_1, ContentDecoder.getCharset("application/json"));
+		}
+		finally {
+			System.clearProperty("org.springframework.restdocs.defaultCharset");
+			DocumentationProperties.reset();
+		}
+	}
+
+	@Test
+	public void unsupportedDefaultCharsetIsReportedWithThePropertyName() {
+		System.setProperty("org.springframework.restdocs.defaultCharset", "no-such-charset");
+		DocumentationProperties.reset();
+		try {
+			ContentDecoder.getCharset("application/json");
+			fail("IllegalArgumentException was not thrown");
+		}
+		catch (IllegalArgumentException ex) {
+			assertThat(ex.getMessage(), containsString(
+					"org.springframework.restdocs.defaultCharset"));
+			assertThat(ex.getMessage(), containsString("'no-such-charset'"));
+		}
+		finally {
+			System.clearProperty("org.springframework.restdocs.defaultCharset");
+			DocumentationProperties.reset();
+		}
+		assertEquals(UTF_8, ContentDecoder.getCharset("application/json"));
+	}
+
+	@Test
+	public void gzipResponseContentIsDecompressed() throws IOException {
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		GZIPOutputStream gzip = new GZIPOutputStream(compressed);
+		gzip.write("{\"a\":\"alpha\"}".getBytes(UTF_8));
+		gzip.close();
+		assertEquals("{\"a\":\"alpha\"}",
+				ContentDecoder.getContentAsString(compressedResponse("gzip",
+						compressed.toByteArray())));
+	}
+
+	@Test
+	public void capturedResponseContentIsOnlyDecompressedOnce() throws IOException {
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		GZIPOutputStream gzip = new GZIPOutputStream(compressed);
+		gzip.write("content".getBytes(UTF_8));
+		gzip.close();
+		CapturedResponse captured = CapturedResponse.capture(compressedResponse("gzip",
+				compressed.toByteArray()));
+		byte[] content = ContentDecoder.getContentAsByteArray(captured);
+		assertEquals("content", new String(content, UTF_8));
+		assertThat(ContentDecoder.getContentAsByteArray(captured),
+				is(sameInstance(content)));
+	}
+
+	@Test
+	public void deflateResponseContentIsDecompressed() throws IOException {
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		DeflaterOutputStream deflate = new DeflaterOutputStream(compressed);
+		deflate.write("content".getBytes(UTF_8));
+		deflate.close();
+		assertEquals("content", ContentDecoder.getContentAsString(compressedResponse(
+				"deflate", compressed.toByteArray())));
+	}
+
+	@Test
+	public void rawDeflateResponseContentIsDecompressed() throws IOException {
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		DeflaterOutputStream deflate = new DeflaterOutputStream(compressed,
+				new Deflater(Deflater.DEFAULT_COMPRESSION, true));
+		deflate.write("content".getBytes(UTF_8));
+		deflate.close();
+		assertEquals("content", ContentDecoder.getContentAsString(compressedResponse(
+				"deflate", compressed.toByteArray())));
+	}
+
+	@Test
+	public void decompressedContentOverTheLimitIsMarkedAsTruncated() throws IOException {
+		int limit = 16 * 1024 * 1024;
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		GZIPOutputStream gzip = new GZIPOutputStream(compressed);
+		gzip.write(new byte[limit + 1]);
+		gzip.close();
+		byte[] content = ContentDecoder.getContentAsByteArray(compressedResponse("gzip",
+				compressed.toByteArray()));
+		String end = new String(content, limit, content.length - limit, UTF_8);
+		assertEquals(String.format("%n[Truncated: the decompressed body is longer than "
+				+ "%d bytes]", limit), end);
+	}
+
+	@Test
+	public void contentThatCannotBeDecompressedIsReturnedAsIs() throws IOException {
+		assertEquals("content", ContentDecoder.getContentAsString(compressedResponse(
+				"gzip", "content".getBytes(UTF_8))));
+	}
+
+	@Test
+	public void unsupportedContentEncodingIsNotCompressed() throws IOException {
+		assertFalse(ContentDecoder.isCompressed(compressedResponse("br",
+				"content".getBytes(UTF_8))));
+	}
+
+	private MockHttpServletResponse compressedResponse(String contentEncoding,
+			byte[] content) throws IOException {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		response.setHeader("Content-Encoding", contentEncoding);
+		response.getOutputStream().write(content);
+		return response;
+	}
+
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.restdocs.http;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.restdocs.StubMvcResult;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Tests for {@link HarArchive}
+ *
+ * @author Andy Wilkinson
+ */
+public class HarArchiveTests {
+
+	private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+	@Test
+	public void emptyArchive() throws IOException {
+		HarArchive archive = new HarArchive(this.output);
+		archive.close();
+		Map<String, Object> log = readLog();
+		assertThat(log.get("version"), is(equalTo((Object) "1.2")));
+		assertThat(log.get("entries"), is(equalTo((Object) Collections.emptyList())));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void entriesAreWrittenForEachResult() throws IOException {
+		HarArchive archive = new HarArchive(this.output);
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/notes");
+		request.setQueryString("tag=a%20b&draft");
+		request.addHeader("Accept", MediaType.APPLICATION_JSON_VALUE);
+		request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		request.setContent("{\"title\":\"Note\"}".getBytes());
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		response.setStatus(HttpStatus.CREATED.value());
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		response.addHeader("Location", "http://localhost/notes/1");
+		response.getWriter().print("{\"id\":1}");
+		archive.write(new StubMvcResult(request, response));
+		archive.write(new StubMvcResult(new MockHttpServletRequest("GET", "/"),
+				new MockHttpServletResponse()));
+		archive.close();
+
+		List<Map<String, Object>> entries = (List<Map<String, Object>>) readLog().get(
+				"entries");
+		assertThat(entries.size(), is(equalTo(2)));
+		Map<String, Object> harRequest = (Map<String, Object>) entries.get(0).get(
+				"request");
+		assertThat(harRequest.get("method"), is(equalTo((Object) "POST")));
+		assertThat(harRequest.get("url"),
+				is(equalTo((Object) "http://localhost/notes?tag=a%20b&draft")));
+		assertThat(harRequest.get("headers"), is(equalTo((Object) Arrays.asList(
+				nameValue("Accept", "application/json"),
+				nameValue("Content-Type", "application/json")))));
+		assertThat(harRequest.get("queryString"), is(equalTo((Object) Arrays.asList(
+				nameValue("tag", "a b"), nameValue("draft", "")))));
+		Map<String, Object> postData = (Map<String, Object>) harRequest.get("postData");
+		assertThat(postData.get("text"), is(equalTo((Object) "{\"title\":\"Note\"}")));
+		assertThat(harRequest.get("bodySize"), is(equalTo((Object) 16)));
+
+		Map<String, Object> harResponse = (Map<String, Object>) entries.get(0).get(
+				"response");
+		assertThat(harResponse.get("status"), is(equalTo((Object) 201)));
+		assertThat(harResponse.get("statusText"), is(equalTo((Object) "Created")));
+		Map<String, Object> content = (Map<String, Object>) harResponse.get("content");
+		assertThat(content.get("mimeType"), is(equalTo((Object) "application/json")));
+		assertThat(content.get("text"), is(equalTo((Object) "{\"id\":1}")));
+		assertThat(((List<?>) harResponse.get("headers")).size(), is(equalTo(2)));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void binaryBodiesAreWrittenAsBase64() throws IOException {
+		HarArchive archive = new HarArchive(this.output);
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/notes");
+		request.setContentType("application/cbor");
+		request.setContent(new byte[] { (byte) 0xa1, 0x61, 0x61, 0x01 });
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		response.setContentType("application/octet-stream");
+		response.getOutputStream().write(new byte[] { 0, (byte) 0xff, 0x10 });
+		archive.write(new StubMvcResult(request, response));
+		archive.close();
+
+		Map<String, Object> entry = ((List<Map<String, Object>>) readLog().get(
+				"entries")).get(0);
+		Map<String, Object> postData = (Map<String, Object>) ((Map<String, Object>) entry
+				.get("request")).get("postData");
+		assertThat(postData.get("text"), is(equalTo((Object) "oWFhAQ==")));
+		assertThat(postData.get("encoding"), is(equalTo((Object) "base64")));
+		Map<String, Object> content = (Map<String, Object>) ((Map<String, Object>) entry
+				.get("response")).get("content");
+		assertThat(content.get("text"), is(equalTo((Object) "AP8Q")));
+		assertThat(content.get("encoding"), is(equalTo((Object) "base64")));
+		assertThat(content.get("size"), is(equalTo((Object) 3)));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void textBodiesAreNotEncoded() throws IOException {
+		HarArchive archive = new HarArchive(this.output);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		response.setContentType("text/plain");
+		response.getWriter().print("Hello");
+		archive.write(new StubMvcResult(new MockHttpServletRequest("GET", "/"),
+				response));
+		archive.close();
+
+		Map<String, Object> entry = ((List<Map<String, Object>>) readLog().get(
+				"entries")).get(0);
+		Map<String, Object> content = (Map<String, Object>) ((Map<String, Object>) entry
+				.get("response")).get("content");
+		assertThat(content.get("text"), is(equalTo((Object) "Hello")));
+		assertThat(content.containsKey("encoding"), is(false));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void resultThatCannotBeWrittenDoesNotLeaveAPartialEntry() throws IOException {
+		HarArchive archive = new HarArchive(this.output);
+		MockHttpServletResponse response = new MockHttpServletResponse() {
+
+			@Override
+			public String getRedirectedUrl() {
+				throw new IllegalStateException("Broken response");
+			}
+
+		};
+		response.getWriter().print("Hello");
+		try {
+			archive.write(new StubMvcResult(new MockHttpServletRequest("GET", "/"),
+					response));
+			fail();
+		}
+		catch (IllegalStateException ex) {
+			assertThat(ex.getMessage(), is(equalTo("Broken response")));
+		}
+		archive.write(new StubMvcResult(new MockHttpServletRequest("GET", "/notes"),
+				new MockHttpServletResponse()));
+		archive.close();
+
+		List<Map<String, Object>> entries = (List<Map<String, Object>>) readLog().get(
+				"entries");
+		assertThat(entries.size(), is(equalTo(1)));
+		assertThat(((Map<String, Object>) entries.get(0).get("request")).get("url"),
+				is(equalTo((Object) "http://localhost/notes")));
+	}
+
+	@Test
+	public void resultsAfterCloseAreIgnored() throws IOException {
+		HarArchive archive = new HarArchive(this.output);
+		archive.close();
+		archive.write(new StubMvcResult(new MockHttpServletRequest("GET", "/"),
+				new MockHttpServletResponse()));
+		assertThat(readLog().get("entries"),
+				is(equalTo((Object) Collections.emptyList())));
+	}
+
+	private Map<String, String> nameValue(String name, String value) {
+		Map<String, String> nameValue = new HashMap<String, String>();
+		nameValue.put("name", name);
+		nameValue.put("value", value);
+		return nameValue;
+	}
+
+	@SuppressWarnings("unchecked")
+	private Map<String, Object> readLog() throws IOException {
+		return (Map<String, Object>) new ObjectMapper().readValue(
+				this.output.toByteArray(), Map.class).get("log");
+	}
+
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.restdocs.http;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.springframework.restdocs.http.HttpDocumentation.documentHttpClientRequest;
+import static org.springframework.restdocs.http.HttpDocumentation.documentHttpRequest;
+import static org.springframework.restdocs.http.HttpDocumentation.documentHttpieRequest;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.restdocs.StubMvcResult;
+import org.springframework.restdocs.snippet.DocumentationProperties;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.util.FileCopyUtils;
+
+/**
+ * Tests for {@link HttpDocumentation}
+ *
+ * @author Andy Wilkinson
+ */
+public class HttpDocumentationTests {
+
+	private final File outputDir = new File("build/http-documentation-tests");
+
+	@Before
+	public void setup() {
+		System.setProperty("org.springframework.restdocs.outputDir",
+				this.outputDir.getAbsolutePath());
+		DocumentationProperties.reset();
+	}
+
+	@After
+	public void cleanup() {
+		System.clearProperty("org.springframework.restdocs.outputDir");
+		DocumentationProperties.reset();
+	}
+
+	@Test
+	public void getRequest() throws IOException {
+		documentHttpRequest("get-request").handle(
+				new StubMvcResult(new MockHttpServletRequest("GET", "/foo"), null));
+		assertThat(snippet("get-request"), is(equalTo(httpBlock("GET /foo HTTP/1.1",
+				"Host: localhost", ""))));
+	}
+
+	@Test
+	public void requestWithQueryStringHeadersAndContent() throws IOException {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/foo");
+		request.setQueryString("a=alpha");
+		request.addHeader("Accept", MediaType.APPLICATION_JSON_VALUE);
+		request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		request.setContent("{\"a\":\"alpha\"}".getBytes());
+		documentHttpRequest("request-with-content").formatBodies(false).handle(
+				new StubMvcResult(request, null));
+		assertThat(snippet("request-with-content"), is(equalTo(httpBlock(
+				"POST /foo?a=alpha HTTP/1.1", "Accept: application/json",
+				"Content-Type: application/json", "Host: localhost", "",
+				"{\"a\":\"alpha\"}"))));
+	}
+
+	@Test
+	public void explicitHostHeaderIsNotDuplicated() throws IOException {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/foo");
+		request.addHeader("Host", "api.example.com");
+		documentHttpRequest("explicit-host").handle(new StubMvcResult(request, null));
+		assertThat(snippet("explicit-host"), is(equalTo(httpBlock("GET /foo HTTP/1.1",
+				"Host: api.example.com", ""))));
+	}
+
+	@Test
+	public void nonStandardPortIsIncludedInHostHeader() throws IOException {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/foo");
+		request.setRemotePort(8080);
+		documentHttpRequest("non-standard-port").handle(
+				new StubMvcResult(request, null));
+		assertThat(snippet("non-standard-port"), is(equalTo(httpBlock(
+				"GET /foo HTTP/1.1", "Host: localhost:8080", ""))));
+	}
+
+	@Test
+	public void requestOfACapturedResultIsCapturedOnce() throws IOException {
+		MvcResult result = CapturedResult.capture(new StubMvcResult(
+				new MockHttpServletRequest("GET", "/foo"), null));
+		assertThat(CapturedRequest.capture(result),
+				is(sameInstance(CapturedRequest.capture(result))));
+	}
+
+	@Test
+	public void requestIsCapturedAfresh() throws IOException {
+		MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/foo");
+		CapturedRequest first = CapturedRequest.capture(request);
+		request.setMethod("POST");
+		assertThat(first.getMethod(), is(equalTo("PUT")));
+		assertThat(CapturedRequest.capture(request).getMethod(), is(equalTo("POST")));
+	}
+
+	@Test
+	public void httpieGetRequest() throws IOException {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/foo");
+		request.addHeader("Accept", MediaType.APPLICATION_JSON_VALUE);
+		documentHttpieRequest("httpie-get").handle(new StubMvcResult(request, null));
+		assertThat(snippet("httpie-get", "httpie-request"), is(equalTo(codeBlock("bash",
+				"$ http GET 'http://localhost/foo' 'Accept:application/json'"))));
+	}
+
+	@Test
+	public void httpieRequestWithContent() throws IOException {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/foo");
+		request.setRemotePort(8080);
+		request.setContent("it's".getBytes());
+		documentHttpieRequest("httpie-content").handle(new StubMvcResult(request, null));
+		assertThat(snippet("httpie-content", "httpie-request"), is(equalTo(codeBlock(
+				"bash",
+				"$ printf '%s' 'it'\\''s' | http POST 'http://localhost:8080/foo'"))));
+	}
+
+	@Test
+	public void httpieRequestWithJsonContentIsNotFormatted() throws IOException {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/foo");
+		request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		request.setContent("{\"a\":\"b\\\\nc\"}".getBytes());
+		documentHttpieRequest("httpie-json-content").handle(
+				new StubMvcResult(request, null));
+		assertThat(snippet("httpie-json-content", "httpie-request"),
+				is(equalTo(codeBlock("bash", "$ printf '%s' '{\"a\":\"b\\\\nc\"}' | "
+						+ "http POST 'http://localhost/foo' 'Content-Type:application/json'"))));
+	}
+
+	@Test
+	public void httpClientGetRequest() throws IOException {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/foo");
+		request.addHeader("Accept", MediaType.APPLICATION_JSON_VALUE);
+		request.addHeader("Host", "api.example.com");
+		documentHttpClientRequest("http-client-get").handle(
+				new StubMvcResult(request, null));
+		assertThat(snippet("http-client-get", "http-client-request"), is(equalTo(codeBlock(
+				"java",
+				"HttpRequest request = HttpRequest.newBuilder(URI.create(\"http://localhost/foo\"))",
+				"\t\t.header(\"Accept\", \"application/json\")", "\t\t.build();"))));
+	}
+
+	@Test
+	public void httpClientRequestWithContent() throws IOException {
+		MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/foo");
+		request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		request.setContent("{\"a\":\n\"alpha\"}".getBytes());
+		documentHttpClientRequest("http-client-content").handle(
+				new StubMvcResult(request, null));
+		assertThat(snippet("http-client-content", "http-client-request"),
+				is(equalTo(codeBlock("java",
+						"HttpRequest request = HttpRequest.newBuilder(URI.create(\"http://localhost/foo\"))",
+						"\t\t.header(\"Content-Type\", \"application/json\")",
+						"\t\t.method(\"PUT\", BodyPublishers.ofString(\"{\\\"a\\\":\\n\\\"alpha\\\"}\"))",
+						"\t\t.build();"))));
+	}
+
+	@Test
+	public void httpClientNonGetRequestWithoutContent() throws IOException {
+		documentHttpClientRequest("http-client-delete").handle(
+				new StubMvcResult(new MockHttpServletRequest("DELETE", "/foo"), null));
+		assertThat(snippet("http-client-delete", "http-client-request"),
+				is(equalTo(codeBlock("java",
+						"HttpRequest request = HttpRequest.newBuilder(URI.create(\"http://localhost/foo\"))",
+						"\t\t.method(\"DELETE\", BodyPublishers.noBody())",
+						"\t\t.build();"))));
+	}
+
+	private String httpBlock(String... lines) {
+		return codeBlock("http", lines);
+	}
+
+	private String codeBlock(String language, String... lines) {
+		StringBuilder block = new StringBuilder(String.format("%n[source,%s]%n----%n",
+				language));
+		for (String line : lines) {
+			block.append(String.format("%s%n", line));
+		}
+		return block.append(String.format("----%n%n")).toString();
+	}
+
+	private String snippet(String name) throws IOException {
+		return snippet(name, "http-request");
+	}
+
+	private String snippet(String name, String type) throws IOException {
+		return FileCopyUtils.copyToString(new InputStreamReader(new FileInputStream(
+				new File(this.outputDir, name + "/" + type + ".asciidoc")), "UTF-8"));
+	}
+
+}
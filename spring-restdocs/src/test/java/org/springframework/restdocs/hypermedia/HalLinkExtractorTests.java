@@ -0,0 +1,109 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.restdocs.hypermedia;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.FileCopyUtils;
+
+/**
+ * Tests for {@link HalLinkExtractor}.
+ *
+ * @author Andy Wilkinson
+ */
+public class HalLinkExtractorTests {
+
+	@Test
+	public void embeddedResourcesAreIgnoredByDefault() throws IOException {
+		Map<String, List<Link>> links = LinkExtractors.halLinks().extractLinks(
+				createResponse("embedded"));
+		assertThat(links.keySet(), is(equalTo(rels("self"))));
+		assertThat(links.get("self"), is(equalTo(Arrays.asList(new Link("self",
+				"http://example.com/notes")))));
+	}
+
+	@Test
+	public void linksOfEmbeddedResourcesAreAggregatedByRelation() throws IOException {
+		Map<String, List<Link>> links = LinkExtractors.halLinks(1, 10).extractLinks(
+				createResponse("embedded"));
+		assertThat(links.keySet(), is(equalTo(rels("self", "notes.self", "notes.tags",
+				"notes.author", "owner.self"))));
+		assertThat(links.get("notes.self"), is(equalTo(Arrays.asList(new Link(
+				"notes.self", "http://example.com/notes/1"), new Link("notes.self",
+				"http://example.com/notes/2"), new Link("notes.self",
+				"http://example.com/notes/3")))));
+	}
+
+	@Test
+	public void embeddedResourcesBeyondMaximumDepthAreIgnored() throws IOException {
+		Map<String, List<Link>> links = LinkExtractors.halLinks(2, 10).extractLinks(
+				createResponse("embedded"));
+		assertThat(links.keySet(), is(equalTo(rels("self", "notes.self", "notes.tags",
+				"notes.author", "notes.tags.self", "owner.self"))));
+	}
+
+	@Test
+	public void embeddedItemsBeyondMaximumAreIgnored() throws IOException {
+		Map<String, List<Link>> links = LinkExtractors.halLinks(2, 2).extractLinks(
+				createResponse("embedded"));
+		assertThat(links.keySet(), is(equalTo(rels("self", "notes.self", "notes.tags",
+				"notes.tags.self", "owner.self"))));
+		assertThat(links.get("notes.self").size(), is(2));
+	}
+
+	@Test
+	public void relsWithoutALinkWithAnHrefAreIgnored() throws IOException {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		response.getWriter().print("{\"_links\": {\"self\": "
+				+ "{\"href\": \"http://example.com\"}, \"empty\": null, \"untitled\": {\"title\": \"No href\"},"
+				+ " \"none\": [{\"title\": \"No href\"}]}}");
+		Map<String, List<Link>> links = LinkExtractors.halLinks().extractLinks(response);
+		assertThat(links.keySet(), is(equalTo(rels("self"))));
+	}
+
+	@Test(expected = IOException.class)
+	public void truncatedContent() throws IOException {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		response.getWriter().print("{\"_embedded\": {\"notes\": [ {\"_links\": {");
+		LinkExtractors.halLinks(1, 10).extractLinks(response);
+	}
+
+	private Set<String> rels(String... rels) {
+		return new HashSet<>(Arrays.asList(rels));
+	}
+
+	private MockHttpServletResponse createResponse(String contentName) throws IOException {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		FileCopyUtils.copy(new FileReader(new File("src/test/resources/link-payloads/hal/"
+				+ contentName + ".json")), response.getWriter());
+		return response;
+	}
+
+}
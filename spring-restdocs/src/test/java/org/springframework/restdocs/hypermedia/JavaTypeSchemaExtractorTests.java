@@ -0,0 +1,211 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.restdocs.hypermedia;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategy;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+
+/**
+ * Tests for {@link JavaTypeSchemaExtractor}.
+ *
+ * @author Andy Wilkinson
+ */
+public class JavaTypeSchemaExtractorTests {
+
+	@Test
+	public void nestedTypes() throws IOException {
+		SchemaDescriptor schema = SchemaExtractors.typeSchema(Note.class).extractSchema(
+				new MockHttpServletResponse());
+		SchemaDescriptor expected = new SchemaDescriptor(Note.class.getName())
+				.description(null, Arrays.asList(new SchemaProperty("id", "integer",
+						null, true), new SchemaProperty("body", "string", null, false),
+						new SchemaProperty("tags", "array", null, false),
+						new SchemaProperty("tags[].name", "string", null, false),
+						new SchemaProperty("tags[].notes", "array", null, false),
+						new SchemaProperty("attributes", "object", null, false),
+						new SchemaProperty("title", "string", null, true)));
+		assertThat(schema, is(equalTo(expected)));
+	}
+
+	@Test
+	public void parameterizedType() throws IOException {
+		SchemaDescriptor schema = SchemaExtractors.typeSchema(
+				TypeFactory.defaultInstance().constructParametricType(Page.class,
+						Tag.class)).extractSchema(new MockHttpServletResponse());
+		assertThat(schema.getPropertyNames(), is(equalTo((Object) set("content",
+				"content.name", "content.notes", "content.notes[].id",
+				"content.notes[].body", "content.notes[].tags",
+				"content.notes[].attributes", "content.notes[].title"))));
+	}
+
+	@Test
+	public void propertiesAreCachedPerType() {
+		ObjectMapper objectMapper = new ObjectMapper();
+		assertThat(JavaTypeSchemaExtractor.getProperties(TypeFactory.defaultInstance()
+				.constructType(Tag.class), objectMapper),
+				is(sameInstance(JavaTypeSchemaExtractor.getProperties(TypeFactory
+						.defaultInstance().constructType(Tag.class), objectMapper))));
+	}
+
+	@Test
+	public void propertiesAreCachedPerMapperConfiguration() {
+		ObjectMapper objectMapper = new ObjectMapper();
+		List<SchemaProperty> properties = JavaTypeSchemaExtractor.getProperties(
+				TypeFactory.defaultInstance().constructType(Tag.class), objectMapper);
+		objectMapper
+				.setPropertyNamingStrategy(PropertyNamingStrategy.CAMEL_CASE_TO_LOWER_CASE_WITH_UNDERSCORES);
+		assertThat(JavaTypeSchemaExtractor.getProperties(TypeFactory.defaultInstance()
+				.constructType(Tag.class), objectMapper), is(not(sameInstance(properties))));
+	}
+
+	@Test
+	public void applicationObjectMapperIsUsed() throws IOException {
+		ObjectMapper objectMapper = new ObjectMapper();
+		objectMapper
+				.setPropertyNamingStrategy(PropertyNamingStrategy.CAMEL_CASE_TO_LOWER_CASE_WITH_UNDERSCORES);
+		SchemaDescriptor schema = SchemaExtractors.typeSchema(Author.class,
+				objectMapper).extractSchema(new MockHttpServletResponse());
+		assertThat(schema.getPropertyNames(), is(equalTo((Object) set("first_name",
+				"last_name"))));
+	}
+
+	@Test
+	public void binaryPropertyIsAString() throws IOException {
+		SchemaDescriptor schema = SchemaExtractors.typeSchema(Attachment.class)
+				.extractSchema(new MockHttpServletResponse());
+		SchemaDescriptor expected = new SchemaDescriptor(Attachment.class.getName())
+				.description(null, Arrays.asList(new SchemaProperty("data", "string",
+						null, false), new SchemaProperty("sizes", "array", null, false)));
+		assertThat(schema, is(equalTo(expected)));
+	}
+
+	private static Set<String> set(String... names) {
+		return new LinkedHashSet<String>(Arrays.asList(names));
+	}
+
+	static class Note {
+
+		private long id;
+
+		private String title;
+
+		private String body;
+
+		private List<Tag> tags;
+
+		private Map<String, String> attributes;
+
+		public long getId() {
+			return this.id;
+		}
+
+		@JsonProperty(required = true)
+		public String getTitle() {
+			return this.title;
+		}
+
+		public String getBody() {
+			return this.body;
+		}
+
+		public List<Tag> getTags() {
+			return this.tags;
+		}
+
+		public Map<String, String> getAttributes() {
+			return this.attributes;
+		}
+
+	}
+
+	static class Tag {
+
+		private String name;
+
+		private List<Note> notes;
+
+		public String getName() {
+			return this.name;
+		}
+
+		public List<Note> getNotes() {
+			return this.notes;
+		}
+
+	}
+
+	static class Author {
+
+		private String firstName;
+
+		private String lastName;
+
+		public String getFirstName() {
+			return this.firstName;
+		}
+
+		public String getLastName() {
+			return this.lastName;
+		}
+
+	}
+
+	static class Attachment {
+
+		private byte[] data;
+
+		private int[] sizes;
+
+		public byte[] getData() {
+			return this.data;
+		}
+
+		public int[] getSizes() {
+			return this.sizes;
+		}
+
+	}
+
+	static class Page<T> {
+
+		private T content;
+
+		public T getContent() {
+			return this.content;
+		}
+
+	}
+
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.restdocs.hypermedia;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests for {@link JsonSchemaFlattener}.
+ *
+ * @author Andy Wilkinson
+ */
+public class JsonSchemaFlattenerTests {
+
+	@After
+	public void clearCache() {
+		JsonSchemaFlattener.clearCache();
+	}
+
+	@Test
+	public void deeplyNestedProperties() {
+		Map<String, Object> schema = new LinkedHashMap<String, Object>();
+		Map<String, Object> current = schema;
+		for (int i = 0; i < 20000; i++) {
+			Map<String, Object> child = new LinkedHashMap<String, Object>();
+			child.put("type", "object");
+			current.put("properties", map("a", child));
+			current = child;
+		}
+		List<SchemaProperty> properties = new JsonSchemaFlattener(schema).flatten();
+		assertThat(properties.size(), is(20000));
+		assertThat(properties.get(2).getName(), is(equalTo("a.a.a")));
+	}
+
+	@Test
+	public void recursiveReference() {
+		Map<String, Object> node = new LinkedHashMap<String, Object>();
+		node.put("type", "object");
+		node.put("properties", map("name", map("type", "string"), "children",
+				map("type", "array", "items", map("$ref", "#/definitions/node"))));
+		Map<String, Object> schema = map("$ref", "#/definitions/node", "definitions",
+				map("node", node));
+		assertThat(names(new JsonSchemaFlattener(schema).flatten()),
+				is(equalTo(names("name", "children"))));
+	}
+
+	@Test
+	public void referenceUsedByManyPropertiesIsFlattenedForEach() {
+		assertThat(names(new JsonSchemaFlattener(schemaWithReference()).flatten()),
+				is(equalTo(names("address", "address.street", "home", "home.street"))));
+	}
+
+	@Test
+	public void referenceToDeeplyNestedDefinition() {
+		Map<String, Object> definition = new LinkedHashMap<String, Object>();
+		Map<String, Object> current = definition;
+		for (int i = 0; i < 20000; i++) {
+			Map<String, Object> child = new LinkedHashMap<String, Object>();
+			child.put("type", "object");
+			current.put("properties", map("a", child));
+			current = child;
+		}
+		Map<String, Object> schema = map("properties", map("first", map("$ref",
+				"#/definitions/deep"), "second", map("$ref", "#/definitions/deep")),
+				"definitions", map("deep", definition));
+		List<SchemaProperty> properties = new JsonSchemaFlattener(schema).flatten();
+		assertThat(properties.size(), is(40002));
+		assertThat(properties.get(20001).getName(), is(equalTo("second")));
+		assertThat(properties.get(20002).getName(), is(equalTo("second.a")));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void referencesAreNotSharedByDifferentSchemas() {
+		Map<String, Object> first = schemaWithReference();
+		Map<String, Object> second = schemaWithReference();
+		((Map<String, Object>) ((Map<String, Object>) second.get("definitions"))
+				.get("address")).put("properties", map("city", map("type", "string")));
+		new JsonSchemaFlattener(first).flatten();
+		assertThat(names(new JsonSchemaFlattener(second).flatten()), is(equalTo(names(
+				"address", "address.city", "home", "home.city"))));
+	}
+
+	@Test
+	public void longChainOfReferences() {
+		Map<String, Object> definitions = new LinkedHashMap<String, Object>();
+		for (int i = 0; i < 20000; i++) {
+			definitions.put("d" + i, map("type", "object", "properties", map("n",
+					map("$ref", "#/definitions/d" + (i + 1)))));
+		}
+		definitions.put("d20000", map("type", "object", "properties", map("end",
+				map("type", "string"))));
+		Map<String, Object> schema = map("$ref", "#/definitions/d0", "definitions",
+				definitions);
+		List<SchemaProperty> properties = new JsonSchemaFlattener(schema).flatten();
+		assertThat(properties.size(), is(20001));
+		assertThat(properties.get(2).getName(), is(equalTo("n.n.n")));
+		assertThat(properties.get(20000).getType(), is(equalTo("string")));
+	}
+
+	@Test
+	public void identicalDefinitionsAreSharedByDifferentSchemas() {
+		new JsonSchemaFlattener(schemaWithReference()).flatten();
+		assertThat(JsonSchemaFlattener.getCacheSize(), is(1));
+		Map<String, Object> location = map("type", "object", "properties", map(
+				"street", map("type", "string")));
+		Map<String, Object> schema = map("properties", map("location", map("$ref",
+				"#/definitions/location")), "definitions", map("location", location));
+		assertThat(names(new JsonSchemaFlattener(schema).flatten()), is(equalTo(names(
+				"location", "location.street"))));
+		assertThat(JsonSchemaFlattener.getCacheSize(), is(1));
+	}
+
+	@Test
+	public void unresolvableReference() {
+		Map<String, Object> schema = map("properties", map("address", map("$ref",
+				"http://example.com/address.json", "type", "object")));
+		List<SchemaProperty> properties = new JsonSchemaFlattener(schema).flatten();
+		assertThat(names(properties), is(equalTo(names("address"))));
+	}
+
+	private Map<String, Object> schemaWithReference() {
+		Map<String, Object> address = map("type", "object", "properties", map("street",
+				map("type", "string")));
+		return map("properties", map("address", map("$ref", "#/definitions/address"),
+				"home", map("$ref", "#/definitions/address")), "definitions", map(
+				"address", address));
+	}
+
+	private List<String> names(List<SchemaProperty> properties) {
+		List<String> names = new ArrayList<String>();
+		for (SchemaProperty property : properties) {
+			names.add(property.getName());
+		}
+		return names;
+	}
+
+	private List<String> names(String... names) {
+		List<String> list = new ArrayList<String>();
+		for (String name : names) {
+			list.add(name);
+		}
+		return list;
+	}
+
+	private static Map<String, Object> map(Object... keysAndValues) {
+		Map<String, Object> map = new LinkedHashMap<String, Object>();
+		for (int i = 0; i < keysAndValues.length; i += 2) {
+			map.put((String) keysAndValues[i], keysAndValues[i + 1]);
+		}
+		return map;
+	}
+
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.restdocs.hypermedia;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.restdocs.StubMvcResult;
+import org.springframework.util.FileCopyUtils;
+
+/**
+ * Tests for {@link JsonSchemaValidator} and {@link SchemaValidatingResultHandler}.
+ *
+ * @author Andy Wilkinson
+ */
+public class JsonSchemaValidatorTests {
+
+	private static final String NOTE_SCHEMA = "{\"type\": \"object\", "
+			+ "\"required\": [\"title\"], \"additionalProperties\": false, "
+			+ "\"properties\": {\"id\": {\"type\": \"long\"}, "
+			+ "\"title\": {\"type\": \"string\"}, "
+			+ "\"status\": {\"enum\": [\"draft\", \"published\"]}, "
+			+ "\"tags\": {\"type\": \"array\", \"items\": "
+			+ "{\"$ref\": \"#/definitions/tag\"}}}, "
+			+ "\"definitions\": {\"tag\": {\"type\": \"object\", "
+			+ "\"properties\": {\"name\": {\"type\": \"string\", "
+			+ "\"required\": true}}}}}";
+
+	@Test
+	public void validContent() throws IOException {
+		assertThat(JsonSchemaValidator.forSchema(NOTE_SCHEMA).validate(
+				"{\"id\": 1, \"title\": \"Note\", \"status\": \"draft\", "
+						+ "\"tags\": [{\"name\": \"a\"}, {\"name\": \"b\"}]}"),
+				is(equalTo(Collections.<String> emptyList())));
+	}
+
+	@Test
+	public void invalidContent() throws IOException {
+		assertThat(JsonSchemaValidator.forSchema(NOTE_SCHEMA).validate(
+				"{\"id\": 1.5, \"status\": \"deleted\", \"extra\": true, "
+						+ "\"tags\": [{\"name\": \"a\"}, {\"name\": 2}, {}]}"),
+				is(equalTo(Arrays.asList("$.id: expected [integer] but found number",
+						"$.status: deleted is not one of the allowed values",
+						"$.extra: is not allowed",
+						"$.tags[1].name: expected [string] but found integer",
+						"$.tags[2].name: is required", "$.title: is required"))));
+	}
+
+	@Test
+	public void recursiveSchema() throws IOException {
+		String schema = "{\"$ref\": \"#/definitions/node\", \"definitions\": "
+				+ "{\"node\": {\"type\": \"object\", \"properties\": "
+				+ "{\"children\": {\"type\": \"array\", \"items\": "
+				+ "{\"$ref\": \"#/definitions/node\"}}}}}}";
+		assertThat(JsonSchemaValidator.forSchema(schema).validate(
+				"{\"children\": [{\"children\": [{\"children\": 1}]}]}"),
+				is(equalTo(Arrays
+						.asList("$.children[0].children[0].children: expected [array] "
+								+ "but found integer"))));
+	}
+
+	@Test
+	public void compiledValidatorsAreCached() throws IOException {
+		assertThat(JsonSchemaValidator.forSchema(NOTE_SCHEMA),
+				is(sameInstance(JsonSchemaValidator.forSchema(NOTE_SCHEMA))));
+	}
+
+	@Test
+	public void handlerReportsInvalidResponse() throws IOException {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		response.getWriter().print("{\"id\": \"one\", \"title\": \"Note\"}");
+		try {
+			HypermediaDocumentation.validateSchema("note", NOTE_SCHEMA).handle(
+					new StubMvcResult(new MockHttpServletRequest("GET", "/notes/1"),
+							response));
+			fail();
+		}
+		catch (AssertionError error) {
+			assertThat(error.getMessage(), is(equalTo("The response does not match its "
+					+ "schema: $.id: expected [integer] but found string")));
+		}
+	}
+
+	@Test
+	public void handlerReportsResponseThatIsNotJson() throws IOException {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		response.getWriter().print("{\"id\": ");
+		try {
+			HypermediaDocumentation.validateSchema("note", NOTE_SCHEMA).handle(
+					new StubMvcResult(new MockHttpServletRequest("GET", "/notes/1"),
+							response));
+			fail();
+		}
+		catch (AssertionError error) {
+			assertThat(error.getMessage(),
+					startsWith("The response is not valid JSON: Unexpected end-of-input"));
+		}
+	}
+
+	@Test
+	public void handlerReportsResponseThatIsNestedTooDeeply() throws IOException {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		for (int i = 0; i < 2000; i++) {
+			response.getWriter().print("[");
+		}
+		for (int i = 0; i < 2000; i++) {
+			response.getWriter().print("]");
+		}
+		try {
+			HypermediaDocumentation.validateSchema("nested",
+					"{\"type\": \"array\", \"items\": {\"$ref\": \"#\"}}").handle(
+					new StubMvcResult(new MockHttpServletRequest("GET", "/"), response));
+			fail();
+		}
+		catch (AssertionError error) {
+			assertThat(error.getMessage(), is(equalTo("The response could not be "
+					+ "validated: Content is nested too deeply")));
+		}
+	}
+
+	@Test
+	public void handlerAcceptsValidResponse() throws IOException {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		FileCopyUtils.copy(new FileReader(new File(
+				"src/test/resources/link-payloads/hal/single-link.json")),
+				response.getWriter());
+		HypermediaDocumentation.validateSchema("index",
+				"{\"type\": \"object\", \"required\": [\"_links\"]}").handle(
+				new StubMvcResult(new MockHttpServletRequest("GET", "/"), response));
+	}
+
+}
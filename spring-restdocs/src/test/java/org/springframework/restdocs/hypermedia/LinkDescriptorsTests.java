@@ -0,0 +1,145 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.restdocs.hypermedia;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.springframework.restdocs.hypermedia.HypermediaDocumentation.linkDescriptors;
+import static org.springframework.restdocs.hypermedia.HypermediaDocumentation.linkWithRel;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link LinkDescriptors}.
+ *
+ * @author Andy Wilkinson
+ */
+public class LinkDescriptorsTests {
+
+	private final LinkDescriptors descriptors = linkDescriptors(linkWithRel("self")
+			.description("S"), linkWithRel("next").description("N").optional(),
+			linkWithRel("ex:*").description("E").optional());
+
+	@Test
+	public void optionalLinksMayBeAbsent() {
+		assertThat(this.descriptors.verify(rels("self")), is(nullValue()));
+	}
+
+	@Test
+	public void optionalLinksMayBePresent() {
+		assertThat(this.descriptors.verify(rels("self", "next", "ex:orders")),
+				is(nullValue()));
+	}
+
+	@Test
+	public void requiredLinkMustBePresent() {
+		assertVerificationMessage(rels("next"), "Links with the following relations were "
+				+ "not found in the response: [self]");
+	}
+
+	@Test
+	public void undocumentedLink() {
+		assertVerificationMessage(rels("self", "prev"), "Links with the following "
+				+ "relations were not documented: [prev]");
+	}
+
+	@Test
+	public void extraDescriptorsAreAddedToACopy() {
+		LinkDescriptors extended = this.descriptors.and(linkWithRel("prev")
+				.description("P"));
+		assertThat(extended.verify(rels("self", "prev")), is(nullValue()));
+		assertThat(extended.getDescriptors().size(), is(4));
+		assertThat(this.descriptors.getDescriptors().size(), is(3));
+	}
+
+	@Test
+	public void laterChangesToADescriptorAreIgnored() {
+		LinkDescriptor descriptor = linkWithRel("self").description("S");
+		LinkDescriptors descriptors = linkDescriptors(descriptor);
+		descriptor.description("Changed").optional();
+		assertThat(descriptors.getDescriptors().get(0).getDescription(),
+				is(equalTo("S")));
+		assertVerificationMessage(descriptors, rels(), "Links with the following "
+				+ "relations were not found in the response: [self]");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void descriptorWithoutADescription() {
+		linkDescriptors(linkWithRel("self"));
+	}
+
+	@Test
+	public void linkCannotBeDescribedTwice() {
+		try {
+			linkDescriptors(linkWithRel("self").description("S"), linkWithRel("self")
+					.description("Again"));
+			fail();
+		}
+		catch (IllegalArgumentException ex) {
+			assertThat(ex.getMessage(),
+					is(equalTo("A link with the rel 'self' has already been described")));
+		}
+	}
+
+	@Test
+	public void linkCanBeDescribedByARelAndARelPattern() {
+		LinkDescriptors descriptors = this.descriptors.and(linkWithRel("ex:orders")
+				.description("O"));
+		assertThat(descriptors.verify(rels("self", "ex:orders", "ex:items")),
+				is(nullValue()));
+	}
+
+	@Test
+	public void relTakesPrecedenceOverAMatchingRelPattern() {
+		LinkDescriptors descriptors = linkDescriptors(linkWithRel("ex:*")
+				.description("E"), linkWithRel("ex:orders").description("O"));
+		assertVerificationMessage(descriptors, rels("ex:orders"), "Links with the "
+				+ "following relations were not found in the response: [ex:*]");
+	}
+
+	@Test
+	public void relPatternCanBeUsedTwice() {
+		assertThat(this.descriptors.and(linkWithRel("ex:*").description("Again"))
+				.verify(rels("self", "ex:orders")), is(nullValue()));
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void descriptorsCannotBeModified() {
+		this.descriptors.getDescriptors().clear();
+	}
+
+	private void assertVerificationMessage(Set<String> rels, String message) {
+		assertVerificationMessage(this.descriptors, rels, message);
+	}
+
+	private void assertVerificationMessage(LinkDescriptors descriptors,
+			Set<String> rels, String message) {
+		assertThat(descriptors.verify(rels), is(equalTo(message)));
+	}
+
+	private Set<String> rels(String... rels) {
+		return new HashSet<String>(Arrays.asList(rels));
+	}
+
+}
@@ -51,15 +51,24 @@ public class LinkExtractorsTests {
 
 	private final String linkType;
 
+	private final String contentType;
+
 	@Parameters
 	public static Collection<Object[]> data() {
-		return Arrays.asList(new Object[] { LinkExtractors.halLinks(), "hal" },
-				new Object[] { LinkExtractors.atomLinks(), "atom" });
+		return Arrays.asList(new Object[] { LinkExtractors.halLinks(), "hal",
+				"application/hal+json" }, new Object[] { LinkExtractors.atomLinks(),
+				"atom", "application/json" }, new Object[] { LinkExtractors.sirenLinks(),
+				"siren", "application/vnd.siren+json" }, new Object[] {
+				LinkExtractors.jsonApiLinks(), "json-api", "application/vnd.api+json" },
+				new Object[] { LinkExtractors.collectionJsonLinks(), "collection-json",
+						"application/vnd.collection+json" });
 	}
 
-	public LinkExtractorsTests(LinkExtractor linkExtractor, String linkType) {
+	public LinkExtractorsTests(LinkExtractor linkExtractor, String linkType,
+			String contentType) {
 		this.linkExtractor = linkExtractor;
 		this.linkType = linkType;
+		this.contentType = contentType;
 	}
 
 	@Test
@@ -99,6 +108,14 @@ public class LinkExtractorsTests {
 		assertLinks(Collections.<Link> emptyList(), links);
 	}
 
+	@Test
+	public void extractorForContentTypeWithParameters() throws IOException {
+		Map<String, List<Link>> links = LinkExtractors.extractorForContentType(
+				this.contentType + ";charset=UTF-8").extractLinks(
+				createResponse("single-link"));
+		assertLinks(Arrays.asList(new Link("alpha", "http://alpha.example.com")), links);
+	}
+
 	private void assertLinks(List<Link> expectedLinks, Map<String, List<Link>> actualLinks) {
 		Map<String, List<Link>> expectedLinksByRel = new HashMap<>();
 		for (Link expectedLink : expectedLinks) {
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.restdocs.hypermedia;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Tests for {@link LinkExtractors#linkHeaders()} and
+ * {@link LinkExtractors#combined(LinkExtractor...)}.
+ *
+ * @author Andy Wilkinson
+ */
+public class LinkHeaderLinkExtractorTests {
+
+	private final LinkExtractor linkExtractor = LinkExtractors.linkHeaders();
+
+	@Test
+	public void singleLink() throws IOException {
+		Map<String, List<Link>> links = this.linkExtractor
+				.extractLinks(createResponse("<http://alpha.example.com>; rel=\"alpha\""));
+		assertThat(links.size(), is(1));
+		assertThat(links.get("alpha"),
+				is(equalTo(Arrays.asList(new Link("alpha", "http://alpha.example.com")))));
+	}
+
+	@Test
+	public void multipleLinksInOneHeader() throws IOException {
+		Map<String, List<Link>> links = this.linkExtractor.extractLinks(createResponse(
+				"<http://example.com?page=2>; rel=next, <http://example.com?page=1>;"
+						+ " rel=\"prev first\""));
+		assertThat(links.size(), is(3));
+		assertThat(links.get("next"), is(equalTo(Arrays.asList(new Link("next",
+				"http://example.com?page=2")))));
+		assertThat(links.get("prev"), is(equalTo(Arrays.asList(new Link("prev",
+				"http://example.com?page=1")))));
+		assertThat(links.get("first"), is(equalTo(Arrays.asList(new Link("first",
+				"http://example.com?page=1")))));
+	}
+
+	@Test
+	public void multipleHeaders() throws IOException {
+		Map<String, List<Link>> links = this.linkExtractor.extractLinks(createResponse(
+				"<http://alpha.example.com/one>; rel=alpha",
+				"<http://alpha.example.com/two>; rel=alpha"));
+		assertThat(links.get("alpha"), is(equalTo(Arrays.asList(new Link("alpha",
+				"http://alpha.example.com/one"), new Link("alpha",
+				"http://alpha.example.com/two")))));
+	}
+
+	@Test
+	public void otherParametersAreIgnored() throws IOException {
+		Map<String, List<Link>> links = this.linkExtractor.extractLinks(createResponse(
+				"<http://alpha.example.com>; title=\"a; \\\"quoted\\\", title\";"
+						+ " rel=alpha; rel=ignored; type=text/html"));
+		assertThat(links, is(equalTo(Collections.singletonMap("alpha",
+				Arrays.asList(new Link("alpha", "http://alpha.example.com"))))));
+	}
+
+	@Test
+	public void malformedLinksAreSkipped() throws IOException {
+		Map<String, List<Link>> links = this.linkExtractor.extractLinks(createResponse(
+				"http://bravo.example.com; rel=bravo, <http://charlie.example.com>,"
+						+ " <http://alpha.example.com>; rel=alpha"));
+		assertThat(links, is(equalTo(Collections.singletonMap("alpha",
+				Arrays.asList(new Link("alpha", "http://alpha.example.com"))))));
+	}
+
+	@Test
+	public void noLinkHeaders() throws IOException {
+		Map<String, List<Link>> links = this.linkExtractor
+				.extractLinks(createResponse());
+		assertThat(links.isEmpty(), is(true));
+	}
+
+	@Test
+	public void combinedWithBodyLinks() throws IOException {
+		MockHttpServletResponse response = createResponse(
+				"<http://alpha.example.com/two>; rel=alpha",
+				"<http://bravo.example.com>; rel=bravo");
+		response.getWriter().print(
+				"{\"_links\": {\"alpha\": \"http://alpha.example.com/one\"}}");
+		Map<String, List<Link>> links = LinkExtractors.combined(
+				LinkExtractors.halLinks(), this.linkExtractor).extractLinks(response);
+		assertThat(links.size(), is(2));
+		assertThat(links.get("alpha"), is(equalTo(Arrays.asList(new Link("alpha",
+				"http://alpha.example.com/one"), new Link("alpha",
+				"http://alpha.example.com/two")))));
+		assertThat(links.get("bravo"), is(equalTo(Arrays.asList(new Link("bravo",
+				"http://bravo.example.com")))));
+	}
+
+	private MockHttpServletResponse createResponse(String... linkHeaders) {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		for (String linkHeader : linkHeaders) {
+			response.addHeader("Link", linkHeader);
+		}
+		return response;
+	}
+
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.restdocs.hypermedia;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.springframework.restdocs.hypermedia.HypermediaDocumentation.documentLinks;
+import static org.springframework.restdocs.hypermedia.HypermediaDocumentation.linkWithRel;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.restdocs.StubMvcResult;
+import org.springframework.restdocs.snippet.DocumentationProperties;
+
+/**
+ * Tests for {@link LinkSnippetResultHandler}.
+ *
+ * @author Andy Wilkinson
+ */
+public class LinkSnippetResultHandlerTests {
+
+	private final File outputDir = new File("build/link-snippet-result-handler-tests");
+
+	@Before
+	public void setup() {
+		System.setProperty("org.springframework.restdocs.outputDir",
+				this.outputDir.getAbsolutePath());
+		DocumentationProperties.reset();
+	}
+
+	@After
+	public void cleanup() {
+		System.clearProperty("org.springframework.restdocs.outputDir");
+		DocumentationProperties.reset();
+	}
+
+	@Test
+	public void linksAreDocumentedInDeclarationOrder() throws IOException {
+		documentLinks("declaration-order", LinkExtractors.halLinks(),
+				linkWithRel("zulu").description("Z"),
+				linkWithRel("alpha").description("A"),
+				linkWithRel("mike").description("M"),
+				linkWithRel("bravo").description("B")).handle(
+				result("zulu", "alpha", "mike", "bravo"));
+		assertThat(snippetLines("declaration-order"), is(equalTo(Arrays.asList("|===",
+				"| Relation | Description", "", "| zulu", "| Z", "", "| alpha", "| A", "",
+				"| mike", "| M", "", "| bravo", "| B", "|==="))));
+	}
+
+	@Test
+	public void undocumentedLinksAreReportedInResponseOrder() throws IOException {
+		try {
+			documentLinks("undocumented", LinkExtractors.halLinks(),
+					linkWithRel("bravo").description("B")).handle(
+					result("zulu", "bravo", "mike", "alpha"));
+			fail();
+		}
+		catch (AssertionError error) {
+			assertThat(error.getMessage(), is(equalTo("Links with the following "
+					+ "relations were not documented: [zulu, mike, alpha]")));
+		}
+	}
+
+	@Test
+	public void relPatternDocumentsMatchingLinks() throws IOException {
+		documentLinks("rel-pattern", LinkExtractors.halLinks(),
+				linkWithRel("self").description("S"),
+				linkWithRel("ex:*").description("E")).handle(
+				result("ex:orders", "self", "ex:customers"));
+		assertThat(snippetLines("rel-pattern"), is(equalTo(Arrays.asList("|===",
+				"| Relation | Description", "", "| self", "| S", "", "| ex:*", "| E",
+				"|==="))));
+	}
+
+	@Test
+	public void unmatchedRelPatternIsReportedAsMissing() throws IOException {
+		try {
+			documentLinks("unmatched-rel-pattern", LinkExtractors.halLinks(),
+					linkWithRel("self").description("S"),
+					linkWithRel("ex:*").description("E")).handle(result("self"));
+			fail();
+		}
+		catch (AssertionError error) {
+			assertThat(error.getMessage(), is(equalTo("Links with the following "
+					+ "relations were not found in the response: [ex:*]")));
+		}
+	}
+
+	@Test
+	public void linkHeadersAreNotMergedWithBodyLinksByDefault() throws IOException {
+		StubMvcResult result = result("self");
+		result.getResponse().setContentType("application/hal+json");
+		result.getResponse().addHeader("Link", "<http://next.example.com>; rel=\"next\"");
+		documentLinks("body-links-only", null, linkWithRel("self").description("S"))
+				.handle(result);
+		assertThat(snippetLines("body-links-only"), is(equalTo(Arrays.asList("|===",
+				"| Relation | Description", "", "| self", "| S", "|==="))));
+	}
+
+	@Test
+	public void linkHeadersAreUsedWhenThereIsNoExtractorForTheContentType()
+			throws IOException {
+		StubMvcResult result = result();
+		result.getResponse().setContentType("text/plain");
+		result.getResponse().addHeader("Link", "<http://next.example.com>; rel=\"next\"");
+		documentLinks("header-links", null, linkWithRel("next").description("N"))
+				.handle(result);
+		assertThat(snippetLines("header-links"), is(equalTo(Arrays.asList("|===",
+				"| Relation | Description", "", "| next", "| N", "|==="))));
+	}
+
+	private StubMvcResult result(String... rels) throws IOException {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		StringBuilder links = new StringBuilder();
+		for (String rel : rels) {
+			links.append(links.length() == 0 ? "" : ", ");
+			links.append("\"" + rel + "\": \"http://" + rel + ".example.com\"");
+		}
+		response.getWriter().print("{\"_links\": {" + links + "}}");
+		return new StubMvcResult(new MockHttpServletRequest("GET", "/"), response);
+	}
+
+	private List<String> snippetLines(String snippetName) throws IOException {
+		File snippetFile = new File(new File(this.outputDir, snippetName),
+				"links.asciidoc");
+		String line = null;
+		List<String> lines = new ArrayList<String>();
+		BufferedReader reader = new BufferedReader(new InputStreamReader(
+				new FileInputStream(snippetFile), "UTF-8"));
+		try {
+			while ((line = reader.readLine()) != null) {
+				lines.add(line);
+			}
+		}
+		finally {
+			reader.close();
+		}
+		return lines;
+	}
+
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.restdocs.hypermedia;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link RelPatternMatcher}.
+ *
+ * @author Andy Wilkinson
+ */
+public class RelPatternMatcherTests {
+
+	private final RelPatternMatcher matcher = new RelPatternMatcher(Arrays.asList(
+			"ex:*", "ex:*-v*", "*:search", "curies", "**"));
+
+	@Test
+	public void prefixPattern() {
+		assertThat(this.matcher.match("ex:orders"), is(equalTo(bits(0, 4))));
+	}
+
+	@Test
+	public void multipleWildcards() {
+		assertThat(this.matcher.match("ex:orders-v2"), is(equalTo(bits(0, 1, 4))));
+	}
+
+	@Test
+	public void suffixPattern() {
+		assertThat(this.matcher.match("ex:search"), is(equalTo(bits(0, 2, 4))));
+		assertThat(this.matcher.match("other:search"), is(equalTo(bits(2, 4))));
+	}
+
+	@Test
+	public void wildcardMatchesNoCharacters() {
+		assertThat(this.matcher.match("ex:"), is(equalTo(bits(0, 4))));
+		assertThat(this.matcher.match("ex:-v"), is(equalTo(bits(0, 1, 4))));
+	}
+
+	@Test
+	public void literalPattern() {
+		assertThat(this.matcher.match("curies"), is(equalTo(bits(3, 4))));
+		assertThat(this.matcher.match("curie"), is(equalTo(bits(4))));
+	}
+
+	@Test
+	public void noPatterns() {
+		assertThat(new RelPatternMatcher(Collections.<String> emptyList()).match("self")
+				.isEmpty(), is(true));
+	}
+
+	@Test
+	public void noMatch() {
+		assertThat(new RelPatternMatcher(Arrays.asList("ex:*")).match("self").isEmpty(),
+				is(true));
+	}
+
+	private BitSet bits(int... indexes) {
+		BitSet bits = new BitSet();
+		for (int index : indexes) {
+			bits.set(index);
+		}
+		return bits;
+	}
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.restdocs.hypermedia;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link SchemaDescriptor}.
+ *
+ * @author Andy Wilkinson
+ */
+public class SchemaDescriptorTests {
+
+	@Test
+	public void equalDescriptors() {
+		SchemaDescriptor first = descriptor(property("id"), property("title"));
+		SchemaDescriptor second = descriptor(property("id"), property("title"));
+		assertThat(first, is(equalTo(second)));
+		assertThat(first.hashCode(), is(equalTo(second.hashCode())));
+	}
+
+	@Test
+	public void descriptorWithMoreProperties() {
+		SchemaDescriptor shorter = descriptor(property("id"));
+		SchemaDescriptor longer = descriptor(property("id"), property("title"));
+		assertThat(shorter, is(not(equalTo(longer))));
+		assertThat(longer, is(not(equalTo(shorter))));
+	}
+
+	@Test
+	public void propertiesInADifferentOrder() {
+		assertThat(descriptor(property("id"), property("title")),
+				is(not(equalTo(descriptor(property("title"), property("id"))))));
+	}
+
+	@Test
+	public void hashCodeReflectsChanges() {
+		SchemaDescriptor descriptor = descriptor(property("id"));
+		int hashCode = descriptor.hashCode();
+		descriptor.description("changed");
+		assertThat(descriptor.hashCode(), is(not(equalTo(hashCode))));
+		assertThat(descriptor, is(equalTo(new SchemaDescriptor("resource").description(
+				"changed", Arrays.asList(property("id"))))));
+	}
+
+	@Test
+	public void propertiesAreIndexedByName() {
+		List<SchemaProperty> properties = new ArrayList<SchemaProperty>();
+		for (int i = 0; i < 500; i++) {
+			properties.add(property("property" + i));
+		}
+		SchemaDescriptor descriptor = new SchemaDescriptor("resource").description(
+				"description", properties);
+		assertThat(descriptor.getProperty("property250"),
+				is(equalTo(property("property250"))));
+		assertThat(descriptor.getProperty("missing"), is(nullValue()));
+		assertThat(descriptor.getProperties().iterator().next().getName(),
+				is(equalTo("property0")));
+	}
+
+	@Test
+	public void nullResourceAndDescription() {
+		assertThat(new SchemaDescriptor(null).hashCode(),
+				is(equalTo(new SchemaDescriptor(null).hashCode())));
+	}
+
+	private SchemaDescriptor descriptor(SchemaProperty... properties) {
+		return new SchemaDescriptor("resource").description("description",
+				Arrays.asList(properties));
+	}
+
+	private SchemaProperty property(String name) {
+		return new SchemaProperty(name, "string", "The " + name, false);
+	}
+
+}
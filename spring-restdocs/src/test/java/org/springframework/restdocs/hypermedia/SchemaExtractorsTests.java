@@ -71,6 +71,24 @@ public class SchemaExtractorsTests {
 		assertSchemas(expected, actual);
 	}
 
+	@Test
+	public void nestedSchema() throws IOException {
+		SchemaDescriptor actual = this.SchemaExtractor
+				.extractSchema(createResponse("nested-schema"));
+        SchemaDescriptor expected = new SchemaDescriptor("com.example.notes.Note");
+
+        expected.description("rest.description.note", Arrays.asList(
+                new SchemaProperty("title", "string", "rest.description.note.title", true),
+                new SchemaProperty("author", "object", "rest.description.note.author", false),
+                new SchemaProperty("author.name", "string", "rest.description.person.name", true),
+                new SchemaProperty("author.address", "object", null, false),
+                new SchemaProperty("author.address.city", "string", null, false),
+                new SchemaProperty("tags", "array", "rest.description.note.tags", false),
+                new SchemaProperty("tags[].name", "string", "rest.description.tag.name", true)));
+
+		assertSchemas(expected, actual);
+	}
+
 	@Test
 	public void noSchema() throws IOException {
         SchemaDescriptor actual = this.SchemaExtractor
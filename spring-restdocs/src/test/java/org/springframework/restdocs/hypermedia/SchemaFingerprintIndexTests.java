@@ -0,0 +1,217 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.restdocs.hypermedia;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.util.FileCopyUtils;
+
+/**
+ * Tests for {@link SchemaFingerprintIndex}.
+ *
+ * @author Andy Wilkinson
+ */
+public class SchemaFingerprintIndexTests {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void noChangesAreReportedWithoutAPreviousIndex() throws IOException {
+		SchemaFingerprintIndex index = new SchemaFingerprintIndex(
+				this.temporaryFolder.getRoot());
+		index.record("notes", properties(new SchemaProperty("id", "integer", null,
+				true)));
+		assertTrue(index.getChanges().isEmpty());
+		index.write();
+		assertTrue(new File(this.temporaryFolder.getRoot(),
+				SchemaFingerprintIndex.INDEX_FILE_NAME).isFile());
+	}
+
+	@Test
+	public void unchangedSchemasAreNotReported() throws IOException {
+		writeIndex("notes", new SchemaProperty("id", "integer", "The id", true));
+		SchemaFingerprintIndex index = new SchemaFingerprintIndex(
+				this.temporaryFolder.getRoot());
+		index.record("notes", properties(new SchemaProperty("id", "integer",
+				"A different description", true)));
+		assertTrue(index.getChanges().isEmpty());
+	}
+
+	@Test
+	public void addedRemovedAndRetypedPropertiesAreReported() throws IOException {
+		writeIndex("notes", new SchemaProperty("id", "integer", null, true),
+				new SchemaProperty("title", "string", null, false),
+				new SchemaProperty("body", "string", null, false));
+		SchemaFingerprintIndex index = new SchemaFingerprintIndex(
+				this.temporaryFolder.getRoot());
+		index.record("notes", properties(new SchemaProperty("id", "string", null,
+				true), new SchemaProperty("title", "string", null, false),
+				new SchemaProperty("tags", "array", null, false)));
+		Map<String, List<String[]>> changes = index.getChanges();
+		assertThat(changes.keySet().toString(), is(equalTo("[notes]")));
+		assertThat(describe(changes.get("notes")), is(equalTo(Arrays.asList(
+				"retyped id integer (required) -> string (required)", "added tags array",
+				"removed body string"))));
+	}
+
+	@Test
+	public void newSchemaIsReportedWhenThereIsAPreviousIndex() throws IOException {
+		writeIndex("notes", new SchemaProperty("id", "integer", null, true));
+		SchemaFingerprintIndex index = new SchemaFingerprintIndex(
+				this.temporaryFolder.getRoot());
+		index.record("tags", properties(new SchemaProperty("name", "string", null,
+				false)));
+		assertThat(describe(index.getChanges().get("tags")),
+				is(equalTo(Arrays.asList("added name string"))));
+	}
+
+	@Test
+	public void previousIndexIsReadIntoMemory() throws IOException {
+		writeIndex("notes", new SchemaProperty("id", "integer", null, true));
+		SchemaFingerprintIndex index = new SchemaFingerprintIndex(
+				this.temporaryFolder.getRoot());
+		assertTrue(new File(this.temporaryFolder.getRoot(),
+				SchemaFingerprintIndex.INDEX_FILE_NAME).delete());
+		index.record("notes", properties(new SchemaProperty("id", "string", null,
+				true)));
+		assertThat(describe(index.getChanges().get("notes")),
+				is(equalTo(Arrays.asList("retyped id integer (required) -> "
+						+ "string (required)"))));
+	}
+
+	@Test
+	public void schemasThatAreNotRecordedAreRetained() throws IOException {
+		writeIndex("notes", new SchemaProperty("id", "integer", null, true));
+		SchemaFingerprintIndex index = new SchemaFingerprintIndex(
+				this.temporaryFolder.getRoot());
+		index.record("tags", properties(new SchemaProperty("name", "string", null,
+				false)));
+		index.write();
+		index = new SchemaFingerprintIndex(this.temporaryFolder.getRoot());
+		index.record("notes", properties(new SchemaProperty("id", "integer", null,
+				false)));
+		assertThat(describe(index.getChanges().get("notes")),
+				is(equalTo(Arrays.asList("retyped id integer (required) -> integer"))));
+	}
+
+	@Test
+	public void manySchemasCanBeLookedUp() throws IOException {
+		SchemaFingerprintIndex index = new SchemaFingerprintIndex(
+				this.temporaryFolder.getRoot());
+		for (int i = 0; i < 500; i++) {
+			index.record("schema-" + i, properties(new SchemaProperty("id", "integer",
+					null, true)));
+		}
+		index.write();
+		index = new SchemaFingerprintIndex(this.temporaryFolder.getRoot());
+		for (int i = 0; i < 500; i++) {
+			index.record("schema-" + i, properties(new SchemaProperty("id",
+					i == 250 ? "string" : "integer", null, true)));
+		}
+		assertThat(index.getChanges().keySet().toString(),
+				is(equalTo("[schema-250]")));
+	}
+
+	@Test
+	public void inconsistentIndexIsTreatedAsNoPreviousIndex() throws IOException {
+		writeIndex("notes", new SchemaProperty("id", "integer", null, true));
+		File indexFile = new File(this.temporaryFolder.getRoot(),
+				SchemaFingerprintIndex.INDEX_FILE_NAME);
+		byte[] bytes = FileCopyUtils.copyToByteArray(indexFile);
+		// Point the record's properties beyond the end of the file
+		ByteBuffer.wrap(bytes).putInt(12 + 16, bytes.length);
+		FileCopyUtils.copy(bytes, indexFile);
+		SchemaFingerprintIndex index = new SchemaFingerprintIndex(
+				this.temporaryFolder.getRoot());
+		index.record("notes", properties(new SchemaProperty("id", "string", null,
+				true)));
+		assertTrue(index.getChanges().isEmpty());
+		index.write();
+		index = new SchemaFingerprintIndex(this.temporaryFolder.getRoot());
+		index.record("notes", properties(new SchemaProperty("id", "integer", null,
+				true)));
+		assertThat(describe(index.getChanges().get("notes")),
+				is(equalTo(Arrays.asList("retyped id string (required) -> "
+						+ "integer (required)"))));
+	}
+
+	@Test
+	public void truncatedIndexIsTreatedAsNoPreviousIndex() throws IOException {
+		writeIndex("notes", new SchemaProperty("id", "integer", null, true));
+		File indexFile = new File(this.temporaryFolder.getRoot(),
+				SchemaFingerprintIndex.INDEX_FILE_NAME);
+		byte[] bytes = FileCopyUtils.copyToByteArray(indexFile);
+		FileCopyUtils.copy(Arrays.copyOf(bytes, bytes.length - 3), indexFile);
+		SchemaFingerprintIndex index = new SchemaFingerprintIndex(
+				this.temporaryFolder.getRoot());
+		index.record("notes", properties(new SchemaProperty("id", "string", null,
+				true)));
+		assertTrue(index.getChanges().isEmpty());
+	}
+
+	@Test
+	public void changesAreWrittenAsAsciidoc() throws IOException {
+		writeIndex("notes", new SchemaProperty("id", "integer", null, true));
+		SchemaFingerprintIndex index = new SchemaFingerprintIndex(
+				this.temporaryFolder.getRoot());
+		index.record("notes", properties(new SchemaProperty("id", "string", null,
+				true)));
+		index.write();
+		String changes = FileCopyUtils.copyToString(new FileReader(new File(
+				this.temporaryFolder.getRoot(), SchemaFingerprintIndex.CHANGES_FILE_NAME)));
+		assertThat(changes, is(equalTo(String.format("=== notes%n%n|===%n"
+				+ "| Change | Property | Type%n%n| retyped%n| id%n"
+				+ "| integer (required) -> string (required)%n|===%n%n"))));
+	}
+
+	private void writeIndex(String name, SchemaProperty... properties)
+			throws IOException {
+		SchemaFingerprintIndex index = new SchemaFingerprintIndex(
+				this.temporaryFolder.getRoot());
+		index.record(name, properties(properties));
+		index.write();
+	}
+
+	private List<SchemaProperty> properties(SchemaProperty... properties) {
+		return Arrays.asList(properties);
+	}
+
+	private List<String> describe(List<String[]> changes) {
+		List<String> descriptions = new ArrayList<String>();
+		for (String[] change : changes) {
+			descriptions.add(change[0] + " " + change[1] + " " + change[2]);
+		}
+		return descriptions;
+	}
+
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.restdocs.hypermedia;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Tests for {@link SchemaInference}.
+ *
+ * @author Andy Wilkinson
+ */
+public class SchemaInferenceTests {
+
+	@After
+	public void clearInferences() {
+		SchemaInference.clear();
+	}
+
+	@Test
+	public void propertiesPresentInEveryResponseAreRequired() throws IOException {
+		SchemaInference inference = SchemaInference.forResource("required");
+		inference.merge("{\"id\":1,\"title\":\"a\"}");
+		inference.merge("{\"id\":2}");
+		assertThat(inference.toSchemaDescriptor(), is(equalTo(schema("required",
+				new SchemaProperty("id", "integer", "Present in 2 of 2", true),
+				new SchemaProperty("title", "string", "Present in 1 of 2", false)))));
+	}
+
+	@Test
+	public void observedTypesAreCombined() throws IOException {
+		SchemaInference inference = SchemaInference.forResource("types");
+		inference.merge("{\"value\":1}");
+		inference.merge("{\"value\":1.5}");
+		inference.merge("{\"value\":null}");
+		assertThat(inference.toSchemaDescriptor(), is(equalTo(schema("types",
+				new SchemaProperty("value", "integer, number, null",
+						"Present in 3 of 3", true)))));
+	}
+
+	@Test
+	public void presenceInArrayItemsIsRelativeToTheItems() throws IOException {
+		SchemaInference inference = SchemaInference.forResource("arrays");
+		inference.merge("{\"tags\":[{\"name\":\"a\",\"colour\":\"red\"},{\"name\":\"b\"}]}");
+		inference.merge("{\"tags\":[]}");
+		assertThat(inference.toSchemaDescriptor(), is(equalTo(schema("arrays",
+				new SchemaProperty("tags", "array", "Present in 2 of 2", true),
+				new SchemaProperty("tags[].name", "string", "Present in 2 of 2", true),
+				new SchemaProperty("tags[].colour", "string", "Present in 1 of 2",
+						false)))));
+	}
+
+	@Test
+	public void propertiesOfOptionalObjectsAreRelativeToTheObject() throws IOException {
+		SchemaInference inference = SchemaInference.forResource("nested");
+		inference.merge("{\"author\":{\"name\":\"a\"}}");
+		inference.merge("{}");
+		assertThat(inference.toSchemaDescriptor(), is(equalTo(schema("nested",
+				new SchemaProperty("author", "object", "Present in 1 of 2", false),
+				new SchemaProperty("author.name", "string", "Present in 1 of 1", true)))));
+	}
+
+	@Test
+	public void inferenceIsSharedByResourceName() throws IOException {
+		SchemaExtractors.inferredSchema("shared").extractSchema(response("{\"id\":1}"));
+		SchemaExtractors.inferredSchema("shared").extractSchema(response("{\"id\":2}"));
+		assertThat(SchemaInference.forResource("shared").toSchemaDescriptor()
+				.getProperty("id"), is(equalTo(new SchemaProperty("id", "integer",
+				"Present in 2 of 2", true))));
+	}
+
+	@Test
+	public void extractedSchemaDescribesOnlyTheResponse() throws IOException {
+		SchemaExtractors.inferredSchema("single").extractSchema(
+				response("{\"id\":1,\"title\":\"a\"}"));
+		SchemaDescriptor schema = SchemaExtractors.inferredSchema("single")
+				.extractSchema(response("{\"id\":2}"));
+		assertThat(schema, is(equalTo(schema("single", new SchemaProperty("id",
+				"integer", null, true)))));
+	}
+
+	@Test
+	public void reportDescribesEveryResourceInNameOrder() throws IOException {
+		SchemaInference.forResource("notes").merge("{\"id\":1}");
+		SchemaInference.forResource("authors").merge("{\"name\":\"a\"}");
+		StringWriter report = new StringWriter();
+		SchemaInference.writeReport(report);
+		assertThat(report.toString(), is(equalTo(String.format("=== authors%n%n|===%n"
+				+ "| Property | Type | Description | Required%n%n| name%n| string%n"
+				+ "| Present in 1 of 1%n| true%n|===%n%n=== notes%n%n|===%n"
+				+ "| Property | Type | Description | Required%n%n| id%n| integer%n"
+				+ "| Present in 1 of 1%n| true%n|===%n%n"))));
+	}
+
+	@Test
+	public void clearDiscardsTheInferences() throws IOException {
+		SchemaInference.forResource("cleared").merge("{\"id\":1}");
+		SchemaInference.clear();
+		assertThat(SchemaInference.forResource("cleared").toSchemaDescriptor()
+				.getProperties().isEmpty(), is(true));
+	}
+
+	private MockHttpServletResponse response(String content) throws IOException {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		response.setContentType("application/json");
+		response.getWriter().print(content);
+		return response;
+	}
+
+	private SchemaDescriptor schema(String name, SchemaProperty... properties) {
+		return new SchemaDescriptor(name).description(null, Arrays.asList(properties));
+	}
+
+}
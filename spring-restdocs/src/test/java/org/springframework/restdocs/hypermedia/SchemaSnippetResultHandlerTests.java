@@ -0,0 +1,138 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.restdocs.hypermedia;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.hasItem;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.springframework.restdocs.hypermedia.HypermediaDocumentation.documentSchema;
+import static org.springframework.restdocs.hypermedia.HypermediaDocumentation.schemaForResource;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.restdocs.StubMvcResult;
+import org.springframework.restdocs.snippet.DocumentationProperties;
+import org.springframework.util.FileCopyUtils;
+
+/**
+ * Tests for {@link SchemaSnippetResultHandler}.
+ *
+ * @author Andy Wilkinson
+ */
+public class SchemaSnippetResultHandlerTests {
+
+	private final File outputDir = new File("build/schema-snippet-result-handler-tests");
+
+	@Before
+	public void setup() {
+		System.setProperty("org.springframework.restdocs.outputDir",
+				this.outputDir.getAbsolutePath());
+		DocumentationProperties.reset();
+	}
+
+	@After
+	public void cleanup() {
+		System.clearProperty("org.springframework.restdocs.outputDir");
+		DocumentationProperties.reset();
+	}
+
+	@Test
+	public void descriptionOnly() throws IOException {
+		documentSchema("description-only", SchemaExtractors.resourceSchema(),
+				schemaForResource("notes").description("Notes")).handle(result());
+		assertThat(snippetLines("description-only"), hasItem("| title"));
+	}
+
+	@Test
+	public void documentedProperties() throws IOException {
+		documentSchema(
+				"documented-properties",
+				SchemaExtractors.resourceSchema(),
+				schemaForResource("notes").description("Notes",
+						properties("id", "title", "body"))).handle(result());
+		List<String> lines = snippetLines("documented-properties");
+		assertThat(lines.get(lines.indexOf("| title") + 2), is(equalTo("| The title")));
+	}
+
+	@Test
+	public void undocumentedAndMissingProperties() throws IOException {
+		try {
+			documentSchema(
+					"undocumented-and-missing-properties",
+					SchemaExtractors.resourceSchema(),
+					schemaForResource("notes").description("Notes",
+							properties("id", "title", "author"))).handle(result());
+			fail();
+		}
+		catch (AssertionError error) {
+			assertThat(error.getMessage(), is(equalTo("Schema properties with the "
+					+ "following names were not documented: [body]Schema properties "
+					+ "with the following names were not found in the response: "
+					+ "[author]")));
+		}
+	}
+
+	private List<SchemaProperty> properties(String... names) {
+		List<SchemaProperty> properties = new ArrayList<SchemaProperty>();
+		for (String name : names) {
+			properties.add(new SchemaProperty(name, "string", "The " + name, false));
+		}
+		return properties;
+	}
+
+	private StubMvcResult result() throws IOException {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		FileCopyUtils.copy(new FileReader(new File(
+				"src/test/resources/schema-payloads/resource/single-schema.json")),
+				response.getWriter());
+		return new StubMvcResult(new MockHttpServletRequest("GET", "/profile/notes"),
+				response);
+	}
+
+	private List<String> snippetLines(String snippetName) throws IOException {
+		File snippetFile = new File(new File(this.outputDir, snippetName),
+				"schemas.asciidoc");
+		String line = null;
+		List<String> lines = new ArrayList<String>();
+		BufferedReader reader = new BufferedReader(new InputStreamReader(
+				new FileInputStream(snippetFile), "UTF-8"));
+		try {
+			while ((line = reader.readLine()) != null) {
+				lines.add(line);
+			}
+		}
+		finally {
+			reader.close();
+		}
+		return lines;
+	}
+
+}
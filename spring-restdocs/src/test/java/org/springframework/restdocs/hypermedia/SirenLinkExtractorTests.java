@@ -0,0 +1,81 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.restdocs.hypermedia;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.FileCopyUtils;
+
+/**
+ * Tests for {@link SirenLinkExtractor}.
+ *
+ * @author Andy Wilkinson
+ */
+public class SirenLinkExtractorTests {
+
+	@Test
+	public void linkIsExtractedOnceForEachOfItsRels() throws IOException {
+		Map<String, List<Link>> links = LinkExtractors.sirenLinks().extractLinks(
+				createResponse("entities"));
+		assertThat(links.get("self"), is(equalTo(Arrays.asList(new Link("self",
+				"http://api.x.io/orders/42")))));
+		assertThat(links.get("canonical"), is(equalTo(Arrays.asList(new Link(
+				"canonical", "http://api.x.io/orders/42")))));
+	}
+
+	@Test
+	public void embeddedLinksAreExtractedAndEmbeddedRepresentationsAreNot()
+			throws IOException {
+		Map<String, List<Link>> links = LinkExtractors.sirenLinks().extractLinks(
+				createResponse("entities"));
+		assertThat(links.keySet(), is(equalTo(rels("http://x.io/rels/order-items",
+				"self", "canonical"))));
+	}
+
+	@Test
+	public void linkWithAStringRelIsIgnored() throws IOException {
+		Map<String, List<Link>> links = LinkExtractors.sirenLinks().extractLinks(
+				createResponse("entities"));
+		assertThat(links.containsKey("next"), is(false));
+	}
+
+	private Set<String> rels(String... rels) {
+		return new LinkedHashSet<String>(Arrays.asList(rels));
+	}
+
+	private MockHttpServletResponse createResponse(String contentName) throws IOException {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		FileCopyUtils.copy(new FileReader(new File(
+				"src/test/resources/link-payloads/siren/" + contentName + ".json")),
+				response.getWriter());
+		return response;
+	}
+
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.restdocs.snippet;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.restdocs.StubMvcResult;
+
+/**
+ * Tests for {@link DocumentationFailures}.
+ *
+ * @author Andy Wilkinson
+ */
+public class DocumentationFailuresTests {
+
+	@After
+	public void clearFailures() {
+		DocumentationFailures.clear();
+	}
+
+	@Test
+	public void noFailures() {
+		assertThat(DocumentationFailures.getReport(), is(nullValue()));
+		DocumentationFailures.assertNoFailures();
+	}
+
+	@Test
+	public void failuresAreGroupedByEndpoint() {
+		DocumentationFailures.record("GET /notes", "[notes] one");
+		DocumentationFailures.record("GET /", "[index] two");
+		DocumentationFailures.record("GET /notes", "[notes-list] three");
+		assertThat(DocumentationFailures.getReport(), is(equalTo(String.format(
+				"Documentation failures were found:%n%nGET /%n  - [index] two%n%n"
+						+ "GET /notes%n  - [notes] one%n  - [notes-list] three"))));
+	}
+
+	@Test
+	public void assertNoFailuresReportsAndClearsFailures() {
+		DocumentationFailures.record("GET /", "[index] one");
+		try {
+			DocumentationFailures.assertNoFailures();
+			fail();
+		}
+		catch (AssertionError error) {
+			assertThat(error.getMessage(), is(equalTo(String.format(
+					"Documentation failures were found:%n%nGET /%n  - [index] one"))));
+		}
+		assertThat(DocumentationFailures.getReport(), is(nullValue()));
+	}
+
+	@Test
+	public void reportedFailureIsThrownByDefault() {
+		try {
+			DocumentationFailures.report("index", result(), "Undocumented link");
+			fail();
+		}
+		catch (AssertionError error) {
+			assertThat(error.getMessage(), is(equalTo("Undocumented link")));
+		}
+		assertThat(DocumentationFailures.getReport(), is(nullValue()));
+	}
+
+	@Test
+	public void reportedFailureIsRecordedWhenCollectingFailures() {
+		System.setProperty("org.springframework.restdocs.collectFailures", "true");
+		DocumentationProperties.reset();
+		try {
+			DocumentationFailures.report("index", result(), "Undocumented link");
+			assertThat(DocumentationFailures.getReport(), is(equalTo(String.format(
+					"Documentation failures were found:%n%nGET /notes%n"
+							+ "  - [index] Undocumented link"))));
+		}
+		finally {
+			System.clearProperty("org.springframework.restdocs.collectFailures");
+			DocumentationProperties.reset();
+		}
+	}
+
+	@Test
+	public void failureReportedAtExitIsAlwaysRecorded() {
+		DocumentationFailures.reportAtExit("Index could not be written");
+		assertThat(DocumentationFailures.getReport(), is(equalTo(String.format(
+				"Documentation failures were found:%n%nEnd of run%n"
+						+ "  - Index could not be written"))));
+	}
+
+	@Test
+	public void failuresAreRecordedConcurrently() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<Void>> futures = new ArrayList<Future<Void>>();
+			for (int i = 0; i < 8; i++) {
+				futures.add(executor.submit(new Callable<Void>() {
+
+					@Override
+					public Void call() {
+						for (int j = 0; j < 100; j++) {
+							DocumentationFailures.record("GET /" + (j % 10), "failure");
+						}
+						return null;
+					}
+
+				}));
+			}
+			for (Future<Void> future : futures) {
+				future.get();
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+		String report = DocumentationFailures.getReport();
+		assertThat(report.split("  - failure", -1).length - 1, is(800));
+	}
+
+	@Test
+	public void failuresRecordedWhileAssertingAreNotLost() throws Exception {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		int asserted = 0;
+		try {
+			Future<Void> recording = executor.submit(new Callable<Void>() {
+
+				@Override
+				public Void call() {
+					for (int i = 0; i < 10000; i++) {
+						DocumentationFailures.record("GET /", "failure");
+					}
+					return null;
+				}
+
+			});
+			while (!recording.isDone()) {
+				asserted += assertedFailures();
+			}
+			recording.get();
+		}
+		finally {
+			executor.shutdown();
+		}
+		asserted += assertedFailures();
+		assertThat(asserted, is(10000));
+	}
+
+	private int assertedFailures() {
+		try {
+			DocumentationFailures.assertNoFailures();
+			return 0;
+		}
+		catch (AssertionError error) {
+			return error.getMessage().split("  - failure", -1).length - 1;
+		}
+	}
+
+	private StubMvcResult result() {
+		return new StubMvcResult(new MockHttpServletRequest("GET", "/notes"), null);
+	}
+
+}
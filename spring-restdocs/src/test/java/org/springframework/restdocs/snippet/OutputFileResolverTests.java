@@ -54,12 +54,14 @@ public class OutputFileResolverTests {
 	public void configuredOutputAndRelativeInput() {
 		String outputDir = new File("foo").getAbsolutePath();
 		System.setProperty("org.springframework.restdocs.outputDir", outputDir);
+		DocumentationProperties.reset();
 		try {
 			assertThat(this.resolver.resolve("bar", "baz.txt"), is(new File(outputDir,
 					"bar/baz.txt")));
 		}
 		finally {
 			System.clearProperty("org.springframework.restdocs.outputDir");
+			DocumentationProperties.reset();
 		}
 	}
 
@@ -68,12 +70,14 @@ public class OutputFileResolverTests {
 		String outputDir = new File("foo").getAbsolutePath();
 		String absolutePath = new File("bar").getAbsolutePath();
 		System.setProperty("org.springframework.restdocs.outputDir", outputDir);
+		DocumentationProperties.reset();
 		try {
 			assertThat(this.resolver.resolve(absolutePath, "baz.txt"), is(new File(
 					absolutePath, "baz.txt")));
 		}
 		finally {
 			System.clearProperty("org.springframework.restdocs.outputDir");
+			DocumentationProperties.reset();
 		}
 	}
 